@@ -0,0 +1,218 @@
+package com.example.project.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin HTTP client for the library endpoints used by the load test. Every
+ * call is timed into the histogram for its endpoint label. A redirect to
+ * the login page counts as an error, since it means the request was
+ * turned away rather than served.
+ */
+public class LibraryClient {
+    
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern REFRESH_TOKEN_PATTERN = Pattern.compile("\"refreshToken\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern EXPIRES_IN_PATTERN = Pattern.compile("\"expiresIn\"\\s*:\\s*(\\d+)");
+    private static final Pattern RETURN_PATTERN = Pattern.compile("/borrow/return/(\\d+)");
+    private static final Pattern BORROW_PATTERN = Pattern.compile("/borrow/book/(\\d+)");
+    
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Metrics metrics;
+    
+    public LibraryClient(String baseUrl, Metrics metrics) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.metrics = metrics;
+        this.http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+    
+    public String login(String username, String password) {
+        HttpResponse<String> response = sendLogin(username, password);
+        return response == null ? null : extract(TOKEN_PATTERN, response.body());
+    }
+    
+    /**
+     * Signs a user in for the length of a run. The session renews its access
+     * token shortly before it expires. Returns null if the login fails.
+     */
+    public Session signIn(String username, String password) {
+        Session session = new Session(username, password);
+        return session.token() != null ? session : null;
+    }
+    
+    public void register(String username, String password) {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"," +
+                      "\"fullName\":\"Load Test " + username + "\",\"email\":\"" + username + "@loadtest.local\"}";
+        send("POST /api/auth/register", json("/api/auth/register", body, null));
+    }
+    
+    public void createBook(String adminToken, String title, String author, String isbn, String genre) {
+        String body = "{\"title\":\"" + title + "\",\"author\":\"" + author + "\",\"isbn\":\"" + isbn + "\"," +
+                      "\"genre\":\"" + genre + "\",\"quantity\":3}";
+        send("POST /api/admin/books", json("/api/admin/books", body, adminToken));
+    }
+    
+    public void browseCatalog(String token) {
+        send("GET /", get("/", token));
+    }
+    
+    public List<Long> browseAvailable(String token) {
+        HttpResponse<String> response = send("GET /borrow/available", get("/borrow/available", token));
+        return response == null ? List.of() : extractAll(BORROW_PATTERN, response.body());
+    }
+    
+    public void search(String token, String keyword) {
+        String path = "/books/search?keyword=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8);
+        send("GET /books/search", get(path, token));
+    }
+    
+    public void borrow(String token, long bookId) {
+        send("POST /borrow/book/{id}", post("/borrow/book/" + bookId, token));
+    }
+    
+    public List<Long> activeLoans(String token) {
+        HttpResponse<String> response = send("GET /borrow/history", get("/borrow/history", token));
+        return response == null ? List.of() : extractAll(RETURN_PATTERN, response.body());
+    }
+    
+    public void returnBook(String token, long recordId) {
+        send("POST /borrow/return/{id}", post("/borrow/return/" + recordId, token));
+    }
+    
+    public void adminLedger(String adminToken) {
+        send("GET /admin/borrows", get("/admin/borrows", adminToken));
+    }
+    
+    private HttpResponse<String> send(String label, HttpRequest request) {
+        LatencyHistogram histogram = metrics.histogram(label);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long micros = (System.nanoTime() - start) / 1_000;
+            // Form endpoints answer with a redirect on success, but not to the login page
+            if (response.statusCode() >= 400 || isLoginRedirect(response)) {
+                histogram.recordError();
+            } else {
+                histogram.record(micros);
+            }
+            return response;
+        } catch (IOException e) {
+            histogram.recordError();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+    
+    private HttpResponse<String> sendLogin(String username, String password) {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        return send("POST /api/auth/login", json("/api/auth/login", body, null));
+    }
+    
+    private static boolean isLoginRedirect(HttpResponse<String> response) {
+        return response.statusCode() / 100 == 3 && response.headers().firstValue("Location")
+            .filter(location -> location.contains("/login"))
+            .isPresent();
+    }
+    
+    private HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+    
+    private HttpRequest post(String path, String token) {
+        return builder(path, token).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+    
+    private HttpRequest json(String path, String body, String token) {
+        return builder(path, token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+    
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+    
+    private static String extract(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    private static List<Long> extractAll(Pattern pattern, String body) {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = pattern.matcher(body);
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+    
+    /**
+     * A signed-in user. The access token is rotated through the refresh
+     * endpoint a minute before it expires, or by signing in again if the
+     * refresh is refused, so long runs keep measuring authenticated work.
+     */
+    public final class Session {
+        private static final long RENEW_MARGIN_SECONDS = 60;
+        
+        private final String username;
+        private final String password;
+        private String accessToken;
+        private String refreshToken;
+        private long renewAt;
+        
+        private Session(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+        
+        public String username() {
+            return username;
+        }
+        
+        public synchronized String token() {
+            if (accessToken == null || System.nanoTime() - renewAt >= 0) {
+                HttpResponse<String> response = null;
+                if (refreshToken != null) {
+                    String body = "{\"refreshToken\":\"" + refreshToken + "\"}";
+                    response = send("POST /api/auth/refresh", json("/api/auth/refresh", body, null));
+                }
+                if (response == null || response.statusCode() != 200) {
+                    response = sendLogin(username, password);
+                }
+                accept(response);
+            }
+            return accessToken;
+        }
+        
+        private void accept(HttpResponse<String> response) {
+            String body = response != null && response.statusCode() == 200 ? response.body() : "";
+            accessToken = extract(TOKEN_PATTERN, body);
+            refreshToken = extract(REFRESH_TOKEN_PATTERN, body);
+            String expiresIn = extract(EXPIRES_IN_PATTERN, body);
+            long lifetime = expiresIn != null ? Long.parseLong(expiresIn) : 0;
+            renewAt = System.nanoTime() + Math.max(0, lifetime - RENEW_MARGIN_SECONDS) * 1_000_000_000L;
+        }
+    }
+}
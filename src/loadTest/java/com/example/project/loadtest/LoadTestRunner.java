@@ -0,0 +1,216 @@
+package com.example.project.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives a running library instance with a weighted mix of realistic
+ * traffic and reports throughput and p50/p95/p99 per endpoint.
+ *
+ * Options (all --key=value):
+ *   base-url, users, duration (s), warmup (s), seed-books, output-dir,
+ *   save-baseline (true/false), regression-tolerance (percent).
+ *
+ * Catalog pages require authentication in this application, so the
+ * "browsing" users are signed-in members with the minimum role.
+ */
+public class LoadTestRunner {
+    
+    private static final String PASSWORD = "loadtest123";
+    private static final String[] KEYWORDS = {
+        "code", "java", "history", "data", "design", "clean", "pragmatic", "the", "science", "art"
+    };
+    private static final String[] GENRES = {
+        "Fiction", "Science", "History", "Technology", "Biography", "Mystery"
+    };
+    
+    /** Scenario weights; they only need to be relative to each other. */
+    private static final int BROWSE = 40;
+    private static final int SEARCH = 25;
+    private static final int LOGIN = 10;
+    private static final int BORROW_RETURN = 15;
+    private static final int ADMIN_LEDGER = 10;
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int seedBooks = Integer.parseInt(options.getOrDefault("seed-books", "0"));
+        Path outputDir = Paths.get(options.getOrDefault("output-dir", "load-test"));
+        boolean saveBaseline = Boolean.parseBoolean(options.getOrDefault("save-baseline", "false"));
+        double tolerance = Double.parseDouble(options.getOrDefault("regression-tolerance", "20"));
+        
+        Metrics metrics = new Metrics();
+        LibraryClient client = new LibraryClient(baseUrl, metrics);
+        
+        LibraryClient.Session admin = client.signIn("admin", "admin123");
+        if (admin == null) {
+            System.err.println("Could not log in as admin at " + baseUrl);
+            System.exit(2);
+        }
+        
+        if (seedBooks > 0) {
+            System.out.println("Seeding " + seedBooks + " books...");
+            for (int i = 0; i < seedBooks; i++) {
+                client.createBook(admin.token(), "Load Test Book " + i, "Author " + letters(i),
+                    isbn13(i), GENRES[i % GENRES.length]);
+            }
+        }
+        
+        System.out.println("Preparing " + users + " member accounts...");
+        List<LibraryClient.Session> sessions = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String username = "lt_user_" + i;
+            client.register(username, PASSWORD);
+            LibraryClient.Session session = client.signIn(username, PASSWORD);
+            if (session == null) {
+                System.err.println("Could not log in as " + username);
+                System.exit(2);
+            }
+            sessions.add(session);
+        }
+        
+        if (warmup > 0) {
+            System.out.println("Warming up for " + warmup + "s...");
+            run(client, sessions, admin, warmup);
+            metrics.reset();
+        }
+        
+        System.out.println("Running for " + duration + "s with " + users + " users...");
+        long start = System.nanoTime();
+        run(client, sessions, admin, duration);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        
+        List<Metrics.Row> rows = metrics.snapshot(elapsed);
+        Map<String, Metrics.Row> baseline = Metrics.readCsv(outputDir.resolve("baseline.csv"));
+        boolean regressed = report(rows, baseline, tolerance);
+        
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path results = outputDir.resolve("results").resolve("results-" + stamp + ".csv");
+        Metrics.writeCsv(results, rows);
+        System.out.println("Results written to " + results);
+        if (saveBaseline) {
+            Metrics.writeCsv(outputDir.resolve("baseline.csv"), rows);
+            System.out.println("Baseline updated");
+        }
+        if (regressed && Boolean.parseBoolean(options.getOrDefault("fail-on-regression", "false"))) {
+            System.exit(1);
+        }
+    }
+    
+    private static void run(LibraryClient client, List<LibraryClient.Session> sessions,
+                            LibraryClient.Session admin, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(sessions.size());
+        for (int i = 0; i < sessions.size(); i++) {
+            LibraryClient.Session session = sessions.get(i);
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        step(client, session, admin);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-user-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+    }
+    
+    private static void step(LibraryClient client, LibraryClient.Session session, LibraryClient.Session admin) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String token = session.token();
+        int pick = random.nextInt(BROWSE + SEARCH + LOGIN + BORROW_RETURN + ADMIN_LEDGER);
+        if ((pick -= BROWSE) < 0) {
+            if (random.nextBoolean()) {
+                client.browseCatalog(token);
+            } else {
+                client.browseAvailable(token);
+            }
+        } else if ((pick -= SEARCH) < 0) {
+            client.search(token, KEYWORDS[random.nextInt(KEYWORDS.length)]);
+        } else if ((pick -= LOGIN) < 0) {
+            client.login(session.username(), PASSWORD);
+        } else if ((pick -= BORROW_RETURN) < 0) {
+            List<Long> loans = client.activeLoans(token);
+            if (!loans.isEmpty()) {
+                client.returnBook(token, loans.get(random.nextInt(loans.size())));
+            } else {
+                List<Long> available = client.browseAvailable(token);
+                if (!available.isEmpty()) {
+                    client.borrow(token, available.get(random.nextInt(available.size())));
+                }
+            }
+        } else {
+            client.adminLedger(admin.token());
+        }
+    }
+    
+    private static boolean report(List<Metrics.Row> rows, Map<String, Metrics.Row> baseline, double tolerance) {
+        boolean regressed = false;
+        System.out.printf("%n%-28s %9s %7s %10s %9s %9s %9s %9s  %s%n",
+            "endpoint", "count", "errors", "req/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "vs baseline p95");
+        for (Metrics.Row row : rows) {
+            String comparison = "-";
+            Metrics.Row before = baseline.get(row.endpoint());
+            if (before != null && before.p95Ms() > 0) {
+                double change = (row.p95Ms() - before.p95Ms()) / before.p95Ms() * 100;
+                comparison = String.format("%+.1f%%", change);
+                if (change > tolerance) {
+                    comparison += "  REGRESSION";
+                    regressed = true;
+                }
+            }
+            System.out.printf("%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                row.endpoint(), row.count(), row.errors(), row.throughput(),
+                row.meanMs(), row.p50Ms(), row.p95Ms(), row.p99Ms(), comparison);
+        }
+        return regressed;
+    }
+    
+    private static String letters(int n) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return name.toString();
+    }
+    
+    /**
+     * A valid ISBN-13 for the n-th seeded book, with the same check digit
+     * DataGenerator computes. The 9799 prefix keeps clear of its ISBNs.
+     */
+    private static String isbn13(int n) {
+        String digits = "9799" + String.format("%08d", n);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = digits.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        return digits + ((10 - sum % 10) % 10);
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.project.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint histograms plus reading and writing of CSV baselines.
+ */
+public class Metrics {
+    
+    private static final String CSV_HEADER = "endpoint,count,errors,throughput_rps,mean_ms,p50_ms,p95_ms,p99_ms";
+    
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    
+    public LatencyHistogram histogram(String label) {
+        return histograms.computeIfAbsent(label, key -> new LatencyHistogram());
+    }
+    
+    public void reset() {
+        histograms.clear();
+    }
+    
+    public List<Row> snapshot(double elapsedSeconds) {
+        List<Row> rows = new ArrayList<>();
+        new TreeMap<>(histograms).forEach((label, h) -> rows.add(new Row(
+            label,
+            h.count(),
+            h.errorCount(),
+            h.count() / elapsedSeconds,
+            h.meanMicros() / 1000.0,
+            h.percentileMicros(50) / 1000.0,
+            h.percentileMicros(95) / 1000.0,
+            h.percentileMicros(99) / 1000.0
+        )));
+        return rows;
+    }
+    
+    public static void writeCsv(Path file, List<Row> rows) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (Row row : rows) {
+            lines.add(String.format(java.util.Locale.ROOT, "%s,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f",
+                row.endpoint(), row.count(), row.errors(), row.throughput(),
+                row.meanMs(), row.p50Ms(), row.p95Ms(), row.p99Ms()));
+        }
+        Files.write(file, lines);
+    }
+    
+    public static Map<String, Row> readCsv(Path file) throws IOException {
+        Map<String, Row> rows = new HashMap<>();
+        if (!Files.exists(file)) {
+            return rows;
+        }
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("endpoint,")) {
+                continue;
+            }
+            String[] f = line.split(",");
+            rows.put(f[0], new Row(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]),
+                Double.parseDouble(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5]),
+                Double.parseDouble(f[6]), Double.parseDouble(f[7])));
+        }
+        return rows;
+    }
+    
+    public record Row(String endpoint, long count, long errors, double throughput,
+                      double meanMs, double p50Ms, double p95Ms, double p99Ms) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.project.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the application in each requested mode, measures the time until the
+ * first HTTP response and the latency of that first request, then stops it.
+ *
+ * Modes: jvm (plain boot jar), aot (extracted jar with Spring AOT),
+ * cds (aot plus the class-data-sharing archive), native (GraalVM binary).
+ *
+ * Options (all --key=value):
+ *   modes, boot-jar, extracted-jar, cds-archive, native-binary, port,
+ *   profile, runs, timeout (s), output-dir.
+ */
+public class StartupBenchmark {
+    
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String[] modes = options.getOrDefault("modes", "jvm,aot,cds").split(",");
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        int timeout = Integer.parseInt(options.getOrDefault("timeout", "120"));
+        Path outputDir = Paths.get(options.getOrDefault("output-dir", "build/startup"));
+        
+        List<String> lines = new ArrayList<>();
+        lines.add("mode,run,context_seconds,first_response_ms,first_request_ms");
+        System.out.printf("%n%-8s %4s %16s %18s %17s%n", "Mode", "Run", "Context (s)", "First resp (ms)", "First req (ms)");
+        for (String mode : modes) {
+            List<String> command = command(mode.trim(), options, port);
+            if (command == null) {
+                System.out.println("Skipping " + mode + ": artifact not built");
+                continue;
+            }
+            for (int run = 1; run <= runs; run++) {
+                Result result = measure(command, port, timeout);
+                System.out.printf("%-8s %4d %16s %18d %17d%n", mode, run,
+                    result.contextSeconds == null ? "-" : result.contextSeconds, result.firstResponseMs, result.firstRequestMs);
+                lines.add(String.join(",", mode, String.valueOf(run),
+                    result.contextSeconds == null ? "" : result.contextSeconds,
+                    String.valueOf(result.firstResponseMs), String.valueOf(result.firstRequestMs)));
+            }
+        }
+        
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path results = outputDir.resolve("startup-" + stamp + ".csv");
+        Files.createDirectories(outputDir);
+        Files.write(results, lines, StandardCharsets.UTF_8);
+        System.out.println("Results written to " + results);
+    }
+    
+    private static List<String> command(String mode, Map<String, String> options, int port) {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>();
+        switch (mode) {
+            case "jvm" -> {
+                if (!exists(options.get("boot-jar"))) return null;
+                command.addAll(List.of(java, "-jar", options.get("boot-jar")));
+            }
+            case "aot" -> {
+                if (!exists(options.get("extracted-jar"))) return null;
+                command.addAll(List.of(java, "-Dspring.aot.enabled=true", "-jar", options.get("extracted-jar")));
+            }
+            case "cds" -> {
+                if (!exists(options.get("extracted-jar")) || !exists(options.get("cds-archive"))) return null;
+                command.addAll(List.of(java, "-XX:SharedArchiveFile=" + options.get("cds-archive"),
+                    "-Dspring.aot.enabled=true", "-jar", options.get("extracted-jar")));
+            }
+            case "native" -> {
+                if (!exists(options.get("native-binary"))) return null;
+                command.add(options.get("native-binary"));
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.add("--server.port=" + port);
+        String profile = options.get("profile");
+        if (profile != null && !profile.isBlank()) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+        return command;
+    }
+    
+    private static Result measure(List<String> command, int port, int timeoutSeconds) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+            .timeout(Duration.ofSeconds(10)).GET().build();
+        
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<String> contextSeconds = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    Matcher matcher = STARTED.matcher(line);
+                    if (matcher.find()) {
+                        contextSeconds.set(matcher.group(1));
+                    }
+                }
+            } catch (IOException ignored) {
+                // process exited
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        
+        try {
+            long deadline = start + Duration.ofSeconds(timeoutSeconds).toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    long requestStart = System.nanoTime();
+                    http.send(login, HttpResponse.BodyHandlers.discarding());
+                    long now = System.nanoTime();
+                    // Tomcat accepts connections just before the "Started" line is logged
+                    for (int i = 0; i < 40 && contextSeconds.get() == null; i++) {
+                        Thread.sleep(50);
+                    }
+                    return new Result(contextSeconds.get(), (now - start) / 1_000_000, (now - requestStart) / 1_000_000);
+                } catch (IOException notListening) {
+                    Thread.sleep(50);
+                }
+            }
+            throw new IllegalStateException("No response within " + timeoutSeconds + "s");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+    
+    private static boolean exists(String path) {
+        return path != null && Files.isRegularFile(Paths.get(path));
+    }
+    
+    private record Result(String contextSeconds, long firstResponseMs, long firstRequestMs) {
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.project.config;
+
+import com.example.project.entity.BorrowStatus;
+import com.example.project.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bulk-loads a large synthetic catalog, member base and multi-year loan
+ * history for benchmarks and load tests. Runs only with the "datagen"
+ * profile:
+ *
+ *   ./gradlew bootRun --args='--spring.profiles.active=datagen'
+ *
+ * Output is reproducible for a given seed. Book and member popularity
+ * follow a Zipf distribution so a small set of titles and members account
+ * for most loans, as in real circulation data.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class DataGenerator implements CommandLineRunner {
+    
+    private static final String[] GENRES = {
+        "Fiction", "Non-Fiction", "Science", "History", "Biography",
+        "Mystery", "Romance", "Technology", "Self-Help", "Other"
+    };
+    private static final String[] TITLE_WORDS = {
+        "Silent", "River", "Code", "Empire", "Garden", "Secret", "Modern", "Lost", "Journey", "Light",
+        "Shadow", "Ocean", "Theory", "Practical", "Northern", "History", "Mind", "Stone", "Winter", "City"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Anna", "Ben", "Chen", "Dara", "Elena", "Farid", "Grace", "Hiro", "Ines", "Jonas",
+        "Kiri", "Lena", "Malik", "Nora", "Omar", "Priya", "Quinn", "Rosa", "Sami", "Tara"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Garcia", "Nguyen", "Khan", "Muller", "Rossi", "Sato", "Silva", "Kim", "Okafor",
+        "Novak", "Larsen", "Dubois", "Cohen", "Ivanova", "Mensah", "Park", "Haddad", "Costa", "Lee"
+    };
+    // BCrypt hash of "password", shared by every generated member
+    private static final String PASSWORD_HASH = "$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfigurableApplicationContext context;
+    
+    @Value("${library.datagen.books:100000}")
+    private int bookCount;
+    
+    @Value("${library.datagen.users:20000}")
+    private int userCount;
+    
+    @Value("${library.datagen.loans:1000000}")
+    private int loanCount;
+    
+    @Value("${library.datagen.years:3}")
+    private int years;
+    
+    @Value("${library.datagen.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${library.datagen.seed:42}")
+    private long seed;
+    
+    @Value("${library.datagen.exit-on-finish:true}")
+    private boolean exitOnFinish;
+    
+    @Override
+    public void run(String... args) {
+        Random random = new Random(seed);
+        long start = System.currentTimeMillis();
+        log.info("Generating {} books, {} users and {} loans (seed {})", bookCount, userCount, loanCount, seed);
+        
+        long[] bookIds = generateBooks(random);
+        long[] userIds = generateUsers(random);
+        generateLoans(random, bookIds, userIds);
+        
+        stockCopies();
+        
+        // Books with no copy left on any shelf are not available
+        jdbcTemplate.update("UPDATE books b SET b.is_available = FALSE WHERE NOT EXISTS " +
+            "(SELECT 1 FROM branch_holdings h WHERE h.book_id = b.id AND h.available_quantity > 0)");
+        
+        log.info("Data generation finished in {} s", (System.currentTimeMillis() - start) / 1000);
+        
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+    
+    /**
+     * Creates one copy per unit of quantity in the main branch, lends a copy
+     * to each open loan, and summarises the copies into branch holdings.
+     */
+    private void stockCopies() {
+        jdbcTemplate.update("INSERT INTO book_copies (book_id, branch_id, copy_no, barcode, status) " +
+            "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq " +
+            "WHERE n < (SELECT COALESCE(MAX(quantity), 0) FROM books)) " +
+            "SELECT b.id, ?, seq.n, CONCAT(LPAD(b.id, 9, '0'), LPAD(seq.n, 4, '0')), 'AVAILABLE' " +
+            "FROM books b JOIN seq ON seq.n <= b.quantity " +
+            "WHERE NOT EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = b.id)",
+            TenantContext.DEFAULT_BRANCH_ID);
+        
+        jdbcTemplate.update("UPDATE borrow_records r JOIN (SELECT id, branch_id, book_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY branch_id, book_id ORDER BY id) AS rn FROM borrow_records " +
+            "WHERE status IN (?, ?) AND copy_id IS NULL) o ON o.id = r.id " +
+            "JOIN book_copies c ON c.branch_id = o.branch_id AND c.book_id = o.book_id AND c.copy_no = o.rn " +
+            "AND c.status = 'AVAILABLE' SET r.copy_id = c.id",
+            BorrowStatus.BORROWED.getCode(), BorrowStatus.OVERDUE.getCode());
+        jdbcTemplate.update("UPDATE book_copies c JOIN borrow_records r ON r.copy_id = c.id AND r.status IN (?, ?) " +
+            "SET c.status = 'ON_LOAN'",
+            BorrowStatus.BORROWED.getCode(), BorrowStatus.OVERDUE.getCode());
+        
+        jdbcTemplate.update("INSERT INTO branch_holdings (branch_id, book_id, quantity, available_quantity) " +
+            "SELECT c.branch_id, c.book_id, SUM(c.status <> 'WITHDRAWN'), SUM(c.status = 'AVAILABLE') " +
+            "FROM book_copies c WHERE NOT EXISTS (SELECT 1 FROM branch_holdings h " +
+            "WHERE h.branch_id = c.branch_id AND h.book_id = c.book_id) GROUP BY c.branch_id, c.book_id");
+        log.info("Stocked copies for generated books");
+    }
+    
+    private long[] generateBooks(Random random) {
+        long firstSerial = nextSerial("SELECT COUNT(*) FROM books");
+        BatchInserter inserter = new BatchInserter(
+            "INSERT INTO books (title, author, isbn, isbn13, genre, quantity, is_available) VALUES ", "(?, ?, ?, ?, ?, ?, TRUE)");
+        for (int i = 0; i < bookCount; i++) {
+            String title = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " +
+                TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + (i + 1);
+            String author = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " +
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String isbn = isbn13(firstSerial + i);
+            inserter.add(title, author, isbn, Long.parseLong(isbn), GENRES[random.nextInt(GENRES.length)], 1 + random.nextInt(5));
+        }
+        inserter.flush();
+        log.info("Inserted {} books", bookCount);
+        return ids("SELECT id FROM books ORDER BY id DESC LIMIT ?", bookCount);
+    }
+    
+    private long[] generateUsers(Random random) {
+        long firstSerial = nextSerial("SELECT COUNT(*) FROM users");
+        BatchInserter inserter = new BatchInserter(
+            "INSERT INTO users (username, password, full_name, email) VALUES ", "(?, ?, ?, ?)");
+        for (int i = 0; i < userCount; i++) {
+            String username = "gen_user_" + (firstSerial + i);
+            String fullName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " +
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            inserter.add(username, PASSWORD_HASH, fullName, username + "@example.com");
+        }
+        inserter.flush();
+        
+        long[] userIds = ids("SELECT id FROM users ORDER BY id DESC LIMIT ?", userCount);
+        Long memberRoleId = jdbcTemplate.queryForObject("SELECT id FROM roles WHERE name = 'MEMBER'", Long.class);
+        BatchInserter roles = new BatchInserter("INSERT INTO user_roles (user_id, role_id) VALUES ", "(?, ?)");
+        for (long userId : userIds) {
+            roles.add(userId, memberRoleId);
+        }
+        roles.flush();
+        log.info("Inserted {} users with MEMBER role", userCount);
+        return userIds;
+    }
+    
+    /**
+     * Open loans are capped at each title's copies: once a popular title has
+     * every copy out, further loans of it are generated as already returned,
+     * so stockCopies can lend a copy to every open loan.
+     */
+    private void generateLoans(Random random, long[] bookIds, long[] userIds) {
+        double[] bookPopularity = zipfCdf(bookIds.length, 1.0);
+        double[] userActivity = zipfCdf(userIds.length, 0.8);
+        // Same order as bookIds
+        int[] freeCopies = jdbcTemplate.queryForList("SELECT quantity FROM books ORDER BY id DESC LIMIT ?",
+            Integer.class, bookIds.length).stream().mapToInt(Integer::intValue).toArray();
+        LocalDate today = LocalDate.now();
+        int historyDays = years * 365;
+        
+        BatchInserter inserter = new BatchInserter(
+            "INSERT INTO borrow_records (user_id, book_id, borrow_date, return_deadline, actual_return_date, status) VALUES ",
+            "(?, ?, ?, ?, ?, ?)");
+        for (int i = 0; i < loanCount; i++) {
+            long userId = userIds[sample(userActivity, random)];
+            int book = sample(bookPopularity, random);
+            long bookId = bookIds[book];
+            
+            // Square the uniform draw so recent dates are more frequent than old ones
+            double age = random.nextDouble();
+            LocalDate borrowDate = today.minusDays((long) (age * age * historyDays));
+            LocalDate deadline = borrowDate.plusDays(14);
+            
+            LocalDate returned = null;
+            BorrowStatus status;
+            if (freeCopies[book] > 0 && !deadline.isBefore(today) && random.nextInt(3) == 0) {
+                status = BorrowStatus.BORROWED;
+                freeCopies[book]--;
+            } else if (freeCopies[book] > 0 && deadline.isBefore(today) && random.nextInt(50) == 0) {
+                status = BorrowStatus.OVERDUE;
+                freeCopies[book]--;
+            } else {
+                returned = borrowDate.plusDays(1 + random.nextInt(20));
+                if (returned.isAfter(today)) {
+                    returned = today;
+                }
+                status = returned.isAfter(deadline) ? BorrowStatus.RETURNED_LATE : BorrowStatus.RETURNED;
+            }
+            inserter.add(userId, bookId, Date.valueOf(borrowDate), Date.valueOf(deadline),
+                returned == null ? null : Date.valueOf(returned), status.getCode());
+            
+            if ((i + 1) % 100_000 == 0) {
+                log.info("Inserted {} loans", i + 1);
+            }
+        }
+        inserter.flush();
+        log.info("Inserted {} loans", loanCount);
+    }
+    
+    private long nextSerial(String countSql) {
+        Long count = jdbcTemplate.queryForObject(countSql, Long.class);
+        return (count == null ? 0 : count) + 1_000_000;
+    }
+    
+    private long[] ids(String sql, int limit) {
+        long[] ids = jdbcTemplate.queryForList(sql, Long.class, limit).stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+    
+    /** Builds a valid ISBN-13 in the 979 range from a serial number. */
+    static String isbn13(long serial) {
+        String digits = "979" + String.format("%09d", serial % 1_000_000_000L);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = digits.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        return digits + ((10 - sum % 10) % 10);
+    }
+    
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= total;
+        }
+        return cdf;
+    }
+    
+    private static int sample(double[] cdf, Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+    
+    /**
+     * Collects rows and writes them as one multi-row INSERT per batch.
+     */
+    private class BatchInserter {
+        private final String prefix;
+        private final String rowPlaceholders;
+        private final List<Object> args = new ArrayList<>();
+        private int rows;
+        
+        private BatchInserter(String prefix, String rowPlaceholders) {
+            this.prefix = prefix;
+            this.rowPlaceholders = rowPlaceholders;
+        }
+        
+        private void add(Object... values) {
+            args.addAll(Arrays.asList(values));
+            if (++rows == batchSize) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (rows == 0) {
+                return;
+            }
+            StringBuilder sql = new StringBuilder(prefix.length() + rows * (rowPlaceholders.length() + 2));
+            sql.append(prefix);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(rowPlaceholders);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+            args.clear();
+            rows = 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.project.config;
+
+import com.example.project.monitoring.ProfilingDataSource;
+import com.example.project.monitoring.SqlLatencyStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "library.jdbc-profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcProfilingConfig {
+    
+    /**
+     * Static so the post-processor is registered before the DataSource is
+     * created; the stats bean is looked up lazily for the same reason.
+     */
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<SqlLatencyStats> stats) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource, stats.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.project.config;
+
+import com.example.project.dto.BookRequest;
+import com.example.project.dto.BorrowRequest;
+import com.example.project.dto.ErrorResponse;
+import com.example.project.dto.JwtAuthResponse;
+import com.example.project.dto.LoginRequest;
+import com.example.project.dto.RegisterRequest;
+import com.example.project.entity.ArchivedBorrowRecord;
+import com.example.project.entity.Book;
+import com.example.project.entity.BookAsset;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.BookHold;
+import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.Branch;
+import com.example.project.entity.BranchHolding;
+import com.example.project.entity.Fine;
+import com.example.project.entity.Reminder;
+import com.example.project.entity.Role;
+import com.example.project.entity.User;
+import com.example.project.entity.UserBalance;
+import com.example.project.monitoring.QueryCountInspector;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Reflection and resource hints for the native image. Spring AOT already
+ * covers beans, repositories and the JPA metamodel; what it cannot see is
+ * Thymeleaf/SpEL reading entity getters generated by Lombok, jjwt loading
+ * its implementation by class name, Hibernate instantiating the
+ * statement inspector from a property, and ProfilingDataSource wrapping
+ * JDBC objects in JDK proxies. These hints are ignored on the JVM.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.LibraryRuntimeHints.class)
+@RegisterReflectionForBinding({
+    Book.class, BookAsset.class, BookCopy.class, BookHold.class, BorrowRecord.class,
+    ArchivedBorrowRecord.class, Branch.class, BranchHolding.class, Fine.class,
+    Reminder.class, Role.class, User.class, UserBalance.class,
+    BookRequest.class, BorrowRequest.class, ErrorResponse.class, JwtAuthResponse.class,
+    LoginRequest.class, RegisterRequest.class
+})
+public class NativeHintsConfig {
+    
+    /** jjwt-impl is runtimeOnly, so these are referenced by name. */
+    private static final String[] JJWT_TYPES = {
+        "io.jsonwebtoken.impl.DefaultJwtBuilder",
+        "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+        "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+        "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+        "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+        "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+        "io.jsonwebtoken.impl.security.StandardKeyOperations",
+        "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+        "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+        "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+        "io.jsonwebtoken.impl.security.StandardCurves",
+        "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+        "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+        "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+        "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+        "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+        "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+        "io.jsonwebtoken.impl.security.JwksBridge",
+        "io.jsonwebtoken.impl.security.KeysBridge",
+        "io.jsonwebtoken.jackson.io.JacksonSerializer",
+        "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+    
+    static class LibraryRuntimeHints implements RuntimeHintsRegistrar {
+        
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+            
+            hints.reflection().registerType(QueryCountInspector.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            
+            // Native images need every proxy interface list known at build time
+            hints.proxies()
+                .registerJdkProxy(Connection.class)
+                .registerJdkProxy(Statement.class)
+                .registerJdkProxy(PreparedStatement.class)
+                .registerJdkProxy(CallableStatement.class);
+            
+            hints.resources()
+                .registerPattern("templates/*.html")
+                .registerPattern("templates/**/*.html")
+                .registerPattern("static/**")
+                .registerPattern("application*.properties");
+        }
+    }
+}
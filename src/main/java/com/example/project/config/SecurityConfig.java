@@ -1,7 +1,11 @@
 package com.example.project.config;
 
+import com.example.project.repository.UserRepository;
 import com.example.project.service.CustomUserDetailsService;
+import com.example.project.service.InvalidationBus;
+import com.example.project.security.BranchContextFilter;
 import com.example.project.security.JwtAuthenticationFilter;
+import com.example.project.security.TokenLogoutHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,6 +24,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final TokenLogoutHandler tokenLogoutHandler;
+    private final InvalidationBus invalidationBus;
 
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) 
@@ -46,6 +53,7 @@ public class SecurityConfig {
                 .requestMatchers("/login", "/register").permitAll()
                 .requestMatchers("/api/auth/login").permitAll()
                 .requestMatchers("/api/auth/register").permitAll()
+                .requestMatchers("/api/auth/refresh", "/api/auth/logout").permitAll()
                 .requestMatchers("/admin/**").hasRole("LIBRARIAN")
                 .requestMatchers("/api/admin/**").hasRole("LIBRARIAN")
                 .requestMatchers("/borrow/**", "/api/borrow/**").hasAnyRole("MEMBER", "LIBRARIAN")
@@ -59,10 +67,12 @@ public class SecurityConfig {
             )
             .logout(logout -> logout
                 .logoutUrl("/logout")
+                .addLogoutHandler(tokenLogoutHandler)
                 .logoutSuccessUrl("/login?logout")
                 .permitAll()
             )
             .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(new BranchContextFilter(userRepository, invalidationBus), JwtAuthenticationFilter.class)
             .userDetailsService(userDetailsService);
         
         return http.build();
@@ -0,0 +1,30 @@
+package com.example.project.config;
+
+import com.example.project.security.JdbcSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Replaces Tomcat's in-memory sessions with the shared http_sessions table,
+ * so form logins survive restarts and any node can serve any request.
+ * Set library.session.store=memory to fall back to container sessions.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "library.session.store", havingValue = "jdbc", matchIfMissing = true)
+public class SessionConfig {
+    
+    @Bean
+    public JdbcSessionRepository sessionRepository(JdbcTemplate jdbcTemplate,
+                                                   @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                   @Value("${library.session.touch-interval:60s}") Duration touchInterval,
+                                                   @Value("${library.session.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        return new JdbcSessionRepository(jdbcTemplate, timeout, touchInterval, cleanupBatchSize);
+    }
+}
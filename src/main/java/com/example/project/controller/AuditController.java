@@ -0,0 +1,36 @@
+package com.example.project.controller;
+
+import com.example.project.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+@RequiredArgsConstructor
+public class AuditController {
+    
+    private final AuditService auditService;
+    
+    @GetMapping("/admin/audit")
+    public String showAuditTrail(@RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(required = false) String entityType,
+                                 @RequestParam(required = false) Long entityId,
+                                 @RequestParam(required = false) String actor,
+                                 Model model) {
+        model.addAttribute("events", auditService.getEvents(entityType, entityId, actor, page));
+        model.addAttribute("entityType", entityType);
+        model.addAttribute("entityId", entityId);
+        model.addAttribute("actor", actor);
+        return "audit/list";
+    }
+    
+    @GetMapping("/api/admin/audit-stats")
+    @ResponseBody
+    public ResponseEntity<?> auditStats() {
+        return ResponseEntity.ok(auditService.getMetrics());
+    }
+}
@@ -4,11 +4,16 @@ import com.example.project.dto.LoginRequest;
 import com.example.project.dto.RegisterRequest;
 import com.example.project.dto.JwtAuthResponse;
 import com.example.project.dto.ErrorResponse;
+import com.example.project.dto.RefreshTokenRequest;
 import com.example.project.entity.Role;
 import com.example.project.entity.User;
 import com.example.project.repository.RoleRepository;
 import com.example.project.repository.UserRepository;
 import com.example.project.security.JwtTokenProvider;
+import com.example.project.security.TenantContext;
+import com.example.project.security.TokenLogoutHandler;
+import com.example.project.service.InvalidationBus;
+import com.example.project.service.RefreshTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +23,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -32,6 +38,8 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final InvalidationBus invalidationBus;
     
     @GetMapping("/login")
     public String login() {
@@ -81,6 +89,7 @@ public class AuthController {
         user.getRoles().add(memberRole);
         
         userRepository.save(user);
+        invalidationBus.publish(InvalidationBus.USER, user.getId());
         
         redirectAttributes.addFlashAttribute("success", "Registration successful! Please login.");
         return "redirect:/login";
@@ -98,10 +107,13 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String token = tokenProvider.generateToken(authentication);
-            String username = authentication.getName();
+            User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            Long branchId = user.getBranchId() != null ? user.getBranchId() : TenantContext.DEFAULT_BRANCH_ID;
+            RefreshTokenService.TokenPair tokens = refreshTokenService.issue(user, branchId);
             
-            return ResponseEntity.ok(new JwtAuthResponse(token, username));
+            return ResponseEntity.ok(new JwtAuthResponse(tokens.accessToken(), tokens.refreshToken(),
+                tokens.expiresIn(), user.getUsername()));
         } catch (Exception e) {
             System.out.println("Auth error: " + e.getMessage());
             e.printStackTrace();
@@ -148,11 +160,37 @@ public class AuthController {
         user.getRoles().add(memberRole);
         
         userRepository.save(user);
+        invalidationBus.publish(InvalidationBus.USER, user.getId());
         
-        // Generate token for newly registered user
-        String token = tokenProvider.generateTokenFromUsername(dto.getUsername());
-        JwtAuthResponse response = new JwtAuthResponse(token, dto.getUsername());
+        // Generate tokens for newly registered user
+        RefreshTokenService.TokenPair tokens = refreshTokenService.issue(user, user.getBranchId());
+        JwtAuthResponse response = new JwtAuthResponse(tokens.accessToken(), tokens.refreshToken(),
+            tokens.expiresIn(), dto.getUsername());
         response.setMessage("Registration successful!");
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+    
+    /** Rotates a refresh token: the old one stops working and a new pair is returned. */
+    @PostMapping("/api/auth/refresh")
+    public ResponseEntity<?> apiRefresh(@Valid @RequestBody RefreshTokenRequest request, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.badRequest().body(
+                new ErrorResponse(bindingResult.getAllErrors().get(0).getDefaultMessage(), "Bad Request", 400));
+        }
+        return refreshTokenService.refresh(request.getRefreshToken())
+            .<ResponseEntity<?>>map(tokens -> ResponseEntity.ok(new JwtAuthResponse(tokens.accessToken(),
+                tokens.refreshToken(), tokens.expiresIn(), tokenProvider.getUsernameFromToken(tokens.accessToken()))))
+            .orElseGet(() -> ResponseEntity.status(401).body(
+                new ErrorResponse("Invalid or expired refresh token", "Authentication Failed", 401)));
+    }
+    
+    /** Revokes the bearer access token and the refresh token's family, if one is sent. */
+    @PostMapping("/api/auth/logout")
+    public ResponseEntity<?> apiLogout(HttpServletRequest request,
+                                       @RequestBody(required = false) RefreshTokenRequest body) {
+        refreshTokenService.logout(TokenLogoutHandler.bearerToken(request),
+            body != null ? body.getRefreshToken() : null);
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.project.controller;
+
+import com.example.project.entity.BookAsset;
+import com.example.project.service.BlobStoreService;
+import com.example.project.service.BookAssetService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Serves book assets straight from the blob store. Blobs are immutable, so
+ * the hash doubles as a strong ETag and responses can be cached forever.
+ * When Tomcat supports sendfile the file is handed to the connector and
+ * never enters the JVM. Otherwise the bytes are copied through the heap in
+ * fixed 64 KiB chunks, so memory per download stays bounded however large
+ * the file is.
+ */
+@Controller
+@RequiredArgsConstructor
+public class BookAssetController {
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+    
+    private final BlobStoreService blobStore;
+    private final BookAssetService bookAssetService;
+    
+    @GetMapping("/assets/{hash}")
+    public void serveAsset(@PathVariable String hash,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        if (!blobStore.exists(hash)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Optional<BookAsset> asset = bookAssetService.findByHash(hash);
+        if (asset.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        Path path = blobStore.resolve(hash);
+        long fileSize = Files.size(path);
+        long start = 0;
+        long end = fileSize - 1;
+        
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && range.startsWith("bytes=") && !range.contains(",")) {
+            long[] bounds = parseRange(range.substring(6), fileSize);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = bounds[0];
+            end = bounds[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+        }
+        
+        long length = end - start + 1;
+        response.setContentType(asset.get().getContentType());
+        response.setContentLengthLong(length);
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_CHUNK_BYTES, length));
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                out.write(buffer.array(), 0, read);
+                position += read;
+                remaining -= read;
+            }
+        }
+    }
+    
+    /**
+     * Parses a single "start-end", "start-" or "-suffix" range.
+     * Returns null when the range cannot be satisfied.
+     */
+    private long[] parseRange(String spec, long fileSize) {
+        try {
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, fileSize - suffix);
+                end = fileSize - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? fileSize - 1 : Math.min(Long.parseLong(last), fileSize - 1);
+            }
+            if (start > end || start >= fileSize) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,32 +1,52 @@
 package com.example.project.controller;
 
 import com.example.project.dto.BookRequest;
+import com.example.project.entity.AssetKind;
 import com.example.project.entity.Book;
+import com.example.project.repository.UserRepository;
+import com.example.project.service.BookAssetService;
 import com.example.project.service.BookService;
+import com.example.project.service.CatalogFacetIndex;
+import com.example.project.service.RecommendationService;
+import com.example.project.view.FragmentCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
 public class BookController {
     
     private final BookService bookService;
+    private final BookAssetService bookAssetService;
+    private final RecommendationService recommendationService;
+    private final UserRepository userRepository;
+    
+    private static final int BROWSE_PAGE_SIZE = 25;
+    private static final int RECOMMENDATION_LIMIT = 8;
     
     @GetMapping("/")
-    public String index(Model model) {
-        model.addAttribute("books", bookService.getAllBooks());
+    public String index(Authentication authentication, Model model) {
+        model.addAttribute("books", FragmentCache.lazy(bookService::getAllBooks));
+        List<Long> recommended = userRepository.findByUsername(authentication.getName())
+            .map(user -> recommendationService.getForUser(user.getId(), RECOMMENDATION_LIMIT))
+            .orElse(List.of());
+        model.addAttribute("recommendedBooks", bookService.getBooksByIds(recommended));
         return "index";
     }
     
     @GetMapping("/admin/books")
     public String listBooks(Model model) {
-        model.addAttribute("books", bookService.getAllBooks());
+        model.addAttribute("books", FragmentCache.lazy(bookService::getAllBooks));
         return "books/list";
     }
     
@@ -39,6 +59,8 @@ public class BookController {
     @PostMapping("/admin/books")
     public String createBook(@Valid @ModelAttribute BookRequest dto, 
                             BindingResult bindingResult,
+                            @RequestParam(required = false) MultipartFile cover,
+                            @RequestParam(required = false) MultipartFile sample,
                             RedirectAttributes redirectAttributes) {
         if (bindingResult.hasErrors()) {
             bindingResult.getAllErrors().forEach(error -> 
@@ -50,7 +72,8 @@ public class BookController {
         try {
             Book book = new Book(dto.getTitle(), dto.getAuthor(), 
                                 dto.getIsbn(), dto.getGenre(), dto.getQuantity());
-            bookService.saveBook(book);
+            Book savedBook = bookService.saveBook(book);
+            attachAssets(savedBook.getId(), cover, sample);
             redirectAttributes.addFlashAttribute("success", "Book added successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error adding book: " + e.getMessage());
@@ -63,6 +86,7 @@ public class BookController {
         return bookService.getBookById(id)
             .map(book -> {
                 model.addAttribute("book", book);
+                model.addAttribute("assets", bookAssetService.getAssets(id));
                 return "books/form";
             })
             .orElseGet(() -> {
@@ -75,6 +99,8 @@ public class BookController {
     public String updateBook(@PathVariable Long id, 
                             @Valid @ModelAttribute BookRequest dto,
                             BindingResult bindingResult,
+                            @RequestParam(required = false) MultipartFile cover,
+                            @RequestParam(required = false) MultipartFile sample,
                             RedirectAttributes redirectAttributes) {
         if (bindingResult.hasErrors()) {
             bindingResult.getAllErrors().forEach(error -> 
@@ -86,7 +112,9 @@ public class BookController {
         try {
             Book book = new Book(dto.getTitle(), dto.getAuthor(), 
                                 dto.getIsbn(), dto.getGenre(), dto.getQuantity());
+            book.setWithheld(Boolean.TRUE.equals(dto.getWithheld()));
             bookService.updateBook(id, book);
+            attachAssets(id, cover, sample);
             redirectAttributes.addFlashAttribute("success", "Book updated successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error updating book: " + e.getMessage());
@@ -116,6 +144,67 @@ public class BookController {
         return "books/search";
     }
     
+    @GetMapping("/books/browse")
+    public String browseBooks(@RequestParam(required = false) List<String> genre,
+                              @RequestParam(required = false) List<String> author,
+                              @RequestParam(required = false) Boolean available,
+                              @RequestParam(defaultValue = "0") int page,
+                              Model model) {
+        CatalogFacetIndex.FacetResult facets = bookService.browse(genre, author, available);
+        List<Long> ids = facets.bookIds();
+        int from = Math.min(Math.max(page, 0) * BROWSE_PAGE_SIZE, ids.size());
+        int to = Math.min(from + BROWSE_PAGE_SIZE, ids.size());
+        
+        model.addAttribute("books", bookService.getBooksByIds(ids.subList(from, to)));
+        model.addAttribute("facets", facets);
+        model.addAttribute("selectedGenres", genre != null ? genre : List.of());
+        model.addAttribute("selectedAuthors", author != null ? author : List.of());
+        model.addAttribute("available", available);
+        model.addAttribute("page", Math.max(page, 0));
+        model.addAttribute("hasNext", to < ids.size());
+        return "books/browse";
+    }
+    
+    @GetMapping("/api/books/suggest")
+    @ResponseBody
+    public ResponseEntity<?> suggestBooks(@RequestParam(name = "q", required = false) String query) {
+        if (query == null || query.isBlank()) {
+            return ResponseEntity.ok(List.of());
+        }
+        return ResponseEntity.ok(bookService.suggest(query));
+    }
+    
+    @GetMapping("/books/{id}")
+    public String viewBook(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
+        return bookService.getBookById(id)
+            .map(book -> {
+                model.addAttribute("book", book);
+                model.addAttribute("alsoBorrowed", bookService.getBooksByIds(
+                    recommendationService.getAlsoBorrowed(id, RECOMMENDATION_LIMIT)));
+                return "books/detail";
+            })
+            .orElseGet(() -> {
+                redirectAttributes.addFlashAttribute("error", "Book not found");
+                return "redirect:/";
+            });
+    }
+    
+    /** Front-desk lookup by a scanned or typed ISBN-10/13, in any hyphenation. */
+    @GetMapping("/api/books/isbn/{isbn}")
+    @ResponseBody
+    public ResponseEntity<?> findByIsbn(@PathVariable String isbn) {
+        return bookService.getBookByIsbn(isbn)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/api/books/{id}/also-borrowed")
+    @ResponseBody
+    public ResponseEntity<?> alsoBorrowed(@PathVariable Long id,
+                                          @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(bookService.getBooksByIds(recommendationService.getAlsoBorrowed(id, limit)));
+    }
+    
     @PostMapping("/api/admin/books")
     public ResponseEntity<?> createBookApi(@Valid @RequestBody BookRequest dto,BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
@@ -132,4 +221,13 @@ public class BookController {
             return ResponseEntity.status(400).body("Error adding book: " + e.getMessage());
         }
     }
+    
+    private void attachAssets(Long bookId, MultipartFile cover, MultipartFile sample) throws IOException {
+        if (cover != null && !cover.isEmpty()) {
+            bookAssetService.attach(bookId, AssetKind.COVER, cover);
+        }
+        if (sample != null && !sample.isEmpty()) {
+            bookAssetService.attach(bookId, AssetKind.SAMPLE, sample);
+        }
+    }
 }
\ No newline at end of file
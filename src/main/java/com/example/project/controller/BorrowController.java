@@ -1,18 +1,29 @@
 package com.example.project.controller;
 
 import com.example.project.entity.Book;
+import com.example.project.entity.BorrowRecord;
 import com.example.project.entity.User;
 import com.example.project.repository.UserRepository;
+import com.example.project.security.TenantContext;
 import com.example.project.service.BookService;
 import com.example.project.service.BorrowService;
+import com.example.project.service.FineService;
+import com.example.project.service.HoldService;
+import com.example.project.service.IdempotencyService;
+import com.example.project.service.NotificationService;
+import com.example.project.view.FragmentCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 @Controller
 @RequiredArgsConstructor
 public class BorrowController {
@@ -20,15 +31,79 @@ public class BorrowController {
     private final BorrowService borrowService;
     private final BookService bookService;
     private final UserRepository userRepository;
+    private final HoldService holdService;
+    private final NotificationService notificationService;
+    private final FineService fineService;
+    private final IdempotencyService idempotencyService;
+    
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
     
     @GetMapping("/borrow/available")
     public String showAvailableBooks(Model model) {
-        model.addAttribute("books", bookService.getAvailableBooks());
+        model.addAttribute("books", FragmentCache.lazy(bookService::getAvailableBooks));
         return "borrows/available";
     }
     
     @PostMapping("/borrow/book/{bookId}")
     public String borrowBook(@PathVariable Long bookId, 
+                            @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                            @RequestParam(required = false) String idempotencyKey,
+                            Authentication authentication,
+                            RedirectAttributes redirectAttributes) {
+        return idempotencyService.execute(authentication.getName(), keyOf(idempotencyHeader, idempotencyKey),
+                "/borrow/book/" + bookId, "redirect:/borrow/available", redirectAttributes, () -> {
+            try {
+                User user = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+                
+                Book book = bookService.getBookById(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+                
+                borrowService.borrowBook(user, book);
+                redirectAttributes.addFlashAttribute("success", "Book borrowed successfully! Return deadline is 14 days.");
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("error", "Error borrowing book: " + e.getMessage());
+            }
+        });
+    }
+    
+    @GetMapping("/borrow/history")
+    public String showBorrowHistory(@RequestParam(defaultValue = "0") int page,
+                                    Authentication authentication, Model model) {
+        User user = userRepository.findByUsername(authentication.getName())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        page = Math.max(page, 0);
+        List<BorrowRecord> records = borrowService.getUserBorrowHistory(user, page, HISTORY_PAGE_SIZE);
+        model.addAttribute("borrowRecords", records);
+        model.addAttribute("page", page);
+        model.addAttribute("hasNext", records.size() == HISTORY_PAGE_SIZE);
+        model.addAttribute("holds", holdService.getUserHolds(user));
+        model.addAttribute("fines", fineService.getOutstandingFines(user));
+        model.addAttribute("holdService", holdService);
+        return "borrows/history";
+    }
+    
+    @PostMapping("/borrow/return/{recordId}")
+    public String returnBook(@PathVariable Long recordId,
+                             @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                             @RequestParam(required = false) String idempotencyKey,
+                             Authentication authentication,
+                             RedirectAttributes redirectAttributes) {
+        return idempotencyService.execute(authentication.getName(), keyOf(idempotencyHeader, idempotencyKey),
+                "/borrow/return/" + recordId, "redirect:/borrow/history", redirectAttributes, () -> {
+            try {
+                borrowService.returnBook(recordId);
+                redirectAttributes.addFlashAttribute("success", "Book returned successfully!");
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("error", "Error returning book: " + e.getMessage());
+            }
+        });
+    }
+    
+    @PostMapping("/borrow/hold/{bookId}")
+    public String placeHold(@PathVariable Long bookId,
                             Authentication authentication,
                             RedirectAttributes redirectAttributes) {
         try {
@@ -38,40 +113,94 @@ public class BorrowController {
             Book book = bookService.getBookById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
             
-            borrowService.borrowBook(user, book);
-            redirectAttributes.addFlashAttribute("success", "Book borrowed successfully! Return deadline is 14 days.");
+            holdService.placeHold(user, book);
+            redirectAttributes.addFlashAttribute("success", "Hold placed! You will be notified when a copy is ready.");
         } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("error", "Error borrowing book: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("error", "Error placing hold: " + e.getMessage());
         }
         
-        return "redirect:/borrow/available";
-    }
-    
-    @GetMapping("/borrow/history")
-    public String showBorrowHistory(Authentication authentication, Model model) {
-        User user = userRepository.findByUsername(authentication.getName())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        model.addAttribute("borrowRecords", borrowService.getUserBorrowHistory(user));
-        return "borrows/history";
+        return "redirect:/borrow/history";
     }
     
-    @PostMapping("/borrow/return/{recordId}")
-    public String returnBook(@PathVariable Long recordId, RedirectAttributes redirectAttributes) {
+    @PostMapping("/borrow/hold/cancel/{holdId}")
+    public String cancelHold(@PathVariable Long holdId,
+                             Authentication authentication,
+                             RedirectAttributes redirectAttributes) {
         try {
-            borrowService.returnBook(recordId);
-            redirectAttributes.addFlashAttribute("success", "Book returned successfully!");
+            User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            holdService.cancelHold(holdId, user);
+            redirectAttributes.addFlashAttribute("success", "Hold cancelled.");
         } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("error", "Error returning book: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("error", "Error cancelling hold: " + e.getMessage());
         }
         
         return "redirect:/borrow/history";
     }
     
+    @GetMapping(value = "/borrow/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter subscribeToEvents(@RequestParam(required = false) List<Long> books,
+                                        @RequestParam(defaultValue = "false") boolean branch,
+                                        Authentication authentication) {
+        // Pages listing a whole branch watch it as one, rather than sending every id in the URL
+        if (branch) {
+            return notificationService.subscribeToBranch(authentication.getName(), TenantContext.getBranchId());
+        }
+        return notificationService.subscribe(authentication.getName(), books != null ? books : List.of());
+    }
+    
+    @PostMapping("/admin/borrows/checkout")
+    public String checkoutByBarcode(@RequestParam String barcode,
+                                    @RequestParam String username,
+                                    @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                                    @RequestParam(required = false) String idempotencyKey,
+                                    Authentication authentication,
+                                    RedirectAttributes redirectAttributes) {
+        return idempotencyService.execute(authentication.getName(), keyOf(idempotencyHeader, idempotencyKey),
+                "/admin/borrows/checkout/" + barcode.trim() + "/" + username.trim(), "redirect:/admin/borrows",
+                redirectAttributes, () -> {
+            try {
+                User user = userRepository.findByUsername(username.trim())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+                
+                BorrowRecord record = borrowService.borrowByBarcode(user, barcode);
+                redirectAttributes.addFlashAttribute("success",
+                    "Checked out \"" + record.getBook().getTitle() + "\" to " + user.getUsername() + ".");
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("error", "Error checking out copy: " + e.getMessage());
+            }
+        });
+    }
+    
+    @PostMapping("/admin/borrows/return")
+    public String returnByBarcode(@RequestParam String barcode,
+                                  @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyHeader,
+                                  @RequestParam(required = false) String idempotencyKey,
+                                  Authentication authentication,
+                                  RedirectAttributes redirectAttributes) {
+        return idempotencyService.execute(authentication.getName(), keyOf(idempotencyHeader, idempotencyKey),
+                "/admin/borrows/return/" + barcode.trim(), "redirect:/admin/borrows", redirectAttributes, () -> {
+            try {
+                BorrowRecord record = borrowService.returnByBarcode(barcode);
+                redirectAttributes.addFlashAttribute("success",
+                    "Checked in \"" + record.getBook().getTitle() + "\".");
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("error", "Error checking in copy: " + e.getMessage());
+            }
+        });
+    }
+    
     @GetMapping("/admin/borrows")
     @Transactional(readOnly = true)
     public String showAllBorrows(Model model) {
         model.addAttribute("borrowRecords", borrowService.getAllBorrowRecords());
         return "borrows/admin-list";
     }
-}
\ No newline at end of file
+    
+    /** API clients send the Idempotency-Key header; the Thymeleaf forms post a hidden field. */
+    private String keyOf(String header, String formField) {
+        return header != null && !header.isBlank() ? header : formField;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.project.controller;
+
+import com.example.project.monitoring.QueryStats;
+import com.example.project.monitoring.SqlLatencyStats;
+import com.example.project.service.InvalidationBus;
+import com.example.project.service.ReminderService;
+import com.example.project.view.FragmentCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+public class QueryStatsController {
+    
+    private final QueryStats queryStats;
+    private final SqlLatencyStats sqlLatencyStats;
+    private final FragmentCache fragmentCache;
+    private final InvalidationBus invalidationBus;
+    private final ReminderService reminderService;
+    
+    @GetMapping("/api/admin/query-stats")
+    @ResponseBody
+    public ResponseEntity<?> queryStats() {
+        return ResponseEntity.ok(Map.of(
+            "requests", queryStats.getRequestStats(),
+            "transactions", queryStats.getTransactionStats()
+        ));
+    }
+    
+    @GetMapping("/api/admin/sql-stats")
+    @ResponseBody
+    public ResponseEntity<?> sqlStats(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(Map.of(
+            "statements", sqlLatencyStats.getStatementStats(limit),
+            "slowQueries", sqlLatencyStats.getSlowQueries()
+        ));
+    }
+    
+    @GetMapping("/api/admin/fragment-cache-stats")
+    @ResponseBody
+    public ResponseEntity<?> fragmentCacheStats() {
+        return ResponseEntity.ok(fragmentCache.getMetrics());
+    }
+    
+    @GetMapping("/api/admin/invalidation-stats")
+    @ResponseBody
+    public ResponseEntity<?> invalidationStats() {
+        return ResponseEntity.ok(invalidationBus.getMetrics());
+    }
+    
+    @GetMapping("/api/admin/reminder-stats")
+    @ResponseBody
+    public ResponseEntity<?> reminderStats() {
+        return ResponseEntity.ok(reminderService.getMetrics());
+    }
+}
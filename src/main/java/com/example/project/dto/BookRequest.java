@@ -26,7 +26,7 @@ public class BookRequest {
     
     @NotBlank(message = "ISBN is required")
     @Size(min = 10, max = 17, message = "ISBN must be between 10 and 17 characters")
-    @Pattern(regexp = "^[0-9\\-]+$", message = "ISBN must contain only numbers and hyphens")
+    @Pattern(regexp = "^[0-9\\-]*[0-9Xx]$", message = "ISBN must contain only numbers and hyphens, with an optional final X")
     private String isbn;
     
     @NotBlank(message = "Genre is required")
@@ -38,4 +38,7 @@ public class BookRequest {
     @Min(value = 1, message = "Quantity must be at least 1")
     @Max(value = 30, message = "Quantity cannot exceed 30")
     private Integer quantity;
+    
+    /** Edit form only: keeps the title off loan while copies are on the shelf. */
+    private Boolean withheld;
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ import lombok.Data;
 @AllArgsConstructor
 public class JwtAuthResponse {
     private String token;
+    private String refreshToken;
+    private Long expiresIn;
     private String type = "Bearer";
     private String username;
     private String message;
@@ -17,4 +19,10 @@ public class JwtAuthResponse {
         this.type = "Bearer";
         this.message = "Login successful";
     }
+    
+    public JwtAuthResponse(String token, String refreshToken, long expiresIn, String username) {
+        this(token, username);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Completed loan moved out of borrow_records by the archival job.
+ * The archive table has no foreign keys, so the book may no longer exist.
+ * It is held by id and loaded in one batch per history page, rather than
+ * as an association that would be fetched row by row.
+ */
+@Entity
+@Table(name = "borrow_records_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedBorrowRecord {
+    
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Column(name = "borrow_date", nullable = false)
+    private LocalDate borrowDate;
+    
+    @Column(name = "return_deadline", nullable = false)
+    private LocalDate returnDeadline;
+    
+    @Column(name = "actual_return_date")
+    private LocalDate actualReturnDate;
+    
+    @Column(name = "status", nullable = false, columnDefinition = "TINYINT")
+    private BorrowStatus status;
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    @Column(name = "archived_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime archivedAt;
+    
+    /**
+     * Rebuilds a read-only BorrowRecord so history pages can render
+     * archived and active rows with the same template. The book is null if
+     * it has since been deleted.
+     */
+    public BorrowRecord toBorrowRecord(User user, Book book) {
+        BorrowRecord record = new BorrowRecord();
+        record.setId(id);
+        record.setUser(user);
+        record.setBook(book);
+        record.setBorrowDate(borrowDate);
+        record.setReturnDeadline(returnDeadline);
+        record.setActualReturnDate(actualReturnDate);
+        record.setStatus(status);
+        record.setBranchId(branchId);
+        return record;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.project.entity;
+
+public enum AssetKind {
+    COVER,
+    THUMBNAIL,
+    SAMPLE
+}
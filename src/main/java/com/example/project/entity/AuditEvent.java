@@ -0,0 +1,44 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+/** Read-only view of audit_events; rows are written by AuditService in batches. */
+@Entity
+@Immutable
+@Table(name = "audit_events")
+@Data
+@NoArgsConstructor
+public class AuditEvent {
+    
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+    
+    @Column(name = "actor", length = 50, nullable = false)
+    private String actor;
+    
+    @Column(name = "action", length = 30, nullable = false)
+    private String action;
+    
+    @Column(name = "entity_type", length = 30, nullable = false)
+    private String entityType;
+    
+    @Column(name = "entity_id")
+    private Long entityId;
+    
+    @Column(name = "branch_id")
+    private Long branchId;
+    
+    @Column(name = "before_value", columnDefinition = "TEXT")
+    private String beforeValue;
+    
+    @Column(name = "after_value", columnDefinition = "TEXT")
+    private String afterValue;
+}
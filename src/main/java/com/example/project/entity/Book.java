@@ -23,6 +23,10 @@ public class Book {
     @Column(unique = true, nullable = false)
     private String isbn;
     
+    /** Canonical ISBN-13 of isbn, set by BookService. */
+    @Column(name = "isbn13", unique = true)
+    private Long isbn13;
+    
     @Column(nullable = false)
     private String genre;
     
@@ -32,6 +36,10 @@ public class Book {
     @Column(nullable = false)
     private Boolean isAvailable = true;
     
+    /** Set by a librarian to keep the title off loan; isAvailable stays false while it is. */
+    @Column(nullable = false)
+    private Boolean withheld = false;
+    
     public Book(String title, String author, String isbn, String genre, Integer quantity) {
         this.title = title;
         this.author = author;
@@ -0,0 +1,49 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "book_assets")
+@Data
+@NoArgsConstructor
+public class BookAsset {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", length = 20, nullable = false)
+    private AssetKind kind;
+    
+    @Column(name = "sha256", length = 64, nullable = false, columnDefinition = "CHAR(64)")
+    private String sha256;
+    
+    @Column(name = "content_type", length = 100, nullable = false)
+    private String contentType;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+    
+    @Column(name = "original_filename")
+    private String originalFilename;
+    
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public BookAsset(Long bookId, AssetKind kind, String sha256, String contentType, Long sizeBytes, String originalFilename) {
+        this.bookId = bookId;
+        this.kind = kind;
+        this.sha256 = sha256;
+        this.contentType = contentType;
+        this.sizeBytes = sizeBytes;
+        this.originalFilename = originalFilename;
+    }
+}
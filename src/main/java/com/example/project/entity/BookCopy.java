@@ -0,0 +1,50 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single physical item of a title, identified at the desk by its barcode.
+ */
+@Entity
+@Table(name = "book_copies")
+@Data
+@NoArgsConstructor
+public class BookCopy {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    @Column(name = "copy_no", nullable = false)
+    private Integer copyNo;
+    
+    @Column(name = "barcode", length = 20, nullable = false, unique = true)
+    private String barcode;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private CopyStatus status;
+    
+    public BookCopy(Book book, Long branchId, int copyNo, CopyStatus status) {
+        this.book = book;
+        this.branchId = branchId;
+        this.copyNo = copyNo;
+        this.barcode = barcodeFor(book.getId(), copyNo);
+        this.status = status;
+    }
+    
+    /** Book id and copy number, zero-padded to 13 digits. Matches V12. */
+    public static String barcodeFor(Long bookId, int copyNo) {
+        return String.format("%09d%04d", bookId, copyNo);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "book_holds")
+@Data
+@NoArgsConstructor
+public class BookHold {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    /** The copy set aside once the hold is READY. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private HoldStatus status;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    public BookHold(User user, Book book, Long branchId) {
+        this.user = user;
+        this.book = book;
+        this.branchId = branchId;
+        this.status = HoldStatus.WAITING;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -33,14 +33,23 @@ public class BorrowRecord {
     @Column(name = "actual_return_date")
     private LocalDate actualReturnDate;
     
-    @Column(name = "status", length = 20, nullable = false)
-    private String status; // BORROWED, RETURNED, OVERDUE
+    @Column(name = "status", nullable = false, columnDefinition = "TINYINT")
+    private BorrowStatus status;
     
-    public BorrowRecord(User user, Book book, LocalDate borrowDate, LocalDate returnDeadline) {
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+    
+    public BorrowRecord(User user, BookCopy copy, LocalDate borrowDate, LocalDate returnDeadline) {
         this.user = user;
-        this.book = book;
+        this.copy = copy;
+        this.book = copy.getBook();
+        this.branchId = copy.getBranchId();
         this.borrowDate = borrowDate;
         this.returnDeadline = returnDeadline;
-        this.status = "BORROWED";
+        this.status = BorrowStatus.BORROWED;
     }
 }
\ No newline at end of file
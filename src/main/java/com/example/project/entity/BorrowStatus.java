@@ -0,0 +1,35 @@
+package com.example.project.entity;
+
+/**
+ * Lifecycle of a loan. Persisted as a one-byte code (see BorrowStatusConverter),
+ * so the codes must never be renumbered.
+ */
+public enum BorrowStatus {
+    BORROWED(0),
+    RETURNED(1),
+    RETURNED_LATE(2),
+    OVERDUE(3);
+    
+    private final byte code;
+    
+    BorrowStatus(int code) {
+        this.code = (byte) code;
+    }
+    
+    public byte getCode() {
+        return code;
+    }
+    
+    public boolean isActive() {
+        return this == BORROWED || this == OVERDUE;
+    }
+    
+    public static BorrowStatus fromCode(byte code) {
+        for (BorrowStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown borrow status code: " + code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.project.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class BorrowStatusConverter implements AttributeConverter<BorrowStatus, Byte> {
+    
+    @Override
+    public Byte convertToDatabaseColumn(BorrowStatus status) {
+        return status == null ? null : status.getCode();
+    }
+    
+    @Override
+    public BorrowStatus convertToEntityAttribute(Byte code) {
+        return code == null ? null : BorrowStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "branches")
+@Data
+@NoArgsConstructor
+public class Branch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "code", length = 20, unique = true, nullable = false)
+    private String code;
+    
+    @Column(name = "name", length = 100, nullable = false)
+    private String name;
+    
+    public Branch(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+}
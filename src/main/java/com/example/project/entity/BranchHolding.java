@@ -0,0 +1,41 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * Number of copies of a title held by one branch, and how many are on the shelf.
+ */
+@Entity
+@Table(name = "branch_holdings")
+@IdClass(BranchHolding.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BranchHolding {
+    
+    @Id
+    @Column(name = "branch_id")
+    private Long branchId;
+    
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+    
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+    
+    @Column(name = "available_quantity", nullable = false)
+    private Integer availableQuantity;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long branchId;
+        private Long bookId;
+    }
+}
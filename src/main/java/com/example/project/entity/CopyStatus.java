@@ -0,0 +1,8 @@
+package com.example.project.entity;
+
+public enum CopyStatus {
+    AVAILABLE,
+    ON_LOAN,
+    ON_HOLD,
+    WITHDRAWN
+}
@@ -0,0 +1,55 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fines")
+@Data
+@NoArgsConstructor
+public class Fine {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "borrow_record_id", nullable = false, unique = true)
+    private Long borrowRecordId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "days_charged", nullable = false)
+    private Integer daysCharged;
+    
+    @Column(name = "amount", precision = 10, scale = 2, nullable = false)
+    private BigDecimal amount;
+    
+    @Column(name = "accrued_through", nullable = false)
+    private LocalDate accruedThrough;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private FineStatus status;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "finalized_at")
+    private LocalDateTime finalizedAt;
+    
+    public Fine(BorrowRecord record) {
+        this.borrowRecordId = record.getId();
+        this.userId = record.getUser().getId();
+        this.daysCharged = 0;
+        this.amount = BigDecimal.ZERO;
+        this.accruedThrough = record.getReturnDeadline();
+        this.status = FineStatus.ACCRUING;
+        this.createdAt = LocalDateTime.now();
+    }
+}
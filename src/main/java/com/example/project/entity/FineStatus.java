@@ -0,0 +1,8 @@
+package com.example.project.entity;
+
+public enum FineStatus {
+    ACCRUING,
+    FINAL,
+    PAID,
+    WAIVED
+}
@@ -0,0 +1,9 @@
+package com.example.project.entity;
+
+public enum HoldStatus {
+    WAITING,
+    READY,
+    FULFILLED,
+    EXPIRED,
+    CANCELLED
+}
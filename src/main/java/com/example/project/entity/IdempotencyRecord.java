@@ -0,0 +1,42 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "username", length = 50, nullable = false)
+    private String username;
+    
+    @Column(name = "idempotency_key", length = 100, nullable = false)
+    private String idempotencyKey;
+    
+    @Column(name = "request_path", nullable = false)
+    private String requestPath;
+    
+    @Column(name = "response_view")
+    private String responseView;
+    
+    @Column(name = "flash_attributes", columnDefinition = "TEXT")
+    private String flashAttributes;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
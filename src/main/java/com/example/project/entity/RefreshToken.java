@@ -0,0 +1,53 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "token_hash", length = 64, nullable = false, unique = true)
+    private String tokenHash;
+    
+    @Column(name = "family_id", length = 36, nullable = false)
+    private String familyId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    /** The access token issued together with this refresh token. */
+    @Column(name = "access_jti", length = 36)
+    private String accessJti;
+    
+    @Column(name = "access_expires_at")
+    private LocalDateTime accessExpiresAt;
+    
+    @Column(name = "issued_at", nullable = false)
+    private LocalDateTime issuedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+    
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+    
+    public boolean isUsable(LocalDateTime now) {
+        return rotatedAt == null && revokedAt == null && expiresAt.isAfter(now);
+    }
+}
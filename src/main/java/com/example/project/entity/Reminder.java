@@ -0,0 +1,56 @@
+package com.example.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reminders")
+@Data
+@NoArgsConstructor
+public class Reminder {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "idempotency_key", length = 100, nullable = false, unique = true)
+    private String idempotencyKey;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", length = 20, nullable = false)
+    private ReminderKind kind;
+    
+    @Column(name = "borrow_record_id", nullable = false)
+    private Long borrowRecordId;
+    
+    @Column(name = "recipient", length = 100, nullable = false)
+    private String recipient;
+    
+    @Column(name = "subject", nullable = false)
+    private String subject;
+    
+    @Column(name = "body", columnDefinition = "TEXT", nullable = false)
+    private String body;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private ReminderStatus status;
+    
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
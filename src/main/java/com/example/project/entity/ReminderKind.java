@@ -0,0 +1,6 @@
+package com.example.project.entity;
+
+public enum ReminderKind {
+    DUE_SOON,
+    OVERDUE
+}
@@ -0,0 +1,8 @@
+package com.example.project.entity;
+
+public enum ReminderStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -29,6 +29,9 @@ public class User {
     @Column(name = "email", length = 100, unique = true, nullable = false)
     private String email;
     
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId = 1L;
+    
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
@@ -0,0 +1,123 @@
+package com.example.project.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the pooled DataSource and times every execute call on the statements
+ * it hands out. Connections and statements are JDK proxies, so the driver's
+ * own implementations (and its statement cache) stay untouched; unwrap still
+ * reaches the real objects.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+    
+    private final SqlLatencyStats stats;
+    
+    public ProfilingDataSource(DataSource target, SqlLatencyStats stats) {
+        super(target);
+        this.stats = stats;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConnection(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConnection(super.getConnection(username, password));
+    }
+    
+    private Connection proxyConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+            ProfilingDataSource.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new ConnectionHandler(connection));
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("unwrap") && args[0] instanceof Class<?> type && type.isInstance(target)) {
+                return target;
+            }
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+                return Proxy.newProxyInstance(
+                    ProfilingDataSource.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+    
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final List<String> batch = new ArrayList<>();
+        
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("unwrap") && args[0] instanceof Class<?> type && type.isInstance(target)) {
+                return target;
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String text) {
+                batch.add(text);
+            }
+            if (!name.startsWith("execute")) {
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+            
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            if (sql == null && !batch.isEmpty()) {
+                sql = batch.get(0);
+            }
+            long start = System.nanoTime();
+            try {
+                return ProfilingDataSource.invoke(target, method, args);
+            } finally {
+                stats.record(name.endsWith("Batch") ? "[batch] " + sql : sql, System.nanoTime() - start);
+                if (name.endsWith("Batch")) {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
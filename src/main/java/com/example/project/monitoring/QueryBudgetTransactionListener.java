@@ -0,0 +1,60 @@
+package com.example.project.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Counts the statements run by each transaction. Spring Boot registers
+ * TransactionExecutionListener beans with the transaction manager, so this
+ * sees every @Transactional method and TransactionTemplate that starts a new
+ * transaction; methods that join an outer transaction are counted with it.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetTransactionListener implements TransactionExecutionListener {
+    
+    private static final ThreadLocal<Deque<Long>> STARTS = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    private final QueryStats queryStats;
+    
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            STARTS.get().push(QueryCounter.current());
+        }
+    }
+    
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        finish(transaction);
+    }
+    
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        finish(transaction);
+    }
+    
+    private void finish(TransactionExecution transaction) {
+        Deque<Long> starts = STARTS.get();
+        if (starts.isEmpty()) {
+            return;
+        }
+        long queries = QueryCounter.current() - starts.pop();
+        queryStats.recordTransaction(shortName(transaction.getTransactionName()), queries);
+    }
+    
+    /** "com.example.project.service.BorrowService.borrowBook" becomes "BorrowService.borrowBook". */
+    private String shortName(String name) {
+        if (name == null || name.isEmpty()) {
+            return "(programmatic)";
+        }
+        int method = name.lastIndexOf('.');
+        int type = method > 0 ? name.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? name.substring(type + 1) : name;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.project.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares. Registered through
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector, so it
+ * is created by Hibernate rather than Spring and keeps no state of its own.
+ */
+public class QueryCountInspector implements StatementInspector {
+    
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.increment();
+        return sql;
+    }
+}
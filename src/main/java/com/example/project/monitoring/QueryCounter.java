@@ -0,0 +1,22 @@
+package com.example.project.monitoring;
+
+/**
+ * Per-thread count of SQL statements issued through Hibernate. The count
+ * only ever grows; a scope (request, transaction, test) takes a snapshot at
+ * its start and reports the difference, so scopes can nest freely.
+ */
+public final class QueryCounter {
+    
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    
+    private QueryCounter() {
+    }
+    
+    public static long current() {
+        return COUNT.get()[0];
+    }
+    
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.project.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement-count histograms per endpoint and per transactional method, and
+ * the budgets they are checked against. Scopes that go over budget are
+ * logged with their count and flagged in the histogram.
+ */
+@Slf4j
+@Component
+public class QueryStats {
+    
+    /** Upper bounds of the histogram buckets; a final bucket holds everything larger. */
+    private static final long[] BOUNDS = {0, 1, 2, 3, 5, 8, 13, 21, 34, 55, 89};
+    
+    private final Map<String, Histogram> requests = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> transactions = new ConcurrentHashMap<>();
+    
+    @Value("${library.query-budget.per-request:25}")
+    private int requestBudget;
+    
+    @Value("${library.query-budget.per-transaction:15}")
+    private int transactionBudget;
+    
+    public void recordRequest(String endpoint, long queries) {
+        boolean exceeded = queries > requestBudget;
+        requests.computeIfAbsent(endpoint, key -> new Histogram()).record(queries, exceeded);
+        if (exceeded) {
+            log.warn("Query budget exceeded: {} ran {} statements (budget {})", endpoint, queries, requestBudget);
+        }
+    }
+    
+    public void recordTransaction(String name, long queries) {
+        boolean exceeded = queries > transactionBudget;
+        transactions.computeIfAbsent(name, key -> new Histogram()).record(queries, exceeded);
+        if (exceeded) {
+            log.warn("Query budget exceeded: transaction {} ran {} statements (budget {})", name, queries, transactionBudget);
+        }
+    }
+    
+    public Map<String, Object> getRequestStats() {
+        return snapshot(requests);
+    }
+    
+    public Map<String, Object> getTransactionStats() {
+        return snapshot(transactions);
+    }
+    
+    private Map<String, Object> snapshot(Map<String, Histogram> histograms) {
+        Map<String, Object> result = new TreeMap<>();
+        histograms.forEach((name, histogram) -> result.put(name, histogram.snapshot()));
+        return result;
+    }
+    
+    private static final class Histogram {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAdder exceeded = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+        
+        void record(long queries, boolean overBudget) {
+            count.increment();
+            total.add(queries);
+            if (overBudget) {
+                exceeded.increment();
+            }
+            max.accumulateAndGet(queries, Math::max);
+            int bucket = 0;
+            while (bucket < BOUNDS.length && queries > BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+        
+        Map<String, Object> snapshot() {
+            long n = count.sum();
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int i = 0; i <= BOUNDS.length; i++) {
+                String label = i < BOUNDS.length ? "<=" + BOUNDS[i] : ">" + BOUNDS[BOUNDS.length - 1];
+                distribution.put(label, buckets.get(i));
+            }
+            return Map.of(
+                "count", n,
+                "mean", n == 0 ? 0.0 : (double) total.sum() / n,
+                "max", max.get(),
+                "overBudget", exceeded.sum(),
+                "histogram", distribution
+            );
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.project.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement latency histograms and a ring buffer of slow-query samples,
+ * fed by ProfilingDataSource. Statements are keyed by their SQL text with
+ * whitespace collapsed; Hibernate always binds parameters, so the number of
+ * distinct keys stays small. Past max-statements new SQL is folded into a
+ * single "(other)" entry.
+ */
+@Component
+public class SqlLatencyStats {
+    
+    /** Upper bounds of the latency buckets in milliseconds. */
+    private static final long[] BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+    private static final String OTHER = "(other)";
+    
+    private final Map<String, Histogram> statements = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    
+    @Value("${library.jdbc-profiling.slow-query-ms:200}")
+    private long slowQueryMs;
+    
+    @Value("${library.jdbc-profiling.slow-query-samples:100}")
+    private int slowQuerySamples;
+    
+    @Value("${library.jdbc-profiling.max-statements:500}")
+    private int maxStatements;
+    
+    public void record(String sql, long nanos) {
+        String key = normalize(sql);
+        Histogram histogram = statements.get(key);
+        if (histogram == null) {
+            histogram = statements.size() < maxStatements
+                ? statements.computeIfAbsent(key, k -> new Histogram())
+                : statements.computeIfAbsent(OTHER, k -> new Histogram());
+        }
+        histogram.record(nanos);
+        
+        long millis = nanos / 1_000_000;
+        if (millis >= slowQueryMs) {
+            synchronized (slowQueries) {
+                if (slowQueries.size() >= slowQuerySamples) {
+                    slowQueries.removeFirst();
+                }
+                slowQueries.addLast(new SlowQuery(key, millis, LocalDateTime.now(), Thread.currentThread().getName()));
+            }
+        }
+    }
+    
+    /** Statements ordered by total time spent, the most expensive first. */
+    public List<Map<String, Object>> getStatementStats(int limit) {
+        return statements.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, Histogram> entry) -> entry.getValue().totalNanos.sum()).reversed())
+            .limit(limit)
+            .map(entry -> entry.getValue().snapshot(entry.getKey()))
+            .toList();
+    }
+    
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            List<SlowQuery> samples = new ArrayList<>(slowQueries);
+            Collections.reverse(samples);
+            return samples;
+        }
+    }
+    
+    private String normalize(String sql) {
+        return sql == null ? "" : sql.trim().replaceAll("\\s+", " ");
+    }
+    
+    public record SlowQuery(String sql, long millis, LocalDateTime at, String thread) {
+    }
+    
+    private static final class Histogram {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+        
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long millis = nanos / 1_000_000;
+            int bucket = 0;
+            while (bucket < BOUNDS_MS.length && millis >= BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+        
+        Map<String, Object> snapshot(String sql) {
+            long n = count.sum();
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int i = 0; i <= BOUNDS_MS.length; i++) {
+                String label = i < BOUNDS_MS.length ? "<" + BOUNDS_MS[i] + "ms" : ">=" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms";
+                distribution.put(label, buckets.get(i));
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("sql", sql);
+            result.put("count", n);
+            result.put("totalMillis", totalNanos.sum() / 1_000_000.0);
+            result.put("meanMillis", n == 0 ? 0.0 : totalNanos.sum() / (double) n / 1_000_000.0);
+            result.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            result.put("histogram", distribution);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.project.repository;
+
+import com.example.project.entity.ArchivedBorrowRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ArchivedBorrowRepository extends JpaRepository<ArchivedBorrowRecord, Long> {
+    
+    @Query(value = "SELECT * FROM borrow_records_archive WHERE user_id = :userId " +
+                   "ORDER BY borrow_date DESC, id DESC LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<ArchivedBorrowRecord> findUserHistory(@Param("userId") Long userId,
+                                               @Param("offset") int offset,
+                                               @Param("limit") int limit);
+    
+    @Modifying
+    @Query(value = "INSERT INTO borrow_records_archive " +
+                   "(id, user_id, book_id, branch_id, borrow_date, return_deadline, actual_return_date, status) " +
+                   "SELECT id, user_id, book_id, branch_id, borrow_date, return_deadline, actual_return_date, status " +
+                   "FROM borrow_records WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copyFromActive(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,23 @@
+package com.example.project.repository;
+
+import com.example.project.entity.AuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Deliberately not a JpaRepository: the trail is append-only, so there are
+ * no save or delete methods. Inserts go through AuditService's batch writer.
+ * Lookups return slices so paging never runs a COUNT over the whole trail.
+ */
+@org.springframework.stereotype.Repository
+public interface AuditEventRepository extends Repository<AuditEvent, Long> {
+    
+    Slice<AuditEvent> findAllByOrderByIdDesc(Pageable pageable);
+    
+    Slice<AuditEvent> findByEntityTypeOrderByIdDesc(String entityType, Pageable pageable);
+    
+    Slice<AuditEvent> findByEntityTypeAndEntityIdOrderByIdDesc(String entityType, Long entityId, Pageable pageable);
+    
+    Slice<AuditEvent> findByActorOrderByIdDesc(String actor, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.example.project.repository;
+
+import com.example.project.entity.AssetKind;
+import com.example.project.entity.BookAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookAssetRepository extends JpaRepository<BookAsset, Long> {
+    List<BookAsset> findByBookIdOrderByKind(Long bookId);
+    List<BookAsset> findByBookIdAndKind(Long bookId, AssetKind kind);
+    Optional<BookAsset> findFirstBySha256(String sha256);
+    
+    /** Which of these blobs some asset still references. */
+    @Query("SELECT DISTINCT a.sha256 FROM BookAsset a WHERE a.sha256 IN :hashes")
+    List<String> findReferencedHashes(@Param("hashes") Collection<String> hashes);
+}
@@ -0,0 +1,42 @@
+package com.example.project.repository;
+
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.CopyStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+    Optional<BookCopy> findByBarcode(String barcode);
+    List<BookCopy> findByBookIdOrderByCopyNo(Long bookId);
+    List<BookCopy> findByBranchIdAndBookIdAndStatusOrderByCopyNoDesc(Long branchId, Long bookId, CopyStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BookCopy c WHERE c.id = :id")
+    Optional<BookCopy> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Locks the lowest-numbered free copy at a branch. SKIP LOCKED lets
+     * concurrent checkouts of the same title each take a different copy
+     * instead of queueing behind one row. Withheld titles have none free.
+     */
+    @Query(value = "SELECT * FROM book_copies WHERE branch_id = :branchId AND book_id = :bookId " +
+                   "AND status = 'AVAILABLE' " +
+                   "AND NOT EXISTS (SELECT 1 FROM books b WHERE b.id = :bookId AND b.withheld) " +
+                   "ORDER BY copy_no LIMIT 1 FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<BookCopy> findFreeCopyForUpdate(@Param("branchId") Long branchId, @Param("bookId") Long bookId);
+    
+    @Query("SELECT COALESCE(MAX(c.copyNo), 0) FROM BookCopy c WHERE c.book.id = :bookId")
+    int findMaxCopyNo(@Param("bookId") Long bookId);
+    
+    /** Barcode and id pairs for building the scanner index without loading entities. */
+    @Query("SELECT c.barcode, c.id FROM BookCopy c")
+    List<Object[]> findAllBarcodes();
+}
@@ -1,7 +1,12 @@
 package com.example.project.repository;
 
 import com.example.project.entity.Book;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -9,6 +14,48 @@ import java.util.Optional;
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
+    Optional<Book> findByIsbn13(Long isbn13);
+    
+    /** Serializes edits of a title, so quantity changes and new copy numbers never interleave. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+    
+    /** (isbn13, id) for every book with a canonical ISBN, to build IsbnIndex. */
+    @Query("SELECT b.isbn13, b.id FROM Book b WHERE b.isbn13 IS NOT NULL")
+    List<Object[]> findIsbnKeys();
     List<Book> findByIsAvailable(Boolean isAvailable);
     List<Book> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(String title, String author);
+    
+    // Branch-scoped catalog queries; branch_holdings is keyed (branch_id, book_id)
+    
+    @Query("SELECT b FROM Book b WHERE b.id IN " +
+           "(SELECT h.bookId FROM BranchHolding h WHERE h.branchId = :branchId)")
+    List<Book> findAllInBranch(@Param("branchId") Long branchId);
+    
+    @Query("SELECT b FROM Book b WHERE b.isAvailable = true AND b.id IN " +
+           "(SELECT h.bookId FROM BranchHolding h WHERE h.branchId = :branchId AND h.availableQuantity > 0)")
+    List<Book> findAvailableInBranch(@Param("branchId") Long branchId);
+    
+    @Query("SELECT b FROM Book b WHERE b.id IN " +
+           "(SELECT h.bookId FROM BranchHolding h WHERE h.branchId = :branchId) " +
+           "AND (LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    List<Book> searchInBranch(@Param("branchId") Long branchId, @Param("keyword") String keyword);
+    
+    /**
+     * Sets is_available from the holdings of every branch in one statement,
+     * matching no row when the flag is already right. The holdings are read
+     * by the UPDATE itself, not from an earlier snapshot in the transaction.
+     * A withheld title is never available.
+     */
+    @Modifying
+    @Query(value = "UPDATE books b SET b.is_available = NOT b.is_available WHERE b.id = :bookId " +
+                   "AND b.is_available <> (NOT b.withheld AND (SELECT COALESCE(SUM(h.available_quantity), 0) > 0 " +
+                   "FROM branch_holdings h WHERE h.book_id = :bookId))",
+           nativeQuery = true)
+    int syncAvailability(@Param("bookId") Long bookId);
+    
+    @Query(value = "SELECT is_available FROM books WHERE id = :bookId", nativeQuery = true)
+    boolean findAvailability(@Param("bookId") Long bookId);
 }
\ No newline at end of file
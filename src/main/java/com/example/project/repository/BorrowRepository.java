@@ -1,14 +1,90 @@
 package com.example.project.repository;
 
 import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.BorrowStatus;
 import com.example.project.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BorrowRepository extends JpaRepository<BorrowRecord, Long> {
     List<BorrowRecord> findByUser(User user);
-    List<BorrowRecord> findByStatus(String status);
+    List<BorrowRecord> findByStatus(BorrowStatus status);
     List<BorrowRecord> findByUserOrderByBorrowDateDesc(User user);
-}
\ No newline at end of file
+    Page<BorrowRecord> findByUserOrderByBorrowDateDesc(User user, Pageable pageable);
+    long countByUser(User user);
+    
+    /** Admin list: fetches the user, roles, book and copy the view walks in one statement. */
+    @EntityGraph(attributePaths = {"user", "user.roles", "book", "copy"})
+    List<BorrowRecord> findByBranchId(Long branchId);
+    
+    List<BorrowRecord> findByBranchIdAndStatus(Long branchId, BorrowStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM BorrowRecord r WHERE r.id = :id")
+    Optional<BorrowRecord> findByIdForUpdate(@Param("id") Long id);
+    
+    /** The open loan of a copy, locked so two desks cannot check the same copy in. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM BorrowRecord r WHERE r.copy.id = :copyId AND r.status IN :statuses")
+    Optional<BorrowRecord> findByCopyIdAndStatusInForUpdate(@Param("copyId") Long copyId,
+                                                            @Param("statuses") Collection<BorrowStatus> statuses);
+    
+    @Query("SELECT r.id FROM BorrowRecord r WHERE r.status = :status AND r.returnDeadline < :date ORDER BY r.id")
+    List<Long> findIdsByStatusAndReturnDeadlineBefore(@Param("status") BorrowStatus status, @Param("date") LocalDate date);
+    
+    /** Ids of loans in the given status whose fine has not been accrued through asOf, in id order after afterId. */
+    @Query("SELECT r.id FROM BorrowRecord r WHERE r.status = :status AND r.id > :afterId AND NOT EXISTS " +
+           "(SELECT f.id FROM Fine f WHERE f.borrowRecordId = r.id AND f.accruedThrough >= :asOf) ORDER BY r.id")
+    List<Long> findFineAccrualCandidateIds(@Param("status") BorrowStatus status,
+                                           @Param("asOf") LocalDate asOf,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    /**
+     * Loans in a deadline window, as plain values. This is an ordinary
+     * consistent read, so the reminder scan never locks borrow_records.
+     */
+    @Query("SELECT r.id AS id, r.returnDeadline AS returnDeadline, u.email AS email, " +
+           "u.fullName AS fullName, b.title AS title FROM BorrowRecord r JOIN r.user u JOIN r.book b " +
+           "WHERE r.status = :status AND r.returnDeadline BETWEEN :from AND :to AND r.id > :afterId " +
+           "ORDER BY r.id")
+    List<ReminderCandidate> findReminderCandidates(@Param("status") BorrowStatus status,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+    
+    interface ReminderCandidate {
+        Long getId();
+        LocalDate getReturnDeadline();
+        String getEmail();
+        String getFullName();
+        String getTitle();
+    }
+    
+    @Query("SELECT r.id FROM BorrowRecord r WHERE r.status IN :statuses " +
+           "AND r.actualReturnDate < :cutoff ORDER BY r.id")
+    List<Long> findArchivableIds(@Param("statuses") List<BorrowStatus> statuses,
+                                 @Param("cutoff") LocalDate cutoff, Pageable pageable);
+    
+    /** Distinct (user_id, book_id) pairs across active and archived loans for a user id range. */
+    @Query(value = "SELECT user_id, book_id FROM borrow_records WHERE user_id BETWEEN :fromUserId AND :toUserId " +
+                   "UNION SELECT user_id, book_id FROM borrow_records_archive WHERE user_id BETWEEN :fromUserId AND :toUserId",
+           nativeQuery = true)
+    List<Object[]> findUserBookPairs(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+    
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM users", nativeQuery = true)
+    Long findMaxUserId();
+}
@@ -0,0 +1,41 @@
+package com.example.project.repository;
+
+import com.example.project.entity.BranchHolding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BranchHoldingRepository extends JpaRepository<BranchHolding, BranchHolding.Key> {
+    
+    Optional<BranchHolding> findByBranchIdAndBookId(Long branchId, Long bookId);
+    
+    /** (branch_id, book_id, available_quantity) of every holding, to build the per-branch catalog bitmaps. */
+    @Query("SELECT h.branchId, h.bookId, h.availableQuantity FROM BranchHolding h")
+    List<Object[]> findStockKeys();
+    
+    @Query("SELECT h.branchId, h.bookId, h.availableQuantity FROM BranchHolding h WHERE h.bookId IN :bookIds")
+    List<Object[]> findStockKeys(@Param("bookIds") Collection<Long> bookIds);
+    
+    @Query("SELECT h.availableQuantity FROM BranchHolding h WHERE h.branchId = :branchId AND h.bookId = :bookId")
+    Optional<Integer> findAvailableQuantity(@Param("branchId") Long branchId, @Param("bookId") Long bookId);
+    
+    /** Recomputes a holding's counts from its copies. */
+    @Modifying
+    @Query(value = "UPDATE branch_holdings h SET " +
+                   "h.quantity = (SELECT COUNT(*) FROM book_copies c WHERE c.branch_id = h.branch_id " +
+                   "AND c.book_id = h.book_id AND c.status <> 'WITHDRAWN'), " +
+                   "h.available_quantity = (SELECT COUNT(*) FROM book_copies c WHERE c.branch_id = h.branch_id " +
+                   "AND c.book_id = h.book_id AND c.status = 'AVAILABLE') " +
+                   "WHERE h.branch_id = :branchId AND h.book_id = :bookId",
+           nativeQuery = true)
+    int recount(@Param("branchId") Long branchId, @Param("bookId") Long bookId);
+    
+    @Query("SELECT COALESCE(SUM(h.availableQuantity), 0) FROM BranchHolding h WHERE h.bookId = :bookId")
+    long sumAvailable(@Param("bookId") Long bookId);
+}
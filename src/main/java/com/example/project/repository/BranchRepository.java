@@ -0,0 +1,11 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Branch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface BranchRepository extends JpaRepository<Branch, Long> {
+    Optional<Branch> findByCode(String code);
+}
@@ -0,0 +1,15 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Fine;
+import com.example.project.entity.FineStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FineRepository extends JpaRepository<Fine, Long> {
+    Optional<Fine> findByBorrowRecordId(Long borrowRecordId);
+    List<Fine> findByUserIdAndStatusInOrderByCreatedAtDesc(Long userId, Collection<FineStatus> statuses);
+}
@@ -0,0 +1,60 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.BookHold;
+import com.example.project.entity.HoldStatus;
+import com.example.project.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<BookHold, Long> {
+    List<BookHold> findByUserOrderByCreatedAtDesc(User user);
+    boolean existsByUserAndBookAndStatusIn(User user, Book book, Collection<HoldStatus> statuses);
+    long countByBranchIdAndBookIdAndStatusAndIdLessThan(Long branchId, Long bookId, HoldStatus status, Long id);
+    
+    /**
+     * The member's hold on a title at a branch, locked so the expiry job or
+     * a return cannot hand its copy on while it is being picked up.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM BookHold h WHERE h.user = :user AND h.book = :book " +
+           "AND h.branchId = :branchId AND h.status = :status")
+    Optional<BookHold> findForPickup(@Param("user") User user,
+                                     @Param("book") Book book,
+                                     @Param("branchId") Long branchId,
+                                     @Param("status") HoldStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM BookHold h WHERE h.copy = :copy AND h.branchId = :branchId AND h.status = :status")
+    Optional<BookHold> findForPickup(@Param("copy") BookCopy copy,
+                                     @Param("branchId") Long branchId,
+                                     @Param("status") HoldStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM BookHold h WHERE h.branchId = :branchId AND h.book.id = :bookId " +
+           "AND h.status = :status ORDER BY h.id")
+    List<BookHold> findQueueHeadForUpdate(@Param("branchId") Long branchId,
+                                          @Param("bookId") Long bookId,
+                                          @Param("status") HoldStatus status,
+                                          Pageable pageable);
+    
+    /**
+     * Locks READY holds whose pickup window has passed. SKIP LOCKED lets the
+     * expiry job run on every node without two of them releasing one hold.
+     */
+    @Query(value = "SELECT * FROM book_holds WHERE status = 'READY' AND expires_at < :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<BookHold> findExpiredForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.project.repository;
+
+import com.example.project.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The modifying queries run in their own transactions unless called inside
+ * one: a claim has to be visible to concurrent retries before the request
+ * itself starts.
+ */
+@Repository
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUsernameAndIdempotencyKey(String username, String idempotencyKey);
+    
+    /** Returns 0 if the key is already claimed by this user. */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (username, idempotency_key, request_path, created_at, expires_at) " +
+                   "VALUES (:username, :key, :path, :now, :expiresAt)",
+           nativeQuery = true)
+    int claim(@Param("username") String username,
+              @Param("key") String idempotencyKey,
+              @Param("path") String requestPath,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+    
+    /**
+     * Takes over a claim whose request never completed, e.g. because the node
+     * running it died. Returns 0 unless the claim is older than staleBefore.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.requestPath = :path, r.createdAt = :now, r.expiresAt = :expiresAt " +
+           "WHERE r.username = :username AND r.idempotencyKey = :key " +
+           "AND r.completedAt IS NULL AND r.createdAt < :staleBefore")
+    int reclaim(@Param("username") String username,
+                @Param("key") String idempotencyKey,
+                @Param("path") String requestPath,
+                @Param("now") LocalDateTime now,
+                @Param("expiresAt") LocalDateTime expiresAt,
+                @Param("staleBefore") LocalDateTime staleBefore);
+    
+    /** Joins the caller's transaction, so completion commits with the request. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.responseView = :view, r.flashAttributes = :flash, r.completedAt = :now " +
+           "WHERE r.username = :username AND r.idempotencyKey = :key")
+    int complete(@Param("username") String username,
+                 @Param("key") String idempotencyKey,
+                 @Param("view") String responseView,
+                 @Param("flash") String flashAttributes,
+                 @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.username = :username AND r.idempotencyKey = :key")
+    int release(@Param("username") String username, @Param("key") String idempotencyKey);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
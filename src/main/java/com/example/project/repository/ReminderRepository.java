@@ -0,0 +1,54 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Reminder;
+import com.example.project.entity.ReminderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReminderRepository extends JpaRepository<Reminder, Long> {
+    long countByStatus(ReminderStatus status);
+    
+    /** Inserts a PENDING reminder; returns 0 if the idempotency key was already queued. */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO reminders (idempotency_key, kind, borrow_record_id, recipient, subject, body, " +
+                   "status, attempts, next_attempt_at, created_at) " +
+                   "VALUES (:key, :kind, :recordId, :recipient, :subject, :body, 'PENDING', 0, :now, :now)",
+           nativeQuery = true)
+    int enqueue(@Param("key") String idempotencyKey,
+                @Param("kind") String kind,
+                @Param("recordId") Long borrowRecordId,
+                @Param("recipient") String recipient,
+                @Param("subject") String subject,
+                @Param("body") String body,
+                @Param("now") LocalDateTime now);
+    
+    /**
+     * Locks the next due reminders. SENDING rows whose lease has run out
+     * belonged to a worker that died and are claimed again. SKIP LOCKED keeps
+     * concurrent dispatchers from waiting on each other.
+     */
+    @Query(value = "SELECT id FROM reminders WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> findDueIdsForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE Reminder r SET r.status = :status, r.attempts = r.attempts + 1, " +
+           "r.nextAttemptAt = :leaseUntil WHERE r.id IN :ids")
+    int markSending(@Param("ids") Collection<Long> ids,
+                    @Param("status") ReminderStatus status,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    @Modifying
+    @Query("UPDATE Reminder r SET r.status = :status, r.sentAt = :now, r.lastError = NULL WHERE r.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("status") ReminderStatus status,
+                 @Param("now") LocalDateTime now);
+}
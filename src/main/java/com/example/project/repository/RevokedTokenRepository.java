@@ -0,0 +1,30 @@
+package com.example.project.repository;
+
+import com.example.project.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    
+    /** Returns 0 if the token id was already revoked. */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, :now)",
+           nativeQuery = true)
+    int revoke(@Param("jti") String jti,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+    
+    /** Unexpired revocations made at or after the given time. */
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<RevokedToken> findActiveSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
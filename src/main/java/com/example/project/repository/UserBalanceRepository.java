@@ -0,0 +1,26 @@
+package com.example.project.repository;
+
+import com.example.project.entity.UserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+    
+    /** Adds delta to the member's balance, creating the row on first use. */
+    @Modifying
+    @Query(value = "INSERT INTO user_balances (user_id, outstanding, updated_at) VALUES (:userId, :delta, :now) " +
+                   "ON DUPLICATE KEY UPDATE outstanding = outstanding + VALUES(outstanding), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int adjust(@Param("userId") Long userId, @Param("delta") BigDecimal delta, @Param("now") LocalDateTime now);
+    
+    @Query(value = "SELECT b.outstanding FROM user_balances b JOIN users u ON u.id = b.user_id WHERE u.username = :username",
+           nativeQuery = true)
+    Optional<BigDecimal> findOutstandingByUsername(@Param("username") String username);
+}
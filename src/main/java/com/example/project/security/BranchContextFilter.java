@@ -0,0 +1,73 @@
+package com.example.project.security;
+
+import com.example.project.entity.User;
+import com.example.project.repository.UserRepository;
+import com.example.project.service.InvalidationBus;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the branch for each request: the "branch" claim of a JWT if
+ * JwtAuthenticationFilter found one, otherwise the signed-in user's home
+ * branch. Home branches are cached by username since they rarely change;
+ * a USER invalidation from any node evicts that user's entry. Code that
+ * writes a user's row or roles publishes USER, as registration does.
+ */
+public class BranchContextFilter extends OncePerRequestFilter {
+    
+    public static final String BRANCH_ATTRIBUTE = BranchContextFilter.class.getName() + ".branchId";
+    
+    private final UserRepository userRepository;
+    private final Map<String, Long> homeBranchByUser = new ConcurrentHashMap<>();
+    
+    public BranchContextFilter(UserRepository userRepository, InvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        invalidationBus.subscribe(InvalidationBus.USER, this::evictUsers);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            TenantContext.setBranchId(resolveBranch(request));
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+    
+    private Long resolveBranch(HttpServletRequest request) {
+        Object claimed = request.getAttribute(BRANCH_ATTRIBUTE);
+        if (claimed instanceof Long branchId) {
+            return branchId;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return TenantContext.DEFAULT_BRANCH_ID;
+        }
+        return homeBranchByUser.computeIfAbsent(authentication.getName(), username ->
+            userRepository.findByUsername(username)
+                .map(User::getBranchId)
+                .orElse(TenantContext.DEFAULT_BRANCH_ID));
+    }
+    
+    private void evictUsers(Set<Long> userIds) {
+        List<User> users = userRepository.findAllById(userIds);
+        if (users.size() < userIds.size()) {
+            // A deleted user's name is no longer known
+            homeBranchByUser.clear();
+            return;
+        }
+        users.forEach(user -> homeBranchByUser.remove(user.getUsername()));
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.project.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Session store on the http_sessions table, shared by all nodes.
+ *
+ * Writes are lazy: a session is inserted once, its attribute blob is only
+ * rewritten when an attribute was set or removed, and a request that merely
+ * touched the session updates last access only once per touch interval.
+ * The stored expiry can therefore trail the real one by at most that
+ * interval. Expired rows are removed in bounded batches by
+ * {@link #deleteExpired()}.
+ */
+@Slf4j
+public class JdbcSessionRepository implements SessionRepository<JdbcSessionRepository.JdbcSession> {
+    
+    private static final String SELECT = "SELECT session_id, created_at, last_accessed_at, " +
+        "max_inactive_seconds, attributes FROM http_sessions WHERE session_id = ?";
+    private static final String INSERT = "INSERT INTO http_sessions (session_id, user_id, principal_name, " +
+        "created_at, last_accessed_at, max_inactive_seconds, expires_at, attributes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_ALL = "UPDATE http_sessions SET session_id = ?, user_id = ?, principal_name = ?, " +
+        "last_accessed_at = ?, max_inactive_seconds = ?, expires_at = ?, attributes = ? WHERE session_id = ?";
+    private static final String UPDATE_ACCESS = "UPDATE http_sessions SET session_id = ?, last_accessed_at = ?, " +
+        "max_inactive_seconds = ?, expires_at = ? WHERE session_id = ?";
+    private static final String DELETE = "DELETE FROM http_sessions WHERE session_id = ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM http_sessions WHERE expires_at < ? LIMIT ?";
+    private static final String DELETE_FOR_USER = "DELETE FROM http_sessions WHERE user_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactiveInterval;
+    private final Duration touchInterval;
+    private final int cleanupBatchSize;
+    private final ClassLoader classLoader = JdbcSessionRepository.class.getClassLoader();
+    
+    public JdbcSessionRepository(JdbcTemplate jdbcTemplate, Duration defaultMaxInactiveInterval,
+                                 Duration touchInterval, int cleanupBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.touchInterval = touchInterval;
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+    
+    @Override
+    public JdbcSession createSession() {
+        MapSession delegate = new MapSession();
+        delegate.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new JdbcSession(delegate, null, null);
+    }
+    
+    @Override
+    public void save(JdbcSession session) {
+        Instant lastAccessed = session.getLastAccessedTime();
+        Timestamp expiresAt = Timestamp.from(lastAccessed.plus(session.getMaxInactiveInterval()));
+        if (session.persistedId == null) {
+            byte[] attributes = SessionAttributeCodec.encode(session.attributes());
+            jdbcTemplate.update(INSERT, session.getId(), SessionAttributeCodec.userIdOf(session.attributes()),
+                principalName(session), Timestamp.from(session.getCreationTime()), Timestamp.from(lastAccessed),
+                (int) session.getMaxInactiveInterval().toSeconds(), expiresAt, attributes);
+        } else if (session.attributesChanged) {
+            byte[] attributes = SessionAttributeCodec.encode(session.attributes());
+            jdbcTemplate.update(UPDATE_ALL, session.getId(), SessionAttributeCodec.userIdOf(session.attributes()),
+                principalName(session), Timestamp.from(lastAccessed),
+                (int) session.getMaxInactiveInterval().toSeconds(), expiresAt, attributes, session.persistedId);
+        } else if (session.accessChanged || !session.getId().equals(session.persistedId)
+                || Duration.between(session.persistedLastAccessed, lastAccessed).compareTo(touchInterval) >= 0) {
+            jdbcTemplate.update(UPDATE_ACCESS, session.getId(), Timestamp.from(lastAccessed),
+                (int) session.getMaxInactiveInterval().toSeconds(), expiresAt, session.persistedId);
+        } else {
+            return;
+        }
+        session.markSaved();
+    }
+    
+    @Override
+    public JdbcSession findById(String id) {
+        List<JdbcSession> sessions = jdbcTemplate.query(SELECT, (rs, rowNum) -> {
+            MapSession delegate = new MapSession(rs.getString("session_id"));
+            delegate.setCreationTime(rs.getTimestamp("created_at").toInstant());
+            delegate.setLastAccessedTime(rs.getTimestamp("last_accessed_at").toInstant());
+            delegate.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+            SessionAttributeCodec.decode(rs.getBytes("attributes"), classLoader).forEach(delegate::setAttribute);
+            return new JdbcSession(delegate, delegate.getId(), delegate.getLastAccessedTime());
+        }, id);
+        if (sessions.isEmpty()) {
+            return null;
+        }
+        JdbcSession session = sessions.get(0);
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+    
+    @Override
+    public void deleteById(String id) {
+        jdbcTemplate.update(DELETE, id);
+    }
+    
+    /** Signs a user out everywhere by dropping all of their sessions. */
+    public int deleteByUserId(Long userId) {
+        return jdbcTemplate.update(DELETE_FOR_USER, userId);
+    }
+    
+    /** Deletes expired sessions in batches so no single statement holds many row locks. */
+    @Scheduled(fixedDelayString = "${library.session.cleanup-ms:60000}")
+    public void deleteExpired() {
+        Timestamp now = Timestamp.from(Instant.now());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED, now, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.debug("Removed {} expired sessions", total);
+        }
+    }
+    
+    private static String principalName(JdbcSession session) {
+        Object context = session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        if (context instanceof SecurityContext securityContext
+                && securityContext.getAuthentication() != null) {
+            return securityContext.getAuthentication().getName();
+        }
+        return null;
+    }
+    
+    /**
+     * A MapSession that remembers what changed since it was loaded, so that
+     * save can pick the cheapest statement.
+     */
+    public static final class JdbcSession implements Session {
+        private final MapSession delegate;
+        private String persistedId;
+        private Instant persistedLastAccessed;
+        private boolean attributesChanged;
+        private boolean accessChanged;
+        
+        JdbcSession(MapSession delegate, String persistedId, Instant persistedLastAccessed) {
+            this.delegate = delegate;
+            this.persistedId = persistedId;
+            this.persistedLastAccessed = persistedLastAccessed;
+        }
+        
+        private Map<String, Object> attributes() {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (String name : delegate.getAttributeNames()) {
+                attributes.put(name, delegate.getAttribute(name));
+            }
+            return attributes;
+        }
+        
+        private void markSaved() {
+            persistedId = delegate.getId();
+            persistedLastAccessed = delegate.getLastAccessedTime();
+            attributesChanged = false;
+            accessChanged = false;
+        }
+        
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+        
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+        
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+        
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+        
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            attributesChanged = true;
+        }
+        
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (delegate.getAttribute(attributeName) != null) {
+                delegate.removeAttribute(attributeName);
+                attributesChanged = true;
+            }
+        }
+        
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+        
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+        
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+        
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(delegate.getMaxInactiveInterval())) {
+                accessChanged = true;
+            }
+            delegate.setMaxInactiveInterval(interval);
+        }
+        
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+        
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -8,7 +8,9 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
@@ -16,36 +18,41 @@ public class JwtTokenProvider {
     @Value("${jwt.secret:MyVerySecretKeyForJWTAuthenticationAndEncodingPurposes123456789}")
     private String jwtSecret;
 
-    @Value("${jwt.expiration:86400000}")  // 24 hours in milliseconds
+    @Value("${jwt.expiration:900000}")  // 15 minutes in milliseconds
     private int jwtExpirationMs;
 
+    private static final String BRANCH_CLAIM = "branch";
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
     }
 
-    public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+    public String generateToken(Authentication authentication, Long branchId) {
+        return generateTokenFromUsername(authentication.getName(), branchId);
+    }
 
+    public String generateTokenFromUsername(String username, Long branchId) {
+        return generateAccessToken(username, branchId, UUID.randomUUID().toString(), Instant.now());
+    }
+
+    /** Signs an access token with the given id (jti), so it can be revoked later. */
+    public String generateAccessToken(String username, Long branchId, String jti, Instant issuedAt) {
         return Jwts.builder()
+                .id(jti)
                 .subject(username)
-                .issuedAt(now)
-                .expiration(expiryDate)
+                .claim(BRANCH_CLAIM, branchId)
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(getAccessTokenExpiry(issuedAt)))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String generateTokenFromUsername(String username) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+    public Instant getAccessTokenExpiry(Instant issuedAt) {
+        return issuedAt.plusMillis(jwtExpirationMs);
+    }
 
-        return Jwts.builder()
-                .subject(username)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+    public long getAccessTokenValiditySeconds() {
+        return jwtExpirationMs / 1000L;
     }
 
     public String getUsernameFromToken(String token) {
@@ -57,13 +64,32 @@ public class JwtTokenProvider {
                 .getSubject();
     }
 
+    /** The branch the token was issued for, or null for tokens without one. */
+    public Long getBranchFromToken(String token) {
+        return getBranch(Jwts.parser()
+                .verifyWith(getSigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload());
+    }
+
+    public Long getBranch(Claims claims) {
+        Number branch = claims.get(BRANCH_CLAIM, Number.class);
+        return branch != null ? branch.longValue() : null;
+    }
+
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    /** Verifies the token once and returns its claims, or null if it is not valid. */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser()
+            return Jwts.parser()
                     .verifyWith(getSigningKey())
                     .build()
-                    .parseSignedClaims(token);
-            return true;
+                    .parseSignedClaims(token)
+                    .getPayload();
         } catch (SecurityException e) {
             System.err.println("Invalid JWT signature: " + e.getMessage());
         } catch (MalformedJwtException e) {
@@ -75,6 +101,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             System.err.println("JWT claims string is empty: " + e.getMessage());
         }
-        return false;
+        return null;
     }
 }
\ No newline at end of file
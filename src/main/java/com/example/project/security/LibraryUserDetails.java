@@ -0,0 +1,26 @@
+package com.example.project.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security principal carrying the user's id, so code holding only
+ * the security context (such as the session store) need not reload the
+ * User entity.
+ */
+public class LibraryUserDetails extends User {
+    
+    private final Long userId;
+    
+    public LibraryUserDetails(Long userId, String username, String password,
+                              Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
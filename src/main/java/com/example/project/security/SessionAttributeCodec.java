@@ -0,0 +1,152 @@
+package com.example.project.security;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of a session's attribute map. A form-login security
+ * context is written as user id, username and authority names, which is a
+ * few dozen bytes instead of a Java-serialized token, principal and
+ * details. Strings are written as-is; anything else falls back to Java
+ * serialization.
+ */
+public final class SessionAttributeCodec {
+    
+    private static final int VERSION = 1;
+    private static final byte JAVA = 0;
+    private static final byte STRING = 1;
+    private static final byte SECURITY_CONTEXT = 2;
+    
+    private static final DefaultSerializer SERIALIZER = new DefaultSerializer();
+    
+    private SessionAttributeCodec() {
+    }
+    
+    public static byte[] encode(Map<String, Object> attributes) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                write(out, entry.getValue());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode session attributes", e);
+        }
+    }
+    
+    public static Map<String, Object> decode(byte[] data, ClassLoader classLoader) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (data == null || data.length == 0) {
+            return attributes;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unknown session encoding version " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                attributes.put(name, read(in, classLoader));
+            }
+            return attributes;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not decode session attributes", e);
+        }
+    }
+    
+    /** The signed-in user's id when the attributes hold a compact security context. */
+    public static Long userIdOf(Map<String, Object> attributes) {
+        for (Object value : attributes.values()) {
+            LibraryUserDetails principal = compactPrincipal(value);
+            if (principal != null) {
+                return principal.getUserId();
+            }
+        }
+        return null;
+    }
+    
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String text) {
+            out.writeByte(STRING);
+            out.writeUTF(text);
+        } else if (compactPrincipal(value) instanceof LibraryUserDetails principal) {
+            out.writeByte(SECURITY_CONTEXT);
+            out.writeLong(principal.getUserId());
+            out.writeUTF(principal.getUsername());
+            out.writeShort(principal.getAuthorities().size());
+            for (GrantedAuthority authority : principal.getAuthorities()) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } else {
+            byte[] serialized = SERIALIZER.serializeToByteArray(value);
+            out.writeByte(JAVA);
+            out.writeInt(serialized.length);
+            out.write(serialized);
+        }
+    }
+    
+    private static Object read(DataInputStream in, ClassLoader classLoader) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case STRING:
+                return in.readUTF();
+            case SECURITY_CONTEXT: {
+                long userId = in.readLong();
+                String username = in.readUTF();
+                int count = in.readUnsignedShort();
+                List<GrantedAuthority> authorities = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+                }
+                LibraryUserDetails principal = new LibraryUserDetails(userId, username, "", authorities);
+                principal.eraseCredentials();
+                return new SecurityContextImpl(
+                    UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities));
+            }
+            case JAVA: {
+                byte[] serialized = new byte[in.readInt()];
+                in.readFully(serialized);
+                return new DefaultDeserializer(classLoader).deserialize(new ByteArrayInputStream(serialized));
+            }
+            default:
+                throw new IllegalStateException("Unknown session attribute tag " + tag);
+        }
+    }
+    
+    /**
+     * The principal of a plain username/password security context, or null
+     * for anything that carries more state than the compact form keeps.
+     */
+    private static LibraryUserDetails compactPrincipal(Object value) {
+        if (value instanceof SecurityContext context
+                && context.getAuthentication() instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof LibraryUserDetails principal
+                && principal.getUserId() != null) {
+            return principal;
+        }
+        return null;
+    }
+}
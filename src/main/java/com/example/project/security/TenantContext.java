@@ -0,0 +1,30 @@
+package com.example.project.security;
+
+/**
+ * Branch (tenant) of the current request. Set by BranchContextFilter and
+ * read by the services to scope catalog and circulation queries. Code that
+ * runs outside a request, such as scheduled jobs and tests, sees the
+ * default branch seeded by V11.
+ */
+public final class TenantContext {
+    
+    public static final Long DEFAULT_BRANCH_ID = 1L;
+    
+    private static final ThreadLocal<Long> CURRENT_BRANCH = new ThreadLocal<>();
+    
+    private TenantContext() {
+    }
+    
+    public static Long getBranchId() {
+        Long branchId = CURRENT_BRANCH.get();
+        return branchId != null ? branchId : DEFAULT_BRANCH_ID;
+    }
+    
+    public static void setBranchId(Long branchId) {
+        CURRENT_BRANCH.set(branchId);
+    }
+    
+    public static void clear() {
+        CURRENT_BRANCH.remove();
+    }
+}
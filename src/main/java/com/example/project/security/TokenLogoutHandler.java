@@ -0,0 +1,38 @@
+package com.example.project.security;
+
+import com.example.project.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Makes /logout revoke API credentials too: the bearer access token, and
+ * the refresh token's family when a refreshToken parameter is sent.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenLogoutHandler implements LogoutHandler {
+    
+    private final RefreshTokenService refreshTokenService;
+    
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        String accessToken = bearerToken(request);
+        String refreshToken = request.getParameter("refreshToken");
+        if (accessToken != null || StringUtils.hasText(refreshToken)) {
+            refreshTokenService.logout(accessToken, refreshToken);
+        }
+    }
+    
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return null;
+    }
+}
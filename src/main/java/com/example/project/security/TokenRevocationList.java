@@ -0,0 +1,172 @@
+package com.example.project.security;
+
+import com.example.project.entity.RevokedToken;
+import com.example.project.repository.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory view of revoked access token ids (jti), checked on every
+ * authenticated API request.
+ *
+ * A Bloom filter answers "definitely not revoked" for almost every token
+ * without touching the exact set; only filter hits (real revocations and
+ * the configured false-positive rate) fall through to the exact map of
+ * jti -> expiry. Both hold only unexpired revocations, and since access
+ * tokens are short-lived they stay small. Revocations made on other nodes
+ * arrive through a periodic poll of revoked_tokens; the filter is rebuilt
+ * whenever expired entries are pruned.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+    
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+    
+    private final Map<String, Long> expiryByJti = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+    private volatile LocalDateTime lastSync = EPOCH;
+    
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries,
+                               @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${jwt.revocation.sync-overlap:30s}") Duration syncOverlap) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = syncOverlap;
+        this.bloom = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+    
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloom.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = expiryByJti.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+    
+    /** Records a revocation made on this node; the row in revoked_tokens informs the others. */
+    public void add(String jti, LocalDateTime expiresAt) {
+        expiryByJti.put(jti, toEpochMillis(expiresAt));
+        bloom.put(jti);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sync();
+        log.info("Loaded {} revoked token ids", expiryByJti.size());
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the window so rows committed late or stamped by a node
+        // with a slightly different clock are not missed
+        LocalDateTime since = lastSync.equals(EPOCH) ? EPOCH : lastSync.minus(syncOverlap);
+        List<RevokedToken> revoked = revokedTokenRepository.findActiveSince(since, now);
+        revoked.forEach(token -> add(token.getJti(), token.getExpiresAt()));
+        lastSync = now;
+        prune();
+    }
+    
+    public int size() {
+        return expiryByJti.size();
+    }
+    
+    private void prune() {
+        long now = System.currentTimeMillis();
+        boolean removed = expiryByJti.values().removeIf(expiresAt -> expiresAt <= now);
+        if (removed || expiryByJti.size() > bloom.capacity) {
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, expiryByJti.size() * 2), falsePositiveRate);
+            expiryByJti.keySet().forEach(rebuilt::put);
+            bloom = rebuilt;
+            // A revocation added while rebuilding may have missed the new filter
+            expiryByJti.keySet().forEach(rebuilt::put);
+        }
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Lock-free Bloom filter over strings, using double hashing of a 64-bit
+     * FNV-1a hash of the characters to derive the k bit positions.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final int capacity;
+        
+        BloomFilter(int capacity, double falsePositiveRate) {
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = Math.max(64, m);
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+            this.capacity = capacity;
+        }
+        
+        void put(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+        
+        boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+        
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.project.service;
+
+import com.example.project.entity.AuditEvent;
+import com.example.project.entity.Book;
+import com.example.project.entity.BorrowRecord;
+import com.example.project.repository.AuditEventRepository;
+import com.example.project.security.TenantContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only audit trail for catalog and circulation changes.
+ *
+ * Mutating services call {@link #record} with before/after snapshots; the
+ * event is placed on a bounded lock-free ring once the surrounding
+ * transaction commits, so the request thread never touches the database
+ * for auditing. A scheduled writer drains the ring, serializes the
+ * snapshots to JSON and inserts them with multi-row INSERTs. When the ring
+ * is full new events are dropped and counted rather than blocking callers.
+ */
+@Slf4j
+@Service
+public class AuditService {
+    
+    public static final String BOOK = "BOOK";
+    public static final String LOAN = "LOAN";
+    
+    private static final String INSERT_PREFIX = "INSERT INTO audit_events "
+        + "(occurred_at, actor, action, entity_type, entity_id, branch_id, before_value, after_value) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 8;
+    private static final int PAGE_SIZE = 50;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditEventRepository auditEventRepository;
+    private final int batchSize;
+    
+    private final EventRing ring;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    
+    public AuditService(JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        AuditEventRepository auditEventRepository,
+                        @Value("${library.audit.capacity:65536}") int capacity,
+                        @Value("${library.audit.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.auditEventRepository = auditEventRepository;
+        this.batchSize = batchSize;
+        this.ring = new EventRing(capacity);
+    }
+    
+    /**
+     * Records a change made by the current user. Inside a transaction the
+     * event is only queued after commit, so rolled-back changes leave no trace.
+     */
+    public void record(String action, String entityType, Long entityId,
+                       Map<String, Object> before, Map<String, Object> after) {
+        Entry entry = new Entry(LocalDateTime.now(), currentActor(), action, entityType, entityId,
+            TenantContext.getBranchId(), before, after);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> ring.offer(entry));
+        } else {
+            ring.offer(entry);
+        }
+    }
+    
+    /** Drains the ring into audit_events until it is empty. */
+    @Scheduled(fixedDelayString = "${library.audit.flush-ms:500}")
+    public synchronized void flush() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (ring.drainTo(batch, batchSize) > 0) {
+            try {
+                insert(batch);
+                written.add(batch.size());
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                log.error("Failed to write {} audit events", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    public Slice<AuditEvent> getEvents(String entityType, Long entityId, String actor, int page) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), PAGE_SIZE);
+        if (actor != null && !actor.isBlank()) {
+            return auditEventRepository.findByActorOrderByIdDesc(actor, pageable);
+        }
+        if (entityType != null && !entityType.isBlank()) {
+            return entityId != null
+                ? auditEventRepository.findByEntityTypeAndEntityIdOrderByIdDesc(entityType, entityId, pageable)
+                : auditEventRepository.findByEntityTypeOrderByIdDesc(entityType, pageable);
+        }
+        return auditEventRepository.findAllByOrderByIdDesc(pageable);
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queued", ring.size());
+        metrics.put("capacity", ring.capacity());
+        metrics.put("dropped", ring.dropped());
+        metrics.put("written", written.sum());
+        metrics.put("failed", failed.sum());
+        return metrics;
+    }
+    
+    public static Map<String, Object> snapshot(Book book) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("title", book.getTitle());
+        values.put("author", book.getAuthor());
+        values.put("isbn", book.getIsbn());
+        values.put("genre", book.getGenre());
+        values.put("quantity", book.getQuantity());
+        values.put("isAvailable", book.getIsAvailable());
+        return values;
+    }
+    
+    public static Map<String, Object> snapshot(BorrowRecord record) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("userId", record.getUser().getId());
+        values.put("bookId", record.getBook().getId());
+        values.put("copyId", record.getCopy() != null ? record.getCopy().getId() : null);
+        values.put("borrowDate", String.valueOf(record.getBorrowDate()));
+        values.put("returnDeadline", String.valueOf(record.getReturnDeadline()));
+        values.put("actualReturnDate", record.getActualReturnDate() != null ? record.getActualReturnDate().toString() : null);
+        values.put("status", record.getStatus().name());
+        return values;
+    }
+    
+    private void insert(List<Entry> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (Entry entry : batch) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args[i++] = Timestamp.valueOf(entry.occurredAt());
+            args[i++] = entry.actor();
+            args[i++] = entry.action();
+            args[i++] = entry.entityType();
+            args[i++] = entry.entityId();
+            args[i++] = entry.branchId();
+            args[i++] = toJson(entry.before());
+            args[i++] = toJson(entry.after());
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+    
+    private String toJson(Map<String, Object> values) {
+        if (values == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(values);
+        }
+    }
+    
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "system";
+    }
+    
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    record Entry(LocalDateTime occurredAt, String actor, String action, String entityType, Long entityId,
+                 Long branchId, Map<String, Object> before, Map<String, Object> after) {
+    }
+    
+    /**
+     * Bounded multi-producer, single-consumer ring. Producers claim a slot by
+     * advancing the tail with a CAS and then publish the entry into it; the
+     * consumer takes slots in order and stops at the first one that has been
+     * claimed but not yet published. A slot is cleared before the head moves
+     * past it, so a producer never overwrites an entry that is still unread.
+     */
+    static final class EventRing {
+        private final AtomicReferenceArray<Entry> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong head = new AtomicLong();
+        private final LongAdder dropped = new LongAdder();
+        
+        EventRing(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+        
+        boolean offer(Entry entry) {
+            long claimed;
+            do {
+                claimed = tail.get();
+                if (claimed - head.get() >= slots.length()) {
+                    dropped.increment();
+                    return false;
+                }
+            } while (!tail.compareAndSet(claimed, claimed + 1));
+            slots.set((int) (claimed & mask), entry);
+            return true;
+        }
+        
+        /** Single consumer only. */
+        int drainTo(List<Entry> target, int max) {
+            long next = head.get();
+            int taken = 0;
+            while (taken < max) {
+                int index = (int) (next & mask);
+                Entry entry = slots.get(index);
+                if (entry == null) {
+                    break;
+                }
+                slots.lazySet(index, null);
+                target.add(entry);
+                next++;
+                taken++;
+            }
+            head.lazySet(next);
+            return taken;
+        }
+        
+        int size() {
+            return (int) Math.max(0, tail.get() - head.get());
+        }
+        
+        int capacity() {
+            return slots.length();
+        }
+        
+        long dropped() {
+            return dropped.sum();
+        }
+    }
+}
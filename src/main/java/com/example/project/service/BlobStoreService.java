@@ -0,0 +1,116 @@
+package com.example.project.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store for book assets. Files are named by the
+ * SHA-256 of their bytes and sharded into two directory levels
+ * (ab/cd/abcd...), so identical uploads are stored once and a blob never
+ * changes after it is written. Storing bytes that are already present
+ * touches the file, so the orphan sweep in BookAssetService can tell a blob
+ * that was just re-uploaded from one nothing has used for a while.
+ */
+@Service
+public class BlobStoreService {
+    
+    private static final Pattern HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    
+    @Value("${library.assets.dir:./data/assets}")
+    private String assetsDir;
+    
+    private Path root;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(assetsDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve("tmp"));
+    }
+    
+    /**
+     * Streams the input to a temporary file while hashing it, then moves it
+     * into place. The content is never buffered whole on the heap.
+     */
+    public String store(InputStream input) throws IOException {
+        Path temp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            MessageDigest digest = newDigest();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                input.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    public Path resolve(String hash) {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid asset hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+    
+    public boolean exists(String hash) {
+        return isValidHash(hash) && Files.isRegularFile(resolve(hash));
+    }
+    
+    /** Hashes of the blobs last written or re-stored before the cutoff. */
+    public List<String> findOlderThan(Instant cutoff) throws IOException {
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            return files
+                .filter(path -> isValidHash(path.getFileName().toString()))
+                .filter(path -> {
+                    try {
+                        return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+                    } catch (IOException e) {
+                        return false;
+                    }
+                })
+                .map(path -> path.getFileName().toString())
+                .toList();
+        }
+    }
+    
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(resolve(hash));
+    }
+    
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.project.service;
+
+import com.example.project.entity.AssetKind;
+import com.example.project.entity.BookAsset;
+import com.example.project.repository.BookAssetRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class BookAssetService {
+    
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    private static final Set<String> SAMPLE_TYPES = Set.of("application/pdf");
+    private static final int SNIFF_BYTES = 12;
+    private static final int PURGE_BATCH = 500;
+    
+    private final BookAssetRepository bookAssetRepository;
+    private final BlobStoreService blobStore;
+    private final ExecutorService thumbnailExecutor;
+    
+    @Value("${library.assets.thumbnail-width:200}")
+    private int thumbnailWidth;
+    
+    // Long enough for an upload's transaction to commit before its blob is judged unreferenced
+    @Value("${library.assets.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+    
+    public BookAssetService(BookAssetRepository bookAssetRepository, BlobStoreService blobStore) {
+        this.bookAssetRepository = bookAssetRepository;
+        this.blobStore = blobStore;
+        // Small bounded pool; if it is saturated the uploading request makes the thumbnail itself
+        this.thumbnailExecutor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(100), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        thumbnailExecutor.shutdown();
+    }
+    
+    public List<BookAsset> getAssets(Long bookId) {
+        return bookAssetRepository.findByBookIdOrderByKind(bookId);
+    }
+    
+    public Optional<BookAsset> findByHash(String sha256) {
+        return bookAssetRepository.findFirstBySha256(sha256);
+    }
+    
+    /**
+     * Stores an uploaded cover or sample, replacing any previous asset of the
+     * same kind. The type is taken from the file's leading bytes, not the
+     * client's Content-Type, and must be on the kind's allow-list. Covers get
+     * a thumbnail generated in the background once the transaction commits.
+     */
+    @Transactional
+    public BookAsset attach(Long bookId, AssetKind kind, MultipartFile file) throws IOException {
+        String contentType;
+        try (InputStream in = file.getInputStream()) {
+            contentType = sniff(in.readNBytes(SNIFF_BYTES));
+        }
+        Set<String> allowed = kind == AssetKind.SAMPLE ? SAMPLE_TYPES : IMAGE_TYPES;
+        if (contentType == null || !allowed.contains(contentType)) {
+            throw new RuntimeException("Unsupported file type for " + kind.name().toLowerCase() + ": "
+                + (contentType != null ? contentType : file.getContentType()));
+        }
+        
+        String hash;
+        try (InputStream in = file.getInputStream()) {
+            hash = blobStore.store(in);
+        }
+        
+        BookAsset asset = replace(new BookAsset(bookId, kind, hash, contentType, file.getSize(), file.getOriginalFilename()));
+        
+        if (kind == AssetKind.COVER) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    thumbnailExecutor.execute(() -> generateThumbnail(bookId, hash));
+                }
+            });
+        }
+        return asset;
+    }
+    
+    /**
+     * Deletes blobs no asset row references any more: replaced covers and
+     * samples, old thumbnails, and the assets of deleted books.
+     */
+    @Scheduled(fixedDelayString = "${library.assets.purge-ms:86400000}")
+    public void purgeOrphanBlobs() {
+        try {
+            List<String> candidates = blobStore.findOlderThan(Instant.now().minus(Duration.ofHours(orphanGraceHours)));
+            int purged = 0;
+            for (int from = 0; from < candidates.size(); from += PURGE_BATCH) {
+                List<String> batch = candidates.subList(from, Math.min(from + PURGE_BATCH, candidates.size()));
+                Set<String> referenced = new HashSet<>(bookAssetRepository.findReferencedHashes(batch));
+                for (String hash : batch) {
+                    if (!referenced.contains(hash)) {
+                        blobStore.delete(hash);
+                        purged++;
+                    }
+                }
+            }
+            if (purged > 0) {
+                log.info("Purged {} unreferenced asset blobs", purged);
+            }
+        } catch (IOException e) {
+            log.error("Asset blob purge failed", e);
+        }
+    }
+    
+    /** The allowed type whose signature the content starts with, or null. */
+    private static String sniff(byte[] head) {
+        if (startsWith(head, 0, (byte) 0xFF, (byte) 0xD8, (byte) 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, 0, (byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G',
+                (byte) 0x0D, (byte) 0x0A, (byte) 0x1A, (byte) 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, 0, ascii("GIF87a")) || startsWith(head, 0, ascii("GIF89a"))) {
+            return "image/gif";
+        }
+        if (startsWith(head, 0, ascii("RIFF")) && startsWith(head, 8, ascii("WEBP"))) {
+            return "image/webp";
+        }
+        if (startsWith(head, 0, ascii("%PDF-"))) {
+            return "application/pdf";
+        }
+        return null;
+    }
+    
+    private static boolean startsWith(byte[] head, int offset, byte... signature) {
+        return head.length >= offset + signature.length
+            && Arrays.equals(head, offset, offset + signature.length, signature, 0, signature.length);
+    }
+    
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private BookAsset replace(BookAsset asset) {
+        bookAssetRepository.deleteAll(bookAssetRepository.findByBookIdAndKind(asset.getBookId(), asset.getKind()));
+        if (asset.getKind() == AssetKind.COVER) {
+            bookAssetRepository.deleteAll(bookAssetRepository.findByBookIdAndKind(asset.getBookId(), AssetKind.THUMBNAIL));
+        }
+        return bookAssetRepository.save(asset);
+    }
+    
+    private void generateThumbnail(Long bookId, String coverHash) {
+        try {
+            BufferedImage source;
+            try (InputStream in = Files.newInputStream(blobStore.resolve(coverHash))) {
+                source = ImageIO.read(in);
+            }
+            if (source == null) {
+                log.warn("Cover {} for book {} could not be decoded; skipping thumbnail", coverHash, bookId);
+                return;
+            }
+            
+            int width = Math.min(thumbnailWidth, source.getWidth());
+            int height = Math.max(1, source.getHeight() * width / source.getWidth());
+            BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = thumbnail.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+            g.dispose();
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "jpg", out);
+            String hash = blobStore.store(new ByteArrayInputStream(out.toByteArray()));
+            
+            bookAssetRepository.deleteAll(bookAssetRepository.findByBookIdAndKind(bookId, AssetKind.THUMBNAIL));
+            bookAssetRepository.save(new BookAsset(bookId, AssetKind.THUMBNAIL, hash, "image/jpeg", (long) out.size(), null));
+        } catch (Exception e) {
+            log.error("Thumbnail generation failed for book {}", bookId, e);
+        }
+    }
+}
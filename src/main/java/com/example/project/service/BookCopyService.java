@@ -0,0 +1,145 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.BranchHolding;
+import com.example.project.entity.CopyStatus;
+import com.example.project.repository.BookCopyRepository;
+import com.example.project.repository.BranchHoldingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Physical copies and their shelf status. Branch holdings are kept as a
+ * recount of the copies after every status change, so availability is always
+ * derived from the items themselves. Barcodes are mirrored in an in-memory
+ * hash index so a desk scan resolves to a primary-key lookup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookCopyService {
+    
+    private final BookCopyRepository bookCopyRepository;
+    private final BranchHoldingRepository branchHoldingRepository;
+    
+    private final Map<String, Long> copyIdByBarcode = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBarcodes() {
+        List<Object[]> rows = bookCopyRepository.findAllBarcodes();
+        rows.forEach(row -> copyIdByBarcode.put((String) row[0], (Long) row[1]));
+        log.info("Indexed {} copy barcodes", rows.size());
+    }
+    
+    /**
+     * Adds copies numbered after the title's highest copy. The caller must
+     * hold the book row lock (a new title's insert, or BookService.updateBook)
+     * so two additions cannot pick the same numbers.
+     */
+    @Transactional
+    public List<BookCopy> addCopies(Long branchId, Book book, int count, CopyStatus status) {
+        int nextCopyNo = bookCopyRepository.findMaxCopyNo(book.getId()) + 1;
+        List<BookCopy> copies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            copies.add(new BookCopy(book, branchId, nextCopyNo + i, status));
+        }
+        List<BookCopy> saved = bookCopyRepository.saveAll(copies);
+        
+        if (branchHoldingRepository.findByBranchIdAndBookId(branchId, book.getId()).isEmpty()) {
+            branchHoldingRepository.save(new BranchHolding(branchId, book.getId(), 0, 0));
+        }
+        recount(branchId, book.getId());
+        afterCommit(() -> saved.forEach(copy -> copyIdByBarcode.put(copy.getBarcode(), copy.getId())));
+        return saved;
+    }
+    
+    /**
+     * Withdraws up to count copies that are on the shelf, highest numbers
+     * first. Copies out on loan or on hold are left alone.
+     */
+    @Transactional
+    public int withdrawCopies(Long branchId, Book book, int count) {
+        List<BookCopy> onShelf = bookCopyRepository.findByBranchIdAndBookIdAndStatusOrderByCopyNoDesc(
+            branchId, book.getId(), CopyStatus.AVAILABLE);
+        int withdrawn = Math.min(count, onShelf.size());
+        for (BookCopy copy : onShelf.subList(0, withdrawn)) {
+            copy.setStatus(CopyStatus.WITHDRAWN);
+        }
+        bookCopyRepository.saveAll(onShelf.subList(0, withdrawn));
+        recount(branchId, book.getId());
+        return withdrawn;
+    }
+    
+    /**
+     * Takes a free copy of the title off the branch's shelf, or returns empty
+     * if every copy is out.
+     */
+    @Transactional
+    public Optional<BookCopy> checkOut(Long branchId, Long bookId) {
+        return bookCopyRepository.findFreeCopyForUpdate(branchId, bookId)
+            .map(copy -> setStatus(copy, CopyStatus.ON_LOAN));
+    }
+    
+    /**
+     * Resolves a scanned barcode to its copy, locked for update.
+     */
+    @Transactional
+    public BookCopy lockByBarcode(String barcode) {
+        String key = barcode.trim();
+        Long id = copyIdByBarcode.get(key);
+        Optional<BookCopy> copy = id != null ? bookCopyRepository.findByIdForUpdate(id) : Optional.empty();
+        if (copy.isEmpty()) {
+            // Index miss or stale entry for a deleted title
+            copyIdByBarcode.remove(key);
+            copy = bookCopyRepository.findByBarcode(key)
+                .flatMap(found -> bookCopyRepository.findByIdForUpdate(found.getId()));
+            copy.ifPresent(found -> copyIdByBarcode.put(key, found.getId()));
+        }
+        return copy.orElseThrow(() -> new RuntimeException("No copy with barcode " + key));
+    }
+    
+    @Transactional
+    public BookCopy lock(Long copyId) {
+        return bookCopyRepository.findByIdForUpdate(copyId)
+            .orElseThrow(() -> new RuntimeException("Copy not found"));
+    }
+    
+    @Transactional
+    public BookCopy setStatus(BookCopy copy, CopyStatus status) {
+        copy.setStatus(status);
+        BookCopy saved = bookCopyRepository.save(copy);
+        recount(copy.getBranchId(), copy.getBook().getId());
+        return saved;
+    }
+    
+    public List<BookCopy> getCopies(Long bookId) {
+        return bookCopyRepository.findByBookIdOrderByCopyNo(bookId);
+    }
+    
+    private void recount(Long branchId, Long bookId) {
+        bookCopyRepository.flush();
+        branchHoldingRepository.recount(branchId, bookId);
+    }
+    
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,65 +1,345 @@
 package com.example.project.service;
 
 import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.CopyStatus;
 import com.example.project.repository.BookRepository;
+import com.example.project.repository.BranchHoldingRepository;
+import com.example.project.security.TenantContext;
+import com.example.project.util.Isbn;
+import com.example.project.view.FragmentCache;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
     
     private final BookRepository bookRepository;
+    private final BranchHoldingRepository branchHoldingRepository;
+    private final BookCopyService bookCopyService;
+    private final NotificationService notificationService;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final IsbnIndex isbnIndex;
+    private final AuditService auditService;
+    private final FragmentCache fragmentCache;
+    private final InvalidationBus invalidationBus;
+    
+    private static final int FUZZY_RESULT_LIMIT = 50;
+    private static final int SUGGESTION_LIMIT = 10;
+    private static final int FACET_VALUE_LIMIT = 20;
+    
+    @PostConstruct
+    public void subscribeToOtherNodes() {
+        invalidationBus.subscribe(InvalidationBus.BOOK, this::reloadChangedBooks);
+    }
     
     public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+        return bookRepository.findAllInBranch(TenantContext.getBranchId());
     }
     
     public Optional<Book> getBookById(Long id) {
         return bookRepository.findById(id);
     }
     
+    /** Looks a book up by any form of its ISBN, through the in-memory ISBN index. */
+    public Optional<Book> getBookByIsbn(String isbn) {
+        if (!Isbn.isValid(isbn)) {
+            return Optional.empty();
+        }
+        long isbn13 = Isbn.toIsbn13(isbn);
+        long bookId = isbnIndex.find(isbn13);
+        // Another node may have changed the ISBN since this index entry was made
+        return bookId == 0 ? Optional.empty() : bookRepository.findById(bookId)
+            .filter(book -> Long.valueOf(isbn13).equals(book.getIsbn13()));
+    }
+    
     public List<Book> getAvailableBooks() {
-        return bookRepository.findByIsAvailable(true);
+        return bookRepository.findAvailableInBranch(TenantContext.getBranchId());
     }
     
+    /**
+     * Saves a book. A new title is stocked in the current branch with one
+     * copy on the shelf per unit of quantity, and its availability follows
+     * from those copies; one created unavailable is withheld instead.
+     */
     @Transactional
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        boolean isNew = book.getId() == null;
+        if (isNew) {
+            book.setWithheld(!Boolean.TRUE.equals(book.getIsAvailable()));
+        }
+        Long previousIsbn13 = book.getIsbn13();
+        book.setIsbn13(canonicalIsbn(book.getIsbn(), book.getId()));
+        Book saved = bookRepository.save(book);
+        afterCommit(() -> reindexIsbn(previousIsbn13, saved));
+        if (isNew) {
+            bookCopyService.addCopies(TenantContext.getBranchId(), saved, saved.getQuantity(), CopyStatus.AVAILABLE);
+            refreshAvailability(saved.getId());
+        }
+        afterCommit(() -> {
+            catalogSearchIndex.index(saved);
+            catalogFacetIndex.index(saved);
+        });
+        notificationService.bookAvailabilityChanged(saved);
+        catalogChanged(saved.getId());
+        auditService.record(isNew ? "BOOK_CREATED" : "BOOK_UPDATED", AuditService.BOOK, saved.getId(),
+            null, AuditService.snapshot(saved));
+        return saved;
     }
     
+    /**
+     * Updates catalog details. A quantity change adds or withdraws copies at
+     * the current branch. Availability is then recomputed from the copies and
+     * the withheld flag, which is the only way to keep a title with copies on
+     * the shelf from being lent.
+     */
     @Transactional
     public Book updateBook(Long id, Book bookDetails) {
-        Book book = bookRepository.findById(id)
+        // Locked so a concurrent edit cannot compute its quantity change from the same old value
+        Book book = bookRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new RuntimeException("Book not found"));
         
+        int quantityChange = bookDetails.getQuantity() - book.getQuantity();
+        Long previousIsbn13 = book.getIsbn13();
+        Map<String, Object> before = AuditService.snapshot(book);
+        
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setIsbn(bookDetails.getIsbn());
+        book.setIsbn13(canonicalIsbn(bookDetails.getIsbn(), id));
         book.setGenre(bookDetails.getGenre());
         book.setQuantity(bookDetails.getQuantity());
-        book.setIsAvailable(bookDetails.getIsAvailable());
+        book.setWithheld(Boolean.TRUE.equals(bookDetails.getWithheld()));
+        
+        if (quantityChange > 0) {
+            bookCopyService.addCopies(TenantContext.getBranchId(), book, quantityChange, CopyStatus.AVAILABLE);
+        } else if (quantityChange < 0) {
+            bookCopyService.withdrawCopies(TenantContext.getBranchId(), book, -quantityChange);
+        }
         
-        return bookRepository.save(book);
+        Book saved = bookRepository.saveAndFlush(book);
+        refreshAvailability(id);
+        afterCommit(() -> reindexIsbn(previousIsbn13, saved));
+        afterCommit(() -> {
+            catalogSearchIndex.index(saved);
+            catalogFacetIndex.index(saved);
+        });
+        notificationService.bookAvailabilityChanged(saved);
+        catalogChanged(id);
+        auditService.record("BOOK_UPDATED", AuditService.BOOK, id, before, AuditService.snapshot(saved));
+        return saved;
     }
     
     @Transactional
     public void deleteBook(Long id) {
+        Optional<Book> existing = bookRepository.findById(id);
         bookRepository.deleteById(id);
+        afterCommit(() -> {
+            existing.map(Book::getIsbn13).ifPresent(isbnIndex::remove);
+            catalogSearchIndex.remove(id);
+            catalogFacetIndex.remove(id);
+        });
+        catalogChanged(id);
+        auditService.record("BOOK_DELETED", AuditService.BOOK, id,
+            existing.map(AuditService::snapshot).orElse(null), null);
     }
     
+    /**
+     * Substring search on title and author. When nothing matches, falls back
+     * to the in-memory fuzzy index so misspelled keywords still find books.
+     * Both only return titles the current branch stocks.
+     */
     public List<Book> searchBooks(String keyword) {
-        return bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(keyword, keyword);
+        List<Book> results = bookRepository.searchInBranch(TenantContext.getBranchId(), keyword);
+        if (!results.isEmpty()) {
+            return results;
+        }
+        
+        List<Long> ids = catalogSearchIndex.fuzzySearch(keyword, FUZZY_RESULT_LIMIT, inCurrentBranch());
+        if (ids.isEmpty()) {
+            return results;
+        }
+        return getBooksByIds(ids);
+    }
+    
+    /**
+     * Filters the current branch's catalog by genre, author and availability
+     * using the facet bitmaps; only the page of matching books is loaded from
+     * the database.
+     */
+    public CatalogFacetIndex.FacetResult browse(List<String> genres, List<String> authors, Boolean available) {
+        return catalogFacetIndex.query(TenantContext.getBranchId(), genres, authors, available, FACET_VALUE_LIMIT);
+    }
+    
+    /**
+     * Validates the ISBN and returns its ISBN-13, rejecting it if another
+     * book already has the same ISBN in any form.
+     */
+    private long canonicalIsbn(String isbn, Long bookId) {
+        long isbn13;
+        try {
+            isbn13 = Isbn.toIsbn13(isbn);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        long existing = isbnIndex.find(isbn13);
+        if (existing != 0 && !Long.valueOf(existing).equals(bookId)) {
+            // The entry is stale if another node has since changed that title's ISBN
+            if (bookRepository.findByIsbn13(isbn13).filter(book -> !book.getId().equals(bookId)).isPresent()) {
+                throw new RuntimeException("A book with ISBN " + Isbn.format(isbn13) + " already exists");
+            }
+            isbnIndex.remove(isbn13);
+        }
+        return isbn13;
+    }
+    
+    /** Drops cached pages here and tells the other nodes which title changed. */
+    private void catalogChanged(Long bookId) {
+        fragmentCache.catalogChanged();
+        invalidationBus.publish(InvalidationBus.BOOK, bookId);
+    }
+    
+    /**
+     * Brings the in-memory indexes up to date with titles changed on other
+     * nodes: changed rows are re-indexed and deleted ones removed. Members
+     * watching a title from this node hear about its availability too.
+     */
+    private void reloadChangedBooks(Set<Long> bookIds) {
+        Set<Long> deleted = new HashSet<>(bookIds);
+        for (Book book : bookRepository.findAllById(bookIds)) {
+            deleted.remove(book.getId());
+            catalogSearchIndex.index(book);
+            catalogFacetIndex.index(book);
+            if (book.getIsbn13() != null) {
+                isbnIndex.put(book.getIsbn13(), book.getId());
+            }
+            notificationService.bookAvailabilityChanged(book);
+        }
+        branchHoldingRepository.findStockKeys(bookIds).forEach(catalogFacetIndex::stock);
+        deleted.forEach(id -> {
+            catalogSearchIndex.remove(id);
+            catalogFacetIndex.remove(id);
+        });
+        if (!deleted.isEmpty()) {
+            isbnIndex.removeBooks(deleted);
+        }
+        fragmentCache.catalogChanged();
+    }
+    
+    private void reindexIsbn(Long previousIsbn13, Book saved) {
+        if (previousIsbn13 != null && !previousIsbn13.equals(saved.getIsbn13())) {
+            isbnIndex.remove(previousIsbn13);
+        }
+        isbnIndex.put(saved.getIsbn13(), saved.getId());
+    }
+    
+    public List<Book> getBooksByIds(List<Long> ids) {
+        Map<Long, Book> byId = bookRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(book -> book != null).toList();
+    }
+    
+    public List<CatalogSearchIndex.Suggestion> suggest(String prefix) {
+        return catalogSearchIndex.suggest(prefix, SUGGESTION_LIMIT, inCurrentBranch());
+    }
+    
+    /** Accepts the ids of titles the current branch stocks. */
+    private Predicate<Long> inCurrentBranch() {
+        BitSet stocked = catalogFacetIndex.booksInBranch(TenantContext.getBranchId());
+        return id -> stocked.get(Math.toIntExact(id));
     }
     
+    /**
+     * Withholds a title from loan, or releases it. A released title is only
+     * available again once a branch has a copy on the shelf.
+     */
     @Transactional
     public void updateAvailability(Long bookId, boolean isAvailable) {
+        Book book = bookRepository.findByIdForUpdate(bookId)
+            .orElseThrow(() -> new RuntimeException("Book not found"));
+        book.setWithheld(!isAvailable);
+        bookRepository.saveAndFlush(book);
+        refreshAvailability(bookId);
+    }
+    
+    public int getAvailableInBranch(Long branchId, Long bookId) {
+        return branchHoldingRepository.findAvailableQuantity(branchId, bookId).orElse(0);
+    }
+    
+    /**
+     * Takes a free copy off the branch's shelf.
+     * Returns empty if the branch has no copy available.
+     */
+    @Transactional
+    public Optional<BookCopy> takeCopy(Long branchId, Book book) {
+        Optional<BookCopy> copy = bookCopyService.checkOut(branchId, book.getId());
+        copy.ifPresent(taken -> refreshAvailability(book.getId()));
+        return copy;
+    }
+    
+    /** Puts a copy back on its branch's shelf. */
+    @Transactional
+    public void returnCopy(BookCopy copy) {
+        bookCopyService.setStatus(copy, CopyStatus.AVAILABLE);
+        refreshAvailability(copy.getBook().getId());
+    }
+    
+    /**
+     * A title is available while any branch has a copy on the shelf. The flag
+     * is set by a guarded UPDATE rather than read, compared and saved, so a
+     * checkout and a return of the same title racing each other cannot leave
+     * it stale. Each branch's shelf is re-read for the facet index, since one
+     * branch can run out while the title stays available elsewhere.
+     */
+    @Transactional
+    public void refreshAvailability(Long bookId) {
+        List<Object[]> holdings = branchHoldingRepository.findStockKeys(List.of(bookId));
+        boolean shelvesChanged = holdings.stream().anyMatch(row -> !catalogFacetIndex.isStocked(row));
+        afterCommit(() -> holdings.forEach(catalogFacetIndex::stock));
+        if (bookRepository.syncAvailability(bookId) == 0) {
+            if (shelvesChanged) {
+                catalogChanged(bookId);
+            }
+            return;
+        }
         Book book = bookRepository.findById(bookId)
             .orElseThrow(() -> new RuntimeException("Book not found"));
-        book.setIsAvailable(isAvailable);
-        bookRepository.save(book);
+        // The persistence context may still hold the value from before the UPDATE
+        book.setIsAvailable(bookRepository.findAvailability(bookId));
+        afterCommit(() -> catalogFacetIndex.index(book));
+        notificationService.bookAvailabilityChanged(book);
+        catalogChanged(bookId);
+    }
+    
+    /**
+     * Defers an in-memory index change until the transaction commits, so a
+     * rolled-back edit never reaches the indexes.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.example.project.service;
+
+import com.example.project.entity.BorrowStatus;
+import com.example.project.repository.ArchivedBorrowRepository;
+import com.example.project.repository.BorrowRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves completed loans older than the retention period from borrow_records
+ * into borrow_records_archive. Each batch is copied and deleted in its own
+ * short transaction so the active table is never locked for long.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BorrowArchiveService {
+    
+    private final BorrowRepository borrowRepository;
+    private final ArchivedBorrowRepository archivedBorrowRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${library.archive.retention-days:365}")
+    private int retentionDays;
+    
+    @Value("${library.archive.batch-size:500}")
+    private int batchSize;
+    
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    public void archiveScheduled() {
+        int archived = archiveCompletedLoans();
+        if (archived > 0) {
+            log.info("Archived {} completed borrow records", archived);
+        }
+    }
+    
+    public int archiveCompletedLoans() {
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+    
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> ids = borrowRepository.findArchivableIds(
+            List.of(BorrowStatus.RETURNED, BorrowStatus.RETURNED_LATE), cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedBorrowRepository.copyFromActive(ids);
+        borrowRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+}
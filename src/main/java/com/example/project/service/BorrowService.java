@@ -1,14 +1,29 @@
 package com.example.project.service;
 
+import com.example.project.entity.ArchivedBorrowRecord;
 import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
 import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.BorrowStatus;
+import com.example.project.entity.CopyStatus;
 import com.example.project.entity.User;
+import com.example.project.repository.ArchivedBorrowRepository;
 import com.example.project.repository.BorrowRepository;
+import com.example.project.security.TenantContext;
+import com.example.project.view.FragmentCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -16,70 +31,188 @@ public class BorrowService {
     
     private final BorrowRepository borrowRepository;
     private final BookService bookService;
+    private final ArchivedBorrowRepository archivedBorrowRepository;
+    private final HoldService holdService;
+    private final BookCopyService bookCopyService;
+    private final FineService fineService;
+    private final NotificationService notificationService;
+    private final RecommendationService recommendationService;
+    private final AuditService auditService;
+    private final FragmentCache fragmentCache;
+    private final InvalidationBus invalidationBus;
+    private final TransactionTemplate transactionTemplate;
+    
+    private static final List<BorrowStatus> OPEN_STATUSES = List.of(BorrowStatus.BORROWED, BorrowStatus.OVERDUE);
     
     @Transactional
     public BorrowRecord borrowBook(User user, Book book) {
-        if (!book.getIsAvailable()) {
+        if (Boolean.TRUE.equals(book.getWithheld())) {
             throw new RuntimeException("Book is not available");
         }
-        
-        // Set book as unavailable
-        book.setIsAvailable(false);
-        bookService.saveBook(book);
-        
+        // A copy set aside for this user by a hold is lent first;
+        // otherwise take any free copy at the branch
+        Optional<BookCopy> held = holdService.claimReadyHold(user, book);
+        BookCopy copy;
+        if (held.isPresent()) {
+            copy = bookCopyService.setStatus(held.get(), CopyStatus.ON_LOAN);
+        } else {
+            copy = bookService.takeCopy(TenantContext.getBranchId(), book)
+                .orElseThrow(() -> new RuntimeException("Book is not available"));
+        }
+        return createLoan(user, copy);
+    }
+    
+    /**
+     * Front-desk checkout of a scanned copy. The copy must be on the shelf,
+     * or on hold for this member.
+     */
+    @Transactional
+    public BorrowRecord borrowByBarcode(User user, String barcode) {
+        BookCopy copy = bookCopyService.lockByBarcode(barcode);
+        boolean lendable = !Boolean.TRUE.equals(copy.getBook().getWithheld())
+            && (copy.getStatus() == CopyStatus.AVAILABLE
+                || (copy.getStatus() == CopyStatus.ON_HOLD && holdService.claimReadyHold(user, copy)));
+        if (!lendable) {
+            throw new RuntimeException("Copy " + copy.getBarcode() + " is not available");
+        }
+        bookCopyService.setStatus(copy, CopyStatus.ON_LOAN);
+        bookService.refreshAvailability(copy.getBook().getId());
+        return createLoan(user, copy);
+    }
+    
+    /** Front-desk return of a scanned copy. */
+    @Transactional
+    public BorrowRecord returnByBarcode(String barcode) {
+        BookCopy copy = bookCopyService.lockByBarcode(barcode);
+        BorrowRecord record = borrowRepository.findByCopyIdAndStatusInForUpdate(copy.getId(), OPEN_STATUSES)
+            .orElseThrow(() -> new RuntimeException("Copy " + copy.getBarcode() + " is not on loan"));
+        return closeLoan(record);
+    }
+    
+    private BorrowRecord createLoan(User user, BookCopy copy) {
         // Create borrow record with 14-day return deadline
         LocalDate borrowDate = LocalDate.now();
         LocalDate returnDeadline = borrowDate.plusDays(14);
         
-        BorrowRecord borrowRecord = new BorrowRecord(user, book, borrowDate, returnDeadline);
-        return borrowRepository.save(borrowRecord);
+        BorrowRecord borrowRecord = borrowRepository.save(new BorrowRecord(user, copy, borrowDate, returnDeadline));
+        notificationService.loanStatusChanged(borrowRecord);
+        recommendationService.recordBorrow(user.getId(), copy.getBook().getId());
+        auditService.record("LOAN_CREATED", AuditService.LOAN, borrowRecord.getId(),
+            null, AuditService.snapshot(borrowRecord));
+        // Branch shelves changed even if the title's overall availability did not
+        fragmentCache.catalogChanged();
+        invalidationBus.publish(InvalidationBus.BOOK, copy.getBook().getId());
+        return borrowRecord;
     }
     
+    /**
+     * Returns a loan. The record is locked and must still be open, so a
+     * double submit or a desk check-in racing this return releases the copy
+     * and settles the fine only once.
+     */
     @Transactional
     public BorrowRecord returnBook(Long borrowRecordId) {
-        BorrowRecord record = borrowRepository.findById(borrowRecordId)
+        BorrowRecord record = borrowRepository.findByIdForUpdate(borrowRecordId)
             .orElseThrow(() -> new RuntimeException("Borrow record not found"));
+        if (!OPEN_STATUSES.contains(record.getStatus())) {
+            throw new RuntimeException("Loan " + borrowRecordId + " is already returned");
+        }
+        return closeLoan(record);
+    }
+    
+    private BorrowRecord closeLoan(BorrowRecord record) {
+        Map<String, Object> before = AuditService.snapshot(record);
         
         // Set actual return date
         record.setActualReturnDate(LocalDate.now());
         
         // Update status based on return deadline
         if (LocalDate.now().isAfter(record.getReturnDeadline())) {
-            record.setStatus("RETURNED_LATE");
+            record.setStatus(BorrowStatus.RETURNED_LATE);
+            fineService.finalizeOnReturn(record);
         } else {
-            record.setStatus("RETURNED");
+            record.setStatus(BorrowStatus.RETURNED);
         }
         
-        // Make book available again
-        Book book = record.getBook();
-        book.setIsAvailable(true);
-        bookService.saveBook(book);
+        // Hand the copy to the next holder at its branch, or put it back on the shelf.
+        // Loans from before copies were tracked have no copy to release.
+        BookCopy copy = record.getCopy();
+        if (copy != null && !holdService.allocateNext(copy)) {
+            bookService.returnCopy(copy);
+        }
         
-        return borrowRepository.save(record);
+        BorrowRecord saved = borrowRepository.save(record);
+        notificationService.loanStatusChanged(saved);
+        auditService.record("LOAN_RETURNED", AuditService.LOAN, saved.getId(), before, AuditService.snapshot(saved));
+        fragmentCache.catalogChanged();
+        invalidationBus.publish(InvalidationBus.BOOK, saved.getBook().getId());
+        return saved;
     }
     
     public List<BorrowRecord> getUserBorrowHistory(User user) {
         return borrowRepository.findByUserOrderByBorrowDateDesc(user);
     }
     
+    /**
+     * Pages through a user's history, newest first. Recent loans come from
+     * borrow_records; the archive is only queried once the requested page
+     * runs past the rows still held in the active table.
+     */
+    public List<BorrowRecord> getUserBorrowHistory(User user, int page, int size) {
+        long activeCount = borrowRepository.countByUser(user);
+        long offset = (long) page * size;
+        
+        List<BorrowRecord> records = new ArrayList<>(size);
+        if (offset < activeCount) {
+            records.addAll(borrowRepository.findByUserOrderByBorrowDateDesc(user, PageRequest.of(page, size)).getContent());
+            if (records.size() == size) {
+                return records;
+            }
+        }
+        
+        int archiveOffset = (int) Math.max(0, offset - activeCount);
+        List<ArchivedBorrowRecord> archived =
+            archivedBorrowRepository.findUserHistory(user.getId(), archiveOffset, size - records.size());
+        Map<Long, Book> books = bookService.getBooksByIds(
+                archived.stream().map(ArchivedBorrowRecord::getBookId).distinct().toList()).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        archived.forEach(record -> records.add(record.toBorrowRecord(user, books.get(record.getBookId()))));
+        return records;
+    }
+    
     public List<BorrowRecord> getAllBorrowRecords() {
-        return borrowRepository.findAll();
+        return borrowRepository.findByBranchId(TenantContext.getBranchId());
     }
     
     public List<BorrowRecord> getActiveBorrows() {
-        return borrowRepository.findByStatus("BORROWED");
+        return borrowRepository.findByBranchIdAndStatus(TenantContext.getBranchId(), BorrowStatus.BORROWED);
     }
     
-    @Transactional
+    /**
+     * Nightly sweep. Each loan is marked in its own short transaction under
+     * its row lock and must still be BORROWED, so a return made while the
+     * sweep runs is never overwritten.
+     */
+    @Scheduled(cron = "${library.overdue.cron:0 0 1 * * *}")
     public void updateOverdueRecords() {
-        List<BorrowRecord> activeRecords = borrowRepository.findByStatus("BORROWED");
         LocalDate today = LocalDate.now();
+        for (Long id : borrowRepository.findIdsByStatusAndReturnDeadlineBefore(BorrowStatus.BORROWED, today)) {
+            transactionTemplate.executeWithoutResult(tx -> markOverdue(id));
+        }
         
-        for (BorrowRecord record : activeRecords) {
-            if (today.isAfter(record.getReturnDeadline())) {
-                record.setStatus("OVERDUE");
+        // Charge every overdue loan for the days since its last accrual
+        fineService.accrueOverdue(today);
+    }
+    
+    private void markOverdue(Long borrowRecordId) {
+        borrowRepository.findByIdForUpdate(borrowRecordId)
+            .filter(record -> record.getStatus() == BorrowStatus.BORROWED)
+            .ifPresent(record -> {
+                Map<String, Object> before = AuditService.snapshot(record);
+                record.setStatus(BorrowStatus.OVERDUE);
                 borrowRepository.save(record);
-            }
-        }
+                notificationService.loanStatusChanged(record);
+                auditService.record("LOAN_OVERDUE", AuditService.LOAN, record.getId(), before, AuditService.snapshot(record));
+            });
     }
 }
\ No newline at end of file
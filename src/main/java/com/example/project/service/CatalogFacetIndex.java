@@ -0,0 +1,264 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.repository.BookRepository;
+import com.example.project.repository.BranchHoldingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over genre, author and availability, keyed by book id.
+ *
+ * Filtering is an AND across facets of the OR of the selected values, and
+ * the count shown next to each value is the cardinality of its bitmap
+ * intersected with the other facets' filters, so counts never need SQL
+ * aggregation. BookService updates the bitmaps once every book and
+ * availability change commits, which covers borrows, returns and hold
+ * releases.
+ *
+ * A bitmap per branch holds the titles it stocks. Every query starts from
+ * the branch's bitmap, and search and suggestions filter through it too.
+ * A second bitmap per branch holds the titles it has a copy of on the shelf,
+ * so "available" in a branch means on its shelf and not withheld, rather
+ * than on some other branch's shelf.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogFacetIndex {
+    
+    private final BookRepository bookRepository;
+    private final BranchHoldingRepository branchHoldingRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet allBooks = new BitSet();
+    private final BitSet availableBooks = new BitSet();
+    private final Map<String, BitSet> byGenre = new HashMap<>();
+    private final Map<String, BitSet> byAuthor = new HashMap<>();
+    private final Map<Integer, FacetValues> indexed = new HashMap<>();
+    private final Map<Long, BitSet> byBranch = new HashMap<>();
+    private final Map<Long, BitSet> onShelfByBranch = new HashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Book> books = bookRepository.findAll();
+        books.forEach(this::index);
+        branchHoldingRepository.findStockKeys().forEach(this::stock);
+        log.info("Built facet bitmaps for {} books", books.size());
+    }
+    
+    public void index(Book book) {
+        int bit = bitOf(book.getId());
+        lock.writeLock().lock();
+        try {
+            clear(bit);
+            indexed.put(bit, new FacetValues(book.getGenre(), book.getAuthor()));
+            
+            allBooks.set(bit);
+            availableBooks.set(bit, Boolean.TRUE.equals(book.getIsAvailable()));
+            byGenre.computeIfAbsent(book.getGenre(), key -> new BitSet()).set(bit);
+            byAuthor.computeIfAbsent(book.getAuthor(), key -> new BitSet()).set(bit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long bookId) {
+        int bit = bitOf(bookId);
+        lock.writeLock().lock();
+        try {
+            clear(bit);
+            byBranch.values().forEach(bits -> bits.clear(bit));
+            onShelfByBranch.values().forEach(bits -> bits.clear(bit));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Records that a branch stocks a title and whether it has a copy on the
+     * shelf. Holdings are never removed short of deleting the book.
+     */
+    public void stock(Long branchId, Long bookId, boolean onShelf) {
+        int bit = bitOf(bookId);
+        lock.writeLock().lock();
+        try {
+            byBranch.computeIfAbsent(branchId, key -> new BitSet()).set(bit);
+            onShelfByBranch.computeIfAbsent(branchId, key -> new BitSet()).set(bit, onShelf);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /** Stocks from a BranchHoldingRepository.findStockKeys row. */
+    public void stock(Object[] row) {
+        stock((Long) row[0], (Long) row[1], (Integer) row[2] > 0);
+    }
+    
+    /** Whether the index already records a findStockKeys row as it is. */
+    public boolean isStocked(Object[] row) {
+        int bit = bitOf((Long) row[1]);
+        lock.readLock().lock();
+        try {
+            BitSet stocked = byBranch.get((Long) row[0]);
+            BitSet onShelf = onShelfByBranch.get((Long) row[0]);
+            return stocked != null && stocked.get(bit)
+                && onShelf != null && onShelf.get(bit) == (Integer) row[2] > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public boolean stocks(Long branchId, Long bookId) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = byBranch.get(branchId);
+            return bits != null && bits.get(bitOf(bookId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** A snapshot of the ids of the titles a branch stocks, as bits. */
+    public BitSet booksInBranch(Long branchId) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = byBranch.get(branchId);
+            return bits != null ? (BitSet) bits.clone() : new BitSet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public FacetResult query(Long branchId, Collection<String> genres, Collection<String> authors, Boolean available,
+                             int facetLimit) {
+        lock.readLock().lock();
+        try {
+            BitSet stocked = intersect(allBooks, byBranch.getOrDefault(branchId, new BitSet()));
+            // isAvailable already folds in the withheld flag
+            BitSet availableHere = intersect(availableBooks, onShelfByBranch.getOrDefault(branchId, new BitSet()));
+            BitSet genreFilter = union(byGenre, genres);
+            BitSet authorFilter = union(byAuthor, authors);
+            BitSet availabilityFilter = available == null ? null : available ? availableHere : complement(availableHere);
+            
+            BitSet matches = intersect(stocked, genreFilter, authorFilter, availabilityFilter);
+            
+            // Each facet's counts ignore its own selection so users can widen it
+            Map<String, Integer> genreCounts = counts(byGenre, intersect(stocked, authorFilter, availabilityFilter), facetLimit);
+            Map<String, Integer> authorCounts = counts(byAuthor, intersect(stocked, genreFilter, availabilityFilter), facetLimit);
+            BitSet withoutAvailability = intersect(stocked, genreFilter, authorFilter);
+            int availableCount = intersectCount(withoutAvailability, availableHere);
+            
+            return new FacetResult(
+                matches.stream().mapToObj(bit -> (long) bit).toList(),
+                genreCounts,
+                authorCounts,
+                availableCount,
+                withoutAvailability.cardinality() - availableCount
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void clear(int bit) {
+        FacetValues previous = indexed.remove(bit);
+        if (previous == null) {
+            return;
+        }
+        allBooks.clear(bit);
+        availableBooks.clear(bit);
+        clearValue(byGenre, previous.genre(), bit);
+        clearValue(byAuthor, previous.author(), bit);
+    }
+    
+    private static void clearValue(Map<String, BitSet> facet, String value, int bit) {
+        BitSet bits = facet.get(value);
+        if (bits != null) {
+            bits.clear(bit);
+            if (bits.isEmpty()) {
+                facet.remove(value);
+            }
+        }
+    }
+    
+    private static BitSet union(Map<String, BitSet> facet, Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (String value : values) {
+            BitSet bits = facet.get(value);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+    
+    private BitSet complement(BitSet bits) {
+        BitSet result = (BitSet) allBooks.clone();
+        result.andNot(bits);
+        return result;
+    }
+    
+    private static BitSet intersect(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+    
+    private static int intersectCount(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result.cardinality();
+    }
+    
+    private static Map<String, Integer> counts(Map<String, BitSet> facet, BitSet filter, int limit) {
+        Map<String, Integer> counts = new HashMap<>();
+        facet.forEach((value, bits) -> {
+            int count = intersectCount(bits, filter);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        Map<String, Integer> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+    
+    private static int bitOf(Long bookId) {
+        return Math.toIntExact(bookId);
+    }
+    
+    private record FacetValues(String genre, String author) {
+    }
+    
+    public record FacetResult(List<Long> bookIds,
+                              Map<String, Integer> genreCounts,
+                              Map<String, Integer> authorCounts,
+                              int availableCount,
+                              int unavailableCount) {
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory title/author index for autocomplete and typo-tolerant search.
+ *
+ * Prefix lookups use a sorted map keyed by every word-suffix of a title or
+ * author ("clean code" is stored as "clean code" and "code"), so typing the
+ * start of any word finds the book with one range scan. Fuzzy lookups use
+ * a trigram index to find candidates and a bounded edit distance to verify
+ * them. BookService keeps the index in step with every mutation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSearchIndex {
+    
+    private final BookRepository bookRepository;
+    
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<Long>> prefixIndex = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> trigramIndex = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        bookRepository.findAll().forEach(this::index);
+        log.info("Indexed {} books for search in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+    
+    public synchronized void index(Book book) {
+        remove(book.getId());
+        Entry entry = Entry.of(book);
+        entries.put(entry.id(), entry);
+        for (String key : entry.prefixKeys()) {
+            prefixIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+        for (String trigram : entry.trigrams()) {
+            trigramIndex.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+    }
+    
+    public synchronized void remove(Long bookId) {
+        Entry entry = entries.remove(bookId);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.prefixKeys()) {
+            removeId(prefixIndex, key, bookId);
+        }
+        for (String trigram : entry.trigrams()) {
+            removeId(trigramIndex, trigram, bookId);
+        }
+    }
+    
+    /**
+     * Books whose title or author has a word starting with the query,
+     * in alphabetical order of the matched text.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        return suggest(query, limit, id -> true);
+    }
+    
+    /** As {@link #suggest(String, int)}, limited to books the filter accepts. */
+    public List<Suggestion> suggest(String query, int limit, Predicate<Long> include) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Set<Long> matches : prefixIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            matches.stream().filter(include).forEach(ids::add);
+            if (ids.size() >= limit) {
+                break;
+            }
+        }
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                suggestions.add(new Suggestion(id, entry.title(), entry.author()));
+            }
+            if (suggestions.size() == limit) {
+                break;
+            }
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Ids of books where every query word is within a small edit distance
+     * of some title or author word, best matches first.
+     */
+    public List<Long> fuzzySearch(String query, int limit) {
+        return fuzzySearch(query, limit, id -> true);
+    }
+    
+    /** As {@link #fuzzySearch(String, int)}, limited to books the filter accepts. */
+    public List<Long> fuzzySearch(String query, int limit, Predicate<Long> include) {
+        List<String> queryWords = words(normalize(query));
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Integer> candidates = new HashMap<>();
+        for (String word : queryWords) {
+            for (String trigram : trigrams(word)) {
+                Set<Long> ids = trigramIndex.get(trigram);
+                if (ids != null) {
+                    ids.stream().filter(include).forEach(id -> candidates.merge(id, 1, Integer::sum));
+                }
+            }
+        }
+        
+        Map<Long, Integer> distances = new HashMap<>();
+        for (Long id : candidates.keySet()) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            int total = 0;
+            for (String queryWord : queryWords) {
+                int best = bestDistance(queryWord, entry.words());
+                if (best > maxDistance(queryWord)) {
+                    total = -1;
+                    break;
+                }
+                total += best;
+            }
+            if (total >= 0) {
+                distances.put(id, total);
+            }
+        }
+        
+        return distances.entrySet().stream()
+            .sorted(Map.Entry.<Long, Integer>comparingByValue()
+                .thenComparing(e -> -candidates.get(e.getKey())))
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private static int maxDistance(String word) {
+        return word.length() <= 3 ? 0 : word.length() <= 6 ? 1 : 2;
+    }
+    
+    private static int bestDistance(String queryWord, List<String> words) {
+        int best = Integer.MAX_VALUE;
+        int bound = maxDistance(queryWord);
+        for (String word : words) {
+            // Allow the query to be a typo'd prefix of a longer word
+            String target = word.length() > queryWord.length() + bound
+                ? word.substring(0, queryWord.length() + bound) : word;
+            best = Math.min(best, boundedLevenshtein(queryWord, target, bound));
+            if (best == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Edit distance counting insertions, deletions, substitutions and
+     * adjacent transpositions ("gatbsy" -> "gatsby" is 1). Gives up once a
+     * whole row exceeds the bound and returns bound + 1 in that case.
+     */
+    static int boundedLevenshtein(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+    
+    private static List<String> words(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+    
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+    
+    private static <K> void removeId(Map<K, Set<Long>> index, K key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    public record Suggestion(Long id, String title, String author) {
+    }
+    
+    /** Normalized forms are computed once at index time so lookups do no string work per candidate. */
+    private record Entry(Long id, String title, String author,
+                         List<String> words, Set<String> prefixKeys, Set<String> trigrams) {
+        
+        static Entry of(Book book) {
+            List<String> titleWords = CatalogSearchIndex.words(normalize(book.getTitle()));
+            List<String> authorWords = CatalogSearchIndex.words(normalize(book.getAuthor()));
+            
+            List<String> words = new ArrayList<>(titleWords);
+            words.addAll(authorWords);
+            
+            Set<String> prefixKeys = new LinkedHashSet<>();
+            for (List<String> fieldWords : List.of(titleWords, authorWords)) {
+                for (int i = 0; i < fieldWords.size(); i++) {
+                    prefixKeys.add(String.join(" ", fieldWords.subList(i, fieldWords.size())));
+                }
+            }
+            
+            Set<String> trigrams = new LinkedHashSet<>();
+            for (String word : words) {
+                trigrams.addAll(CatalogSearchIndex.trigrams(word));
+            }
+            return new Entry(book.getId(), book.getTitle(), book.getAuthor(), List.copyOf(words), prefixKeys, trigrams);
+        }
+    }
+}
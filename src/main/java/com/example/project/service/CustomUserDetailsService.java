@@ -2,6 +2,7 @@ package com.example.project.service;
 
 import com.example.project.entity.User;
 import com.example.project.repository.UserRepository;
+import com.example.project.security.LibraryUserDetails;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -27,10 +28,6 @@ public class CustomUserDetailsService implements UserDetailsService {
             .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
             .collect(Collectors.toSet());
         
-        return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getUsername())
-            .password(user.getPassword())
-            .authorities(authorities)
-            .build();
+        return new LibraryUserDetails(user.getId(), user.getUsername(), user.getPassword(), authorities);
     }
 }
\ No newline at end of file
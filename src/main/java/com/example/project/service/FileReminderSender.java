@@ -0,0 +1,54 @@
+package com.example.project.service;
+
+import com.example.project.entity.Reminder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Local stand-in for a mail relay: appends each batch to a daily mailbox
+ * file in RFC 822 style, one message after another. Used in development and
+ * tests; a real channel implements ReminderSender and sets
+ * library.reminders.sender to something else.
+ */
+@Component
+@ConditionalOnProperty(name = "library.reminders.sender", havingValue = "file", matchIfMissing = true)
+public class FileReminderSender implements ReminderSender {
+    
+    private final Path outboxDir;
+    
+    public FileReminderSender(@Value("${library.reminders.outbox-dir:./data/outbox}") String outboxDir) {
+        this.outboxDir = Paths.get(outboxDir);
+    }
+    
+    @Override
+    public synchronized Set<Long> send(List<Reminder> batch) throws IOException {
+        Files.createDirectories(outboxDir);
+        Path mailbox = outboxDir.resolve("reminders-" + LocalDate.now() + ".mbox");
+        
+        Set<Long> delivered = new HashSet<>();
+        try (Writer writer = Files.newBufferedWriter(mailbox, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Reminder reminder : batch) {
+                writer.write("Message-ID: <" + reminder.getIdempotencyKey() + "@library>\n");
+                writer.write("To: " + reminder.getRecipient() + "\n");
+                writer.write("Subject: " + reminder.getSubject() + "\n\n");
+                writer.write(reminder.getBody() + "\n\n");
+                delivered.add(reminder.getId());
+            }
+        }
+        return delivered;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.project.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Late-return rate rules: a flat daily rate after an optional grace period,
+ * capped per loan. Rates apply to the days being accrued, so changing the
+ * rate does not reprice days already on the ledger.
+ */
+@Component
+public class FinePolicy {
+    
+    private final BigDecimal dailyRate;
+    private final int graceDays;
+    private final BigDecimal maxPerLoan;
+    
+    public FinePolicy(@Value("${library.fines.daily-rate:0.25}") BigDecimal dailyRate,
+                      @Value("${library.fines.grace-days:0}") int graceDays,
+                      @Value("${library.fines.max-per-loan:10.00}") BigDecimal maxPerLoan) {
+        this.dailyRate = dailyRate;
+        this.graceDays = graceDays;
+        this.maxPerLoan = maxPerLoan;
+    }
+    
+    /** Days past the deadline (less the grace period) up to and including the given date. */
+    public int chargeableDays(LocalDate returnDeadline, LocalDate through) {
+        long late = ChronoUnit.DAYS.between(returnDeadline, through);
+        return (int) Math.max(0, late - graceDays);
+    }
+    
+    /** The fine after charging additional days on top of what is already owed. */
+    public BigDecimal accrue(BigDecimal current, int additionalDays) {
+        BigDecimal charged = current.add(dailyRate.multiply(BigDecimal.valueOf(additionalDays)));
+        return charged.min(maxPerLoan).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.project.service;
+
+import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.BorrowStatus;
+import com.example.project.entity.Fine;
+import com.example.project.entity.FineStatus;
+import com.example.project.entity.User;
+import com.example.project.repository.BorrowRepository;
+import com.example.project.repository.FineRepository;
+import com.example.project.repository.UserBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Late fines, kept as a ledger that is advanced incrementally. The overdue
+ * sweep charges each open late loan only for the days since it was last
+ * accrued, and the return charges the final days and closes the row. Every
+ * change to a fine is applied to the member's running balance in the same
+ * transaction, so reading what a member owes never touches loan history.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FineService {
+    
+    private final FineRepository fineRepository;
+    private final UserBalanceRepository userBalanceRepository;
+    private final BorrowRepository borrowRepository;
+    private final FinePolicy finePolicy;
+    private final TransactionTemplate transactionTemplate;
+    
+    private static final int ACCRUAL_PAGE = 500;
+    
+    /**
+     * Brings fines for all overdue loans up to date. Loans already accrued
+     * through the given date are skipped by the query. Candidates are read a
+     * page of ids at a time and each is accrued in its own transaction under
+     * the loan's row lock, the same lock a return takes, so a return racing
+     * the sweep is charged and counted in the balance once.
+     */
+    public int accrueOverdue(LocalDate asOf) {
+        int accrued = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = borrowRepository.findFineAccrualCandidateIds(BorrowStatus.OVERDUE, asOf, afterId,
+                PageRequest.of(0, ACCRUAL_PAGE));
+            for (Long id : ids) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(tx -> accrueLocked(id, asOf)))) {
+                    accrued++;
+                }
+            }
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == ACCRUAL_PAGE);
+        if (accrued > 0) {
+            log.info("Accrued fines for {} overdue loans", accrued);
+        }
+        return accrued;
+    }
+    
+    /**
+     * Charges the remaining days up to the return date and closes the fine.
+     * Returns null if the loan was returned within the grace period.
+     */
+    @Transactional
+    public Fine finalizeOnReturn(BorrowRecord record) {
+        Fine fine = accrue(record, record.getActualReturnDate());
+        if (fine != null) {
+            fine.setStatus(FineStatus.FINAL);
+            fine.setFinalizedAt(LocalDateTime.now());
+            fine = fineRepository.save(fine);
+        }
+        return fine;
+    }
+    
+    public BigDecimal getAmountOwed(String username) {
+        return userBalanceRepository.findOutstandingByUsername(username).orElse(BigDecimal.ZERO);
+    }
+    
+    public List<Fine> getOutstandingFines(User user) {
+        return fineRepository.findByUserIdAndStatusInOrderByCreatedAtDesc(user.getId(),
+            List.of(FineStatus.ACCRUING, FineStatus.FINAL));
+    }
+    
+    private boolean accrueLocked(Long borrowRecordId, LocalDate asOf) {
+        return borrowRepository.findByIdForUpdate(borrowRecordId)
+            .filter(record -> record.getStatus() == BorrowStatus.OVERDUE)
+            .map(record -> accrue(record, asOf) != null)
+            .orElse(false);
+    }
+    
+    private Fine accrue(BorrowRecord record, LocalDate through) {
+        Fine fine = fineRepository.findByBorrowRecordId(record.getId()).orElse(null);
+        int totalDays = finePolicy.chargeableDays(record.getReturnDeadline(), through);
+        if (fine == null) {
+            if (totalDays == 0) {
+                return null;
+            }
+            fine = new Fine(record);
+        } else if (fine.getStatus() != FineStatus.ACCRUING) {
+            return fine;
+        }
+        
+        BigDecimal before = fine.getAmount();
+        int newDays = Math.max(0, totalDays - fine.getDaysCharged());
+        BigDecimal after = finePolicy.accrue(before, newDays);
+        
+        fine.setDaysCharged(Math.max(totalDays, fine.getDaysCharged()));
+        fine.setAmount(after);
+        if (through.isAfter(fine.getAccruedThrough())) {
+            fine.setAccruedThrough(through);
+        }
+        fine = fineRepository.save(fine);
+        
+        BigDecimal delta = after.subtract(before);
+        if (delta.signum() != 0) {
+            userBalanceRepository.adjust(fine.getUserId(), delta, LocalDateTime.now());
+        }
+        return fine;
+    }
+}
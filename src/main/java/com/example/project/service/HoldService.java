@@ -0,0 +1,210 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.BookHold;
+import com.example.project.entity.CopyStatus;
+import com.example.project.entity.HoldStatus;
+import com.example.project.entity.User;
+import com.example.project.repository.HoldRepository;
+import com.example.project.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-branch, per-book FIFO hold queues, kept only in book_holds so every
+ * node sees the same queue. The queue head is locked in the database when a
+ * copy is allocated, and (branch_id, book_id, status, id) makes both that
+ * lookup and queue positions a single index probe. A copy returned to a
+ * branch only serves that branch's queue.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+    
+    private final HoldRepository holdRepository;
+    private final BookService bookService;
+    private final BookCopyService bookCopyService;
+    private final NotificationService notificationService;
+    
+    private static final int EXPIRY_BATCH = 500;
+    
+    @Value("${library.holds.pickup-days:3}")
+    private int pickupDays;
+    
+    @Transactional
+    public BookHold placeHold(User user, Book book) {
+        Long branchId = TenantContext.getBranchId();
+        if (book.getIsAvailable() && bookService.getAvailableInBranch(branchId, book.getId()) > 0) {
+            throw new RuntimeException("Book is available, borrow it directly");
+        }
+        if (holdRepository.existsByUserAndBookAndStatusIn(user, book, List.of(HoldStatus.WAITING, HoldStatus.READY))) {
+            throw new RuntimeException("You already have a hold on this book");
+        }
+        
+        return holdRepository.save(new BookHold(user, book, branchId));
+    }
+    
+    @Transactional
+    public void cancelHold(Long holdId, User user) {
+        BookHold hold = holdRepository.findById(holdId)
+            .orElseThrow(() -> new RuntimeException("Hold not found"));
+        if (!hold.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Hold not found");
+        }
+        
+        HoldStatus previous = hold.getStatus();
+        if (previous != HoldStatus.WAITING && previous != HoldStatus.READY) {
+            throw new RuntimeException("Hold is no longer active");
+        }
+        hold.setStatus(HoldStatus.CANCELLED);
+        holdRepository.save(hold);
+        
+        if (previous == HoldStatus.READY) {
+            releaseCopy(hold);
+        }
+    }
+    
+    /**
+     * Called when a copy comes back to a branch. Reserves it for the oldest
+     * WAITING hold at that branch and starts the pickup window. Returns false
+     * when nobody is waiting, in which case the caller shelves the copy.
+     */
+    @Transactional
+    public boolean allocateNext(BookCopy copy) {
+        Book book = copy.getBook();
+        List<BookHold> head = holdRepository.findQueueHeadForUpdate(copy.getBranchId(), book.getId(),
+            HoldStatus.WAITING, PageRequest.of(0, 1));
+        if (head.isEmpty()) {
+            return false;
+        }
+        
+        BookHold hold = head.get(0);
+        LocalDateTime now = LocalDateTime.now();
+        hold.setStatus(HoldStatus.READY);
+        hold.setCopy(copy);
+        hold.setReadyAt(now);
+        hold.setExpiresAt(now.plusDays(pickupDays));
+        holdRepository.save(hold);
+        bookCopyService.setStatus(copy, CopyStatus.ON_HOLD);
+        
+        afterCommit(() -> {
+            notificationService.notifyUser(hold.getUser().getUsername(), "hold-ready", Map.of(
+                "holdId", hold.getId(),
+                "bookId", book.getId(),
+                "title", book.getTitle(),
+                "expiresAt", hold.getExpiresAt().toString()
+            ));
+        });
+        return true;
+    }
+    
+    /**
+     * Marks the user's READY hold on this book at the current branch as
+     * picked up and returns the copy that was set aside, locked, or empty if
+     * nothing is being held for them here.
+     */
+    @Transactional
+    public Optional<BookCopy> claimReadyHold(User user, Book book) {
+        return holdRepository.findForPickup(user, book, TenantContext.getBranchId(), HoldStatus.READY)
+            .filter(hold -> hold.getStatus() == HoldStatus.READY)
+            .map(hold -> {
+                BookCopy copy = bookCopyService.lock(hold.getCopy().getId());
+                if (copy.getStatus() != CopyStatus.ON_HOLD) {
+                    throw new RuntimeException("Copy " + copy.getBarcode() + " is no longer on hold");
+                }
+                fulfil(hold);
+                return copy;
+            });
+    }
+    
+    /**
+     * Marks the READY hold on a scanned copy as picked up. The caller holds
+     * the copy's lock. Returns false if the copy is not being held for this
+     * user at the current branch.
+     */
+    @Transactional
+    public boolean claimReadyHold(User user, BookCopy copy) {
+        return holdRepository.findForPickup(copy, TenantContext.getBranchId(), HoldStatus.READY)
+            .filter(hold -> hold.getStatus() == HoldStatus.READY)
+            .filter(hold -> hold.getUser().getId().equals(user.getId()))
+            .map(hold -> {
+                fulfil(hold);
+                return true;
+            })
+            .orElse(false);
+    }
+    
+    public List<BookHold> getUserHolds(User user) {
+        return holdRepository.findByUserOrderByCreatedAtDesc(user);
+    }
+    
+    /**
+     * 1-based position of a WAITING hold in its book's queue, or 0 if it is
+     * not waiting.
+     */
+    public int queuePosition(BookHold hold) {
+        if (hold.getStatus() != HoldStatus.WAITING) {
+            return 0;
+        }
+        return (int) holdRepository.countByBranchIdAndBookIdAndStatusAndIdLessThan(hold.getBranchId(),
+            hold.getBook().getId(), HoldStatus.WAITING, hold.getId()) + 1;
+    }
+    
+    /**
+     * Releases holds that were not picked up in time. Runs on every node;
+     * each expired hold is locked by whichever node reaches it first.
+     */
+    @Scheduled(fixedDelayString = "${library.holds.expiry-check-ms:300000}")
+    @Transactional
+    public void expireReadyHolds() {
+        int total = 0;
+        List<BookHold> expired;
+        do {
+            expired = holdRepository.findExpiredForUpdate(LocalDateTime.now(), EXPIRY_BATCH);
+            for (BookHold hold : expired) {
+                hold.setStatus(HoldStatus.EXPIRED);
+                holdRepository.save(hold);
+                releaseCopy(hold);
+            }
+            total += expired.size();
+        } while (expired.size() == EXPIRY_BATCH);
+        if (total > 0) {
+            log.info("Expired {} uncollected holds", total);
+        }
+    }
+    
+    private void fulfil(BookHold hold) {
+        hold.setStatus(HoldStatus.FULFILLED);
+        holdRepository.save(hold);
+    }
+    
+    private void releaseCopy(BookHold hold) {
+        BookCopy copy = hold.getCopy();
+        if (copy != null && !allocateNext(copy)) {
+            bookService.returnCopy(copy);
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.project.service;
+
+import com.example.project.entity.IdempotencyRecord;
+import com.example.project.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deduplicates state-changing form POSTs by Idempotency-Key. The first
+ * request with a key claims it in the idempotency_keys table, runs, and
+ * stores its redirect and flash messages; a replay of the key gets the same
+ * redirect and messages back without running the action again.
+ *
+ * The action and the completion record commit in one transaction, so a
+ * key is never left claimed after its action took effect. A claim that
+ * never completes (the node died mid-request) is a lease: after
+ * library.idempotency.lease-seconds another request may take it over.
+ *
+ * Completed responses are also held in a bounded, expiring LRU map so the
+ * common case (a double-click moments later) is answered from memory.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, StoredResponse> recent;
+    
+    @Value("${library.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+    
+    // Must outlast the slowest action, or a retry can run it a second time
+    @Value("${library.idempotency.lease-seconds:120}")
+    private long leaseSeconds;
+    
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${library.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.recent = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+    
+    /**
+     * Runs the action once per (user, key). The action must put its outcome
+     * in the flash attributes and redirect to view. Without a key the action
+     * simply runs.
+     */
+    public String execute(String username, String key, String requestPath, String view,
+                          RedirectAttributes redirectAttributes, Runnable action) {
+        if (key == null || key.isBlank()) {
+            action.run();
+            return view;
+        }
+        String idempotencyKey = key.trim();
+        
+        StoredResponse stored = lookup(username, idempotencyKey);
+        if (stored != null) {
+            return replay(stored, requestPath, view, redirectAttributes);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+        if (idempotencyRepository.claim(username, idempotencyKey, requestPath, now, expiresAt) == 0
+                && idempotencyRepository.reclaim(username, idempotencyKey, requestPath, now, expiresAt,
+                    now.minusSeconds(leaseSeconds)) == 0) {
+            // Claimed by a concurrent request that may have just finished
+            stored = lookup(username, idempotencyKey);
+            if (stored != null) {
+                return replay(stored, requestPath, view, redirectAttributes);
+            }
+            redirectAttributes.addFlashAttribute("error", "This request is already being processed.");
+            return view;
+        }
+        
+        StoredResponse response;
+        try {
+            response = transactionTemplate.execute(tx -> {
+                action.run();
+                Map<String, String> flash = new LinkedHashMap<>();
+                redirectAttributes.getFlashAttributes().forEach((name, value) -> flash.put(name, String.valueOf(value)));
+                idempotencyRepository.complete(username, idempotencyKey, view, toJson(flash), LocalDateTime.now());
+                return new StoredResponse(requestPath, view, flash, expiresAt);
+            });
+        } catch (UnexpectedRollbackException e) {
+            // The action failed inside a transaction and reported it in the
+            // flash attributes; nothing was applied, so a retry may run it
+            idempotencyRepository.release(username, idempotencyKey);
+            return view;
+        } catch (RuntimeException e) {
+            idempotencyRepository.release(username, idempotencyKey);
+            throw e;
+        }
+        cache(username, idempotencyKey, response);
+        return view;
+    }
+    
+    @Scheduled(fixedDelayString = "${library.idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyRepository.deleteExpired(now);
+        synchronized (recent) {
+            recent.values().removeIf(response -> response.expiresAt().isBefore(now));
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+    
+    private String replay(StoredResponse stored, String requestPath, String view, RedirectAttributes redirectAttributes) {
+        if (!stored.requestPath().equals(requestPath)) {
+            redirectAttributes.addFlashAttribute("error", "This form was already used for a different request.");
+            return view;
+        }
+        stored.flashAttributes().forEach(redirectAttributes::addFlashAttribute);
+        return stored.view();
+    }
+    
+    private StoredResponse lookup(String username, String key) {
+        String cacheKey = username + ":" + key;
+        synchronized (recent) {
+            StoredResponse cached = recent.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return idempotencyRepository.findByUsernameAndIdempotencyKey(username, key)
+            .filter(record -> record.getCompletedAt() != null)
+            .map(record -> {
+                StoredResponse response = new StoredResponse(record.getRequestPath(), record.getResponseView(),
+                    fromJson(record.getFlashAttributes()), record.getExpiresAt());
+                cache(username, key, response);
+                return response;
+            })
+            .orElse(null);
+    }
+    
+    private void cache(String username, String key, StoredResponse response) {
+        synchronized (recent) {
+            recent.put(username + ":" + key, response);
+        }
+    }
+    
+    private String toJson(Map<String, String> flash) {
+        try {
+            return objectMapper.writeValueAsString(flash);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not store response", e);
+        }
+    }
+    
+    private Map<String, String> fromJson(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, String>>() { });
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable stored response: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+    
+    private record StoredResponse(String requestPath, String view, Map<String, String> flashAttributes,
+                                  LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.project.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node cache invalidation through the cache_invalidations table.
+ *
+ * A transaction that changes a cached entity publishes its (type, id); the
+ * rows are written in one multi-row INSERT just before the transaction
+ * commits, so they become visible exactly when the change does. Every node
+ * polls the table from its high-water mark in id order, skips its own rows
+ * and hands each subscriber the batch of ids changed elsewhere.
+ *
+ * Ids are allocated at insert but become visible at commit, so a poll can
+ * see id 12 before a slower transaction commits id 11. Skipped ids are kept
+ * as gaps and looked up again on later polls until they appear or time out
+ * (rolled-back inserts leave gaps that never fill).
+ */
+@Slf4j
+@Service
+public class InvalidationBus {
+    
+    /** Entity type codes stored in cache_invalidations.entity_type. */
+    public static final int BOOK = 1;
+    public static final int USER = 2;
+    
+    private static final String INSERT_PREFIX = "INSERT INTO cache_invalidations (entity_type, entity_id, origin, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, NOW(3))";
+    private static final String SELECT_COLUMNS = "SELECT id, entity_type, entity_id, origin FROM cache_invalidations ";
+    private static final int MAX_TRACKED_GAPS = 10_000;
+    private static final int GAP_LOOKUP_CHUNK = 500;
+    private static final int PRUNE_BATCH = 10_000;
+    
+    private static final RowMapper<Change> ROW_MAPPER = (rs, rowNum) ->
+        new Change(rs.getLong("id"), rs.getInt("entity_type"), rs.getLong("entity_id"), rs.getLong("origin"));
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final Map<Integer, List<Consumer<Set<Long>>>> subscribers = new ConcurrentHashMap<>();
+    
+    // Poller state, guarded by the poll() monitor
+    private final Map<Long, Long> gapsSince = new LinkedHashMap<>();
+    private long highWaterMark;
+    
+    private final LongAdder published = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder gapsFilled = new LongAdder();
+    private final LongAdder gapsExpired = new LongAdder();
+    
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           @Value("${library.cluster.poll-batch-size:1000}") int batchSize,
+                           @Value("${library.cluster.gap-timeout:60s}") Duration gapTimeout,
+                           @Value("${library.cluster.retention:1h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+    }
+    
+    /**
+     * Starts from the current end of the log: caches are built from the
+     * database after this, so nothing older can be missing from them.
+     */
+    @PostConstruct
+    public synchronized void init() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+        highWaterMark = maxId != null ? maxId : 0;
+    }
+    
+    /** Registers an evictor for changes to one entity type made on other nodes. */
+    public void subscribe(int entityType, Consumer<Set<Long>> evictor) {
+        subscribers.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(evictor);
+    }
+    
+    /**
+     * Announces a change to the other nodes. Inside a transaction the row is
+     * written with the transaction's other changes, once per entity.
+     */
+    @SuppressWarnings("unchecked")
+    public void publish(int entityType, Long entityId) {
+        Change change = new Change(0, entityType, entityId, nodeId);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(change));
+            return;
+        }
+        Set<Change> pending = (Set<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Change> changes = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(changes);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+    
+    /** Applies changes made on other nodes since the last poll. */
+    @Scheduled(fixedDelayString = "${library.cluster.poll-ms:1000}")
+    public synchronized void poll() {
+        recheckGaps();
+        List<Change> rows;
+        do {
+            rows = jdbcTemplate.query(SELECT_COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?",
+                ROW_MAPPER, highWaterMark, batchSize);
+            long now = System.currentTimeMillis();
+            long expected = highWaterMark + 1;
+            for (Change row : rows) {
+                for (long missing = expected; missing < row.id() && gapsSince.size() < MAX_TRACKED_GAPS; missing++) {
+                    gapsSince.put(missing, now);
+                }
+                expected = row.id() + 1;
+            }
+            if (!rows.isEmpty()) {
+                highWaterMark = rows.get(rows.size() - 1).id();
+            }
+            apply(rows);
+        } while (rows.size() == batchSize);
+    }
+    
+    /** Drops rows every node has had ample time to read. */
+    @Scheduled(cron = "${library.cluster.prune-cron:0 */10 * * * *}")
+    public void prune() {
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < NOW(3) - INTERVAL ? SECOND LIMIT ?",
+                retention.toSeconds(), PRUNE_BATCH);
+        } while (deleted == PRUNE_BATCH);
+    }
+    
+    public synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("nodeId", nodeId);
+        metrics.put("highWaterMark", highWaterMark);
+        metrics.put("openGaps", gapsSince.size());
+        metrics.put("published", published.sum());
+        metrics.put("applied", applied.sum());
+        metrics.put("gapsFilled", gapsFilled.sum());
+        metrics.put("gapsExpired", gapsExpired.sum());
+        return metrics;
+    }
+    
+    private void recheckGaps() {
+        if (gapsSince.isEmpty()) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - gapTimeout.toMillis();
+        Iterator<Map.Entry<Long, Long>> it = gapsSince.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() < expiredBefore) {
+                it.remove();
+                gapsExpired.increment();
+            }
+        }
+        
+        List<Long> ids = new ArrayList<>(gapsSince.keySet());
+        for (int from = 0; from < ids.size(); from += GAP_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + GAP_LOOKUP_CHUNK));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            List<Change> found = jdbcTemplate.query(SELECT_COLUMNS + "WHERE id IN (" + placeholders + ")",
+                ROW_MAPPER, chunk.toArray());
+            found.forEach(row -> gapsSince.remove(row.id()));
+            gapsFilled.add(found.size());
+            apply(found);
+        }
+    }
+    
+    private void apply(List<Change> rows) {
+        Map<Integer, Set<Long>> idsByType = new HashMap<>();
+        for (Change row : rows) {
+            if (row.origin() != nodeId) {
+                idsByType.computeIfAbsent(row.entityType(), type -> new LinkedHashSet<>()).add(row.entityId());
+            }
+        }
+        idsByType.forEach((type, ids) -> {
+            for (Consumer<Set<Long>> evictor : subscribers.getOrDefault(type, List.of())) {
+                try {
+                    evictor.accept(ids);
+                } catch (RuntimeException e) {
+                    log.error("Failed to apply {} invalidations of type {}", ids.size(), type, e);
+                }
+            }
+            applied.add(ids.size());
+        });
+    }
+    
+    private void insert(Collection<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + changes.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[changes.size() * 3];
+        int i = 0;
+        for (Change change : changes) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args[i++] = change.entityType();
+            args[i++] = change.entityId();
+            args[i++] = change.origin();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+        published.add(changes.size());
+    }
+    
+    /** A row of the log. Pending changes have id 0, so equal ones collapse in a set. */
+    record Change(long id, int entityType, long entityId, long origin) {
+    }
+}
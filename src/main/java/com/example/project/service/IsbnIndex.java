@@ -0,0 +1,164 @@
+package com.example.project.service;
+
+import com.example.project.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ISBN-13 -> book id map held as two primitive long arrays with linear
+ * probing, so a scanner lookup or a duplicate check on import is a hash
+ * probe with no boxing and no query. ISBN-13s are never 0, which marks an
+ * empty slot. BookService keeps it in step with every committed save and
+ * delete.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IsbnIndex {
+    
+    private static final long EMPTY = 0L;
+    
+    private final BookRepository bookRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] keys = new long[1024];
+    private long[] values = new long[1024];
+    private int size;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = bookRepository.findIsbnKeys();
+        lock.writeLock().lock();
+        try {
+            int capacity = Integer.highestOneBit(Math.max(1024, rows.size() * 2) - 1) << 1;
+            keys = new long[capacity];
+            values = new long[capacity];
+            size = 0;
+            for (Object[] row : rows) {
+                insert(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} ISBNs", rows.size());
+    }
+    
+    /** The id of the book with this ISBN-13, or 0 if there is none. */
+    public long find(long isbn13) {
+        lock.readLock().lock();
+        try {
+            int slot = slot(isbn13);
+            return keys[slot] == isbn13 ? values[slot] : 0L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public void put(long isbn13, long bookId) {
+        lock.writeLock().lock();
+        try {
+            insert(isbn13, bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(long isbn13) {
+        lock.writeLock().lock();
+        try {
+            delete(isbn13);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Drops the entries of deleted books, whose ISBNs are no longer known.
+     * One pass over the table, so callers batch the ids.
+     */
+    public void removeBooks(Collection<Long> bookIds) {
+        lock.writeLock().lock();
+        try {
+            List<Long> stale = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY && bookIds.contains(values[i])) {
+                    stale.add(keys[i]);
+                }
+            }
+            stale.forEach(this::delete);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void delete(long isbn13) {
+        int slot = slot(isbn13);
+        if (keys[slot] != isbn13) {
+            return;
+        }
+        keys[slot] = EMPTY;
+        size--;
+        // Re-insert the rest of the probe run so later lookups do not stop at the gap
+        int mask = keys.length - 1;
+        for (int next = (slot + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            long key = keys[next];
+            long value = values[next];
+            keys[next] = EMPTY;
+            size--;
+            insert(key, value);
+        }
+    }
+    
+    private void insert(long isbn13, long bookId) {
+        int slot = slot(isbn13);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = isbn13;
+            size++;
+        }
+        values[slot] = bookId;
+        if (size * 4 > keys.length * 3) {
+            grow();
+        }
+    }
+    
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+    
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BorrowRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent event hub for live pages. Clients subscribe to their own loan
+ * and hold events plus availability of the books they are looking at: a
+ * short list of ids, or every title their branch stocks for pages that list
+ * the whole branch.
+ *
+ * Publishing never blocks the caller: events are offered to a small bounded
+ * buffer per connection (oldest dropped when full) and a shared drain pool
+ * writes them out. Idle connections cost one subscriber object and no thread.
+ */
+@Slf4j
+@Service
+public class NotificationService {
+    
+    private final Map<String, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> subscribersByBook = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> subscribersByBranch = new ConcurrentHashMap<>();
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final ExecutorService drainExecutor;
+    
+    @Value("${library.events.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+    
+    @Value("${library.events.buffer-size:32}")
+    private int bufferSize;
+    
+    @Value("${library.events.max-watched-books:100}")
+    private int maxWatchedBooks;
+    
+    public NotificationService(CatalogFacetIndex catalogFacetIndex,
+                               @Value("${library.events.drain-threads:2}") int drainThreads) {
+        this.catalogFacetIndex = catalogFacetIndex;
+        this.drainExecutor = Executors.newFixedThreadPool(drainThreads);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdownNow();
+    }
+    
+    /** Watches at most library.events.max-watched-books titles by id. */
+    public SseEmitter subscribe(String username, Collection<Long> watchedBookIds) {
+        if (watchedBookIds.size() > maxWatchedBooks) {
+            throw new RuntimeException("Cannot watch more than " + maxWatchedBooks + " books");
+        }
+        return register(new Subscriber(new SseEmitter(emitterTimeoutMs), username, null,
+            Set.copyOf(watchedBookIds), bufferSize));
+    }
+    
+    /** Watches every title the branch stocks, however many it lists. */
+    public SseEmitter subscribeToBranch(String username, Long branchId) {
+        return register(new Subscriber(new SseEmitter(emitterTimeoutMs), username, branchId, Set.of(), bufferSize));
+    }
+    
+    private SseEmitter register(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter;
+        subscribersByUser.computeIfAbsent(subscriber.username, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        for (Long bookId : subscriber.watchedBookIds) {
+            subscribersByBook.computeIfAbsent(bookId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        if (subscriber.branchId != null) {
+            subscribersByBranch.computeIfAbsent(subscriber.branchId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+    
+    public void notifyUser(String username, String eventName, Object data) {
+        publish(subscribersByUser.get(username), eventName, data);
+    }
+    
+    public void bookAvailabilityChanged(Book book) {
+        Long bookId = book.getId();
+        boolean available = Boolean.TRUE.equals(book.getIsAvailable());
+        afterCommit(() -> {
+            Map<String, Object> data = Map.of("bookId", bookId, "available", available);
+            publish(subscribersByBook.get(bookId), "availability", data);
+            subscribersByBranch.forEach((branchId, subscribers) -> {
+                if (catalogFacetIndex.stocks(branchId, bookId)) {
+                    publish(subscribers, "availability", data);
+                }
+            });
+        });
+    }
+    
+    public void loanStatusChanged(BorrowRecord record) {
+        String username = record.getUser().getUsername();
+        Map<String, Object> data = Map.of(
+            "recordId", record.getId(),
+            "bookId", record.getBook().getId(),
+            "status", record.getStatus().name()
+        );
+        afterCommit(() -> notifyUser(username, "loan-status", data));
+    }
+    
+    /**
+     * Comment-only heartbeat so proxies keep idle streams open and dead
+     * connections are detected and removed.
+     */
+    @Scheduled(fixedDelayString = "${library.events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            subscriber.offer(SseEmitter.event().comment("ping"));
+            scheduleDrain(subscriber);
+        }));
+    }
+    
+    public int getConnectionCount() {
+        return subscribersByUser.values().stream().mapToInt(Set::size).sum();
+    }
+    
+    private void publish(Set<Subscriber> subscribers, String eventName, Object data) {
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().name(eventName).data(data));
+            scheduleDrain(subscriber);
+        }
+    }
+    
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            drainExecutor.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping SSE connection for {}: {}", subscriber.username, e.getMessage());
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have arrived between the last poll and releasing the flag
+        if (!subscriber.buffer.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+    
+    private void unsubscribe(Subscriber subscriber) {
+        removeFrom(subscribersByUser, subscriber.username, subscriber);
+        for (Long bookId : subscriber.watchedBookIds) {
+            removeFrom(subscribersByBook, bookId, subscriber);
+        }
+        if (subscriber.branchId != null) {
+            removeFrom(subscribersByBranch, subscriber.branchId, subscriber);
+        }
+        subscriber.buffer.clear();
+    }
+    
+    private static <K> void removeFrom(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final String username;
+        private final Long branchId;
+        private final Set<Long> watchedBookIds;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        
+        private Subscriber(SseEmitter emitter, String username, Long branchId, Set<Long> watchedBookIds,
+                           int bufferSize) {
+            this.emitter = emitter;
+            this.username = username;
+            this.branchId = branchId;
+            this.watchedBookIds = watchedBookIds;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+        
+        /** Adds an event, discarding the oldest one if a slow client has filled its buffer. */
+        private void offer(SseEmitter.SseEventBuilder event) {
+            while (!buffer.offer(event)) {
+                buffer.poll();
+            }
+        }
+    }
+}
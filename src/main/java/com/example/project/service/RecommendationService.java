@@ -0,0 +1,317 @@
+package com.example.project.service;
+
+import com.example.project.repository.BorrowRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * "Members who borrowed this also borrowed" from a sparse book x book
+ * co-occurrence matrix held in memory.
+ *
+ * Each row is a primitive int -> int counter keyed by book id, and each
+ * member's set of borrowed books is kept the same way, so the matrix never
+ * touches the entity graph. A borrow of a book the member has not had before
+ * increments the pair count against every book already in their history.
+ * Rows that changed are marked dirty and their top-K is recomputed by a
+ * background job; lookups only read the published top-K arrays.
+ */
+@Slf4j
+@Service
+public class RecommendationService {
+    
+    private final BorrowRepository borrowRepository;
+    
+    private final Map<Integer, IntCounter> matrix = new ConcurrentHashMap<>();
+    private final Map<Long, IntCounter> historyByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> topK = new ConcurrentHashMap<>();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    
+    private final int k;
+    private final int maxHistory;
+    private final int bootstrapThreads;
+    
+    public RecommendationService(BorrowRepository borrowRepository,
+                                 @Value("${library.recommendations.top-k:20}") int k,
+                                 @Value("${library.recommendations.max-history:200}") int maxHistory,
+                                 @Value("${library.recommendations.bootstrap-threads:4}") int bootstrapThreads) {
+        this.borrowRepository = borrowRepository;
+        this.k = k;
+        this.maxHistory = maxHistory;
+        this.bootstrapThreads = bootstrapThreads;
+    }
+    
+    /**
+     * Loads every member's borrowing history in user id slices, one slice per
+     * thread, then computes all top-K rows.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() throws Exception {
+        long start = System.currentTimeMillis();
+        long maxUserId = borrowRepository.findMaxUserId();
+        long sliceSize = Math.max(1, (maxUserId + bootstrapThreads - 1) / bootstrapThreads);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(bootstrapThreads);
+        try {
+            List<Future<Integer>> slices = new ArrayList<>();
+            for (long from = 1; from <= maxUserId; from += sliceSize) {
+                long sliceFrom = from;
+                long sliceTo = Math.min(maxUserId, from + sliceSize - 1);
+                slices.add(pool.submit(() -> loadSlice(sliceFrom, sliceTo)));
+            }
+            int pairs = 0;
+            for (Future<Integer> slice : slices) {
+                pairs += slice.get();
+            }
+            refreshTopK();
+            log.info("Built co-occurrence matrix for {} books from {} loans in {} ms",
+                matrix.size(), pairs, System.currentTimeMillis() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private int loadSlice(long fromUserId, long toUserId) {
+        Map<Long, List<Integer>> booksByUser = new HashMap<>();
+        List<Object[]> pairs = borrowRepository.findUserBookPairs(fromUserId, toUserId);
+        for (Object[] pair : pairs) {
+            booksByUser.computeIfAbsent(((Number) pair[0]).longValue(), key -> new ArrayList<>())
+                .add(((Number) pair[1]).intValue());
+        }
+        booksByUser.forEach((userId, books) -> books.forEach(bookId -> record(userId, bookId)));
+        return pairs.size();
+    }
+    
+    /** Called for every new loan; applied once the loan has committed. */
+    public void recordBorrow(Long userId, Long bookId) {
+        Runnable update = () -> record(userId, Math.toIntExact(bookId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(update);
+        } else {
+            update.run();
+        }
+    }
+    
+    private void record(Long userId, int bookId) {
+        IntCounter history = historyByUser.computeIfAbsent(userId, key -> new IntCounter(8));
+        int[] others;
+        synchronized (history) {
+            if (history.increment(bookId, 1) > 1 || history.size() > maxHistory) {
+                return;
+            }
+            others = history.keys();
+        }
+        
+        IntCounter row = matrix.computeIfAbsent(bookId, key -> new IntCounter(8));
+        for (int other : others) {
+            if (other == bookId) {
+                continue;
+            }
+            synchronized (row) {
+                row.increment(other, 1);
+            }
+            IntCounter otherRow = matrix.computeIfAbsent(other, key -> new IntCounter(8));
+            synchronized (otherRow) {
+                otherRow.increment(bookId, 1);
+            }
+            dirty.add(other);
+        }
+        dirty.add(bookId);
+    }
+    
+    @Scheduled(fixedDelayString = "${library.recommendations.refresh-ms:30000}")
+    public void refreshTopK() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Integer> rows = new ArrayList<>(dirty);
+        dirty.removeAll(rows);
+        for (int bookId : rows) {
+            IntCounter row = matrix.get(bookId);
+            if (row == null) {
+                topK.remove(bookId);
+                continue;
+            }
+            int[] keys;
+            int[] counts;
+            synchronized (row) {
+                keys = row.keys();
+                counts = new int[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    counts[i] = row.get(keys[i]);
+                }
+            }
+            topK.put(bookId, top(keys, counts, k));
+        }
+    }
+    
+    /** Book ids most often borrowed by members who borrowed the given book. */
+    public List<Long> getAlsoBorrowed(Long bookId, int limit) {
+        int[] top = topK.get(Math.toIntExact(bookId));
+        if (top == null) {
+            return List.of();
+        }
+        return Arrays.stream(top).limit(limit).mapToObj(id -> (long) id).toList();
+    }
+    
+    /**
+     * Recommendations for a member: the top-K lists of the books they have
+     * borrowed, merged by rank, excluding what they already had.
+     */
+    public List<Long> getForUser(Long userId, int limit) {
+        IntCounter history = historyByUser.get(userId);
+        if (history == null) {
+            return List.of();
+        }
+        int[] borrowed;
+        synchronized (history) {
+            borrowed = history.keys();
+        }
+        Set<Integer> seen = Arrays.stream(borrowed).boxed().collect(Collectors.toSet());
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int bookId : borrowed) {
+            int[] top = topK.get(bookId);
+            if (top == null) {
+                continue;
+            }
+            for (int rank = 0; rank < top.length; rank++) {
+                if (!seen.contains(top[rank])) {
+                    scores.merge(top[rank], top.length - rank, Integer::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+            .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .map(entry -> (long) entry.getKey())
+            .toList();
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("books", matrix.size());
+        metrics.put("members", historyByUser.size());
+        metrics.put("rowsWithTopK", topK.size());
+        metrics.put("dirtyRows", dirty.size());
+        return metrics;
+    }
+    
+    /** Keys of the k largest counts, ties broken by the lower book id. */
+    static int[] top(int[] keys, int[] counts, int k) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b]
+            ? Integer.compare(counts[b], counts[a])
+            : Integer.compare(keys[a], keys[b]));
+        int[] result = new int[Math.min(k, keys.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = keys[order[i]];
+        }
+        return result;
+    }
+    
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * Open-addressing int -> int map with linear probing. Book ids are
+     * positive, so 0 marks an empty slot. Not thread-safe; callers lock it.
+     */
+    static final class IntCounter {
+        private int[] keys;
+        private int[] values;
+        private int size;
+        
+        IntCounter(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2) - 1) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+        }
+        
+        int increment(int key, int delta) {
+            int slot = slot(keys, key);
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+                values[slot] = delta;
+                if (size * 4 > keys.length * 3) {
+                    grow();
+                }
+                return delta;
+            }
+            values[slot] += delta;
+            return values[slot];
+        }
+        
+        int get(int key) {
+            int slot = slot(keys, key);
+            return keys[slot] == 0 ? 0 : values[slot];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        int[] keys() {
+            int[] result = new int[size];
+            int n = 0;
+            for (int key : keys) {
+                if (key != 0) {
+                    result[n++] = key;
+                }
+            }
+            return result;
+        }
+        
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+        
+        private static int slot(int[] keys, int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
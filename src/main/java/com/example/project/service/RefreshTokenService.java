@@ -0,0 +1,170 @@
+package com.example.project.service;
+
+import com.example.project.entity.RefreshToken;
+import com.example.project.entity.User;
+import com.example.project.repository.RefreshTokenRepository;
+import com.example.project.repository.RevokedTokenRepository;
+import com.example.project.repository.UserRepository;
+import com.example.project.security.JwtTokenProvider;
+import com.example.project.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues access/refresh token pairs and rotates refresh tokens.
+ *
+ * Refresh tokens are random and only their SHA-256 hash is stored. Each
+ * refresh marks the presented token rotated and issues a new one in the
+ * same family; presenting a rotated or revoked token again revokes the
+ * whole family together with the access tokens it issued.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationList revocationList;
+    
+    @Value("${jwt.refresh-expiration:1209600000}")  // 14 days in milliseconds
+    private long refreshExpirationMs;
+    
+    @Transactional
+    public TokenPair issue(User user, Long branchId) {
+        return issue(user.getId(), user.getUsername(), branchId, UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Exchanges a refresh token for a new pair. Empty if the token is unknown,
+     * expired or has been used before.
+     */
+    @Transactional
+    public Optional<TokenPair> refresh(String rawToken) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken token = found.get();
+        if (token.getRotatedAt() != null || token.getRevokedAt() != null) {
+            log.warn("Refresh token reuse for user {}; revoking family {}", token.getUserId(), token.getFamilyId());
+            revokeFamily(token.getFamilyId(), now);
+            return Optional.empty();
+        }
+        if (!token.isUsable(now)) {
+            return Optional.empty();
+        }
+        
+        token.setRotatedAt(now);
+        return userRepository.findById(token.getUserId())
+            .map(user -> issue(user.getId(), user.getUsername(), token.getBranchId(), token.getFamilyId()));
+    }
+    
+    /** Revokes the presented access token and, if given, the refresh token's family. */
+    @Transactional
+    public void logout(String accessToken, String rawRefreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        if (accessToken != null) {
+            Claims claims = tokenProvider.parseClaims(accessToken);
+            if (claims != null && claims.getId() != null) {
+                revokeAccessToken(claims.getId(), toLocal(claims.getExpiration().toInstant()), now);
+            }
+        }
+        if (rawRefreshToken != null && !rawRefreshToken.isBlank()) {
+            refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId(), now));
+        }
+    }
+    
+    @Scheduled(cron = "${jwt.purge-cron:0 15 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int refreshTokens = refreshTokenRepository.deleteExpired(now);
+        int revoked = revokedTokenRepository.deleteExpired(now);
+        log.info("Purged {} expired refresh tokens and {} expired revocations", refreshTokens, revoked);
+    }
+    
+    private TokenPair issue(Long userId, String username, Long branchId, String familyId) {
+        Instant issuedAt = Instant.now();
+        String jti = UUID.randomUUID().toString();
+        String accessToken = tokenProvider.generateAccessToken(username, branchId, jti, issuedAt);
+        
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(refreshToken));
+        token.setFamilyId(familyId);
+        token.setUserId(userId);
+        token.setBranchId(branchId);
+        token.setAccessJti(jti);
+        token.setAccessExpiresAt(toLocal(tokenProvider.getAccessTokenExpiry(issuedAt)));
+        token.setIssuedAt(toLocal(issuedAt));
+        token.setExpiresAt(toLocal(issuedAt.plusMillis(refreshExpirationMs)));
+        refreshTokenRepository.save(token);
+        
+        return new TokenPair(accessToken, refreshToken, tokenProvider.getAccessTokenValiditySeconds());
+    }
+    
+    private void revokeFamily(String familyId, LocalDateTime now) {
+        refreshTokenRepository.revokeFamily(familyId, now);
+        refreshTokenRepository.findByFamilyIdAndAccessExpiresAtAfter(familyId, now)
+            .forEach(token -> revokeAccessToken(token.getAccessJti(), token.getAccessExpiresAt(), now));
+    }
+    
+    private void revokeAccessToken(String jti, LocalDateTime expiresAt, LocalDateTime now) {
+        revokedTokenRepository.revoke(jti, expiresAt, now);
+        afterCommit(() -> revocationList.add(jti, expiresAt));
+    }
+    
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+    
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    public record TokenPair(String accessToken, String refreshToken, long expiresIn) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.project.service;
+
+import com.example.project.entity.Reminder;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delivery channel for loan reminders. Implementations receive a whole batch
+ * and report which reminders were accepted; the rest are retried. Delivery is
+ * at-least-once, so each reminder carries its idempotency key for the channel
+ * to deduplicate on (for mail, as the Message-ID).
+ */
+public interface ReminderSender {
+    
+    Set<Long> send(List<Reminder> batch) throws Exception;
+}
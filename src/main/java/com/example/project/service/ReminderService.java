@@ -0,0 +1,267 @@
+package com.example.project.service;
+
+import com.example.project.entity.BorrowStatus;
+import com.example.project.entity.Reminder;
+import com.example.project.entity.ReminderKind;
+import com.example.project.entity.ReminderStatus;
+import com.example.project.repository.BorrowRepository;
+import com.example.project.repository.BorrowRepository.ReminderCandidate;
+import com.example.project.repository.ReminderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Due-soon and overdue reminders, delivered asynchronously through a
+ * persistent outbox (the reminders table).
+ *
+ * A daily scan reads loans in each deadline window with plain non-locking
+ * reads and enqueues one reminder per loan and deadline; the idempotency key
+ * makes re-running a scan harmless. A dispatcher claims due reminders in
+ * short transactions and hands each batch to a worker pool, which delivers
+ * it through the configured ReminderSender with no transaction open. Failed
+ * reminders are retried with exponential backoff until max-attempts.
+ */
+@Slf4j
+@Service
+public class ReminderService {
+    
+    private static final DateTimeFormatter DEADLINE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+    
+    private final BorrowRepository borrowRepository;
+    private final ReminderRepository reminderRepository;
+    private final ReminderSender reminderSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final AtomicInteger batchesInFlight = new AtomicInteger();
+    
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong deliveryNanos = new AtomicLong();
+    private final long startedAt = System.currentTimeMillis();
+    
+    @Value("${library.reminders.due-soon-days:3}")
+    private int dueSoonDays;
+    
+    @Value("${library.reminders.overdue-lookback-days:30}")
+    private int overdueLookbackDays;
+    
+    @Value("${library.reminders.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${library.reminders.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${library.reminders.retry-backoff-ms:60000}")
+    private long retryBackoffMs;
+    
+    @Value("${library.reminders.lease-ms:300000}")
+    private long leaseMs;
+    
+    public ReminderService(BorrowRepository borrowRepository,
+                           ReminderRepository reminderRepository,
+                           ReminderSender reminderSender,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${library.reminders.workers:2}") int workerCount) {
+        this.borrowRepository = borrowRepository;
+        this.reminderRepository = reminderRepository;
+        this.reminderSender = reminderSender;
+        this.transactionTemplate = transactionTemplate;
+        this.workerCount = workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+    
+    // ================== Scan ==================
+    
+    @Scheduled(cron = "${library.reminders.scan-cron:0 0 7 * * *}")
+    public void scanScheduled() {
+        int queued = scanAndEnqueue();
+        if (queued > 0) {
+            log.info("Queued {} loan reminders", queued);
+        }
+    }
+    
+    public int scanAndEnqueue() {
+        LocalDate today = LocalDate.now();
+        int queued = enqueueWindow(ReminderKind.DUE_SOON, BorrowStatus.BORROWED, today, today.plusDays(dueSoonDays));
+        // Loans past their deadline, whether or not the overdue sweep has run yet
+        LocalDate overdueFrom = today.minusDays(overdueLookbackDays);
+        queued += enqueueWindow(ReminderKind.OVERDUE, BorrowStatus.BORROWED, overdueFrom, today.minusDays(1));
+        queued += enqueueWindow(ReminderKind.OVERDUE, BorrowStatus.OVERDUE, overdueFrom, today.minusDays(1));
+        return queued;
+    }
+    
+    private int enqueueWindow(ReminderKind kind, BorrowStatus status, LocalDate from, LocalDate to) {
+        int queued = 0;
+        long afterId = 0;
+        List<ReminderCandidate> page;
+        do {
+            page = borrowRepository.findReminderCandidates(status, from, to, afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<ReminderCandidate> candidates = page;
+            queued += transactionTemplate.execute(tx -> enqueueAll(kind, candidates));
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == batchSize);
+        return queued;
+    }
+    
+    private int enqueueAll(ReminderKind kind, List<ReminderCandidate> candidates) {
+        LocalDateTime now = LocalDateTime.now();
+        int queued = 0;
+        for (ReminderCandidate loan : candidates) {
+            String key = kind + ":" + loan.getId() + ":" + loan.getReturnDeadline();
+            queued += reminderRepository.enqueue(key, kind.name(), loan.getId(), loan.getEmail(),
+                subjectFor(kind, loan), bodyFor(kind, loan), now);
+        }
+        enqueued.addAndGet(queued);
+        return queued;
+    }
+    
+    private String subjectFor(ReminderKind kind, ReminderCandidate loan) {
+        return kind == ReminderKind.DUE_SOON
+            ? "Reminder: \"" + loan.getTitle() + "\" is due " + loan.getReturnDeadline().format(DEADLINE_FORMAT)
+            : "Overdue: \"" + loan.getTitle() + "\" was due " + loan.getReturnDeadline().format(DEADLINE_FORMAT);
+    }
+    
+    private String bodyFor(ReminderKind kind, ReminderCandidate loan) {
+        String deadline = loan.getReturnDeadline().format(DEADLINE_FORMAT);
+        return kind == ReminderKind.DUE_SOON
+            ? "Dear " + loan.getFullName() + ",\n\n\"" + loan.getTitle() + "\" is due back on " + deadline +
+              ". Please return it to the library by then.\n"
+            : "Dear " + loan.getFullName() + ",\n\n\"" + loan.getTitle() + "\" was due back on " + deadline +
+              " and is now overdue. Please return it as soon as possible.\n";
+    }
+    
+    // ================== Dispatch ==================
+    
+    /**
+     * Claims batches of due reminders until the queue is drained or every
+     * worker is busy. Claiming only touches the reminders table.
+     */
+    @Scheduled(fixedDelayString = "${library.reminders.dispatch-ms:10000}")
+    public void dispatch() {
+        while (batchesInFlight.get() < workerCount) {
+            List<Reminder> batch = transactionTemplate.execute(tx -> claimBatch());
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            batchesInFlight.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    deliver(batch);
+                } finally {
+                    batchesInFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+    
+    private List<Reminder> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = reminderRepository.findDueIdsForUpdate(now, batchSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        reminderRepository.markSending(ids, ReminderStatus.SENDING, now.plusNanos(leaseMs * 1_000_000));
+        return reminderRepository.findAllById(ids);
+    }
+    
+    private void deliver(List<Reminder> batch) {
+        long start = System.nanoTime();
+        Set<Long> accepted;
+        String error = null;
+        try {
+            accepted = reminderSender.send(batch);
+        } catch (Exception e) {
+            log.warn("Reminder batch of {} failed: {}", batch.size(), e.getMessage());
+            accepted = Set.of();
+            error = e.getMessage();
+        }
+        deliveryNanos.addAndGet(System.nanoTime() - start);
+        batches.incrementAndGet();
+        
+        Set<Long> sent = accepted;
+        String lastError = error != null ? error : "Rejected by sender";
+        transactionTemplate.executeWithoutResult(tx -> complete(batch, sent, lastError));
+    }
+    
+    private void complete(List<Reminder> batch, Set<Long> sent, String lastError) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!sent.isEmpty()) {
+            reminderRepository.markSent(sent, ReminderStatus.SENT, now);
+            delivered.addAndGet(sent.size());
+        }
+        
+        for (Reminder reminder : batch) {
+            if (sent.contains(reminder.getId())) {
+                continue;
+            }
+            // attempts was already incremented when the batch was claimed
+            int attempts = reminder.getAttempts();
+            reminder.setLastError(lastError.length() > 500 ? lastError.substring(0, 500) : lastError);
+            if (attempts >= maxAttempts) {
+                reminder.setStatus(ReminderStatus.FAILED);
+                failed.incrementAndGet();
+            } else {
+                reminder.setStatus(ReminderStatus.PENDING);
+                reminder.setNextAttemptAt(now.plusNanos(backoffMs(attempts) * 1_000_000));
+                retried.incrementAndGet();
+            }
+            reminderRepository.save(reminder);
+        }
+    }
+    
+    /** Exponential backoff: base, 2x base, 4x base ... capped at one day. */
+    long backoffMs(int attempts) {
+        long backoff = retryBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(backoff, 86_400_000L);
+    }
+    
+    // ================== Metrics ==================
+    
+    public Map<String, Object> getMetrics() {
+        long uptimeSeconds = Math.max(1, (System.currentTimeMillis() - startedAt) / 1000);
+        long batchCount = batches.get();
+        
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enqueued", enqueued.get());
+        metrics.put("delivered", delivered.get());
+        metrics.put("retried", retried.get());
+        metrics.put("failed", failed.get());
+        metrics.put("batches", batchCount);
+        metrics.put("deliveredPerSecond", (double) delivered.get() / uptimeSeconds);
+        metrics.put("avgBatchMillis", batchCount == 0 ? 0 : deliveryNanos.get() / batchCount / 1_000_000.0);
+        metrics.put("batchesInFlight", batchesInFlight.get());
+        metrics.put("pending", reminderRepository.countByStatus(ReminderStatus.PENDING));
+        metrics.put("sending", reminderRepository.countByStatus(ReminderStatus.SENDING));
+        metrics.put("failedTotal", reminderRepository.countByStatus(ReminderStatus.FAILED));
+        return metrics;
+    }
+}
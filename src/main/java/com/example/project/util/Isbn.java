@@ -0,0 +1,80 @@
+package com.example.project.util;
+
+/**
+ * Canonical ISBN handling. Any ISBN-10 or ISBN-13, with or without hyphens
+ * and spaces, is reduced to its ISBN-13 as a long, after checking the check
+ * digit; that number is the key books are stored, indexed and compared by.
+ */
+public final class Isbn {
+    
+    private Isbn() {
+    }
+    
+    /** The ISBN-13 of a raw ISBN-10 or ISBN-13, or an exception if it is malformed or fails its checksum. */
+    public static long toIsbn13(String raw) {
+        if (raw == null) {
+            throw new IllegalArgumentException("ISBN is required");
+        }
+        char[] digits = new char[13];
+        int length = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (length == 13 || !(Character.isDigit(c) || ((c == 'X' || c == 'x') && length == 9))) {
+                throw new IllegalArgumentException("Invalid ISBN: " + raw);
+            }
+            digits[length++] = Character.toUpperCase(c);
+        }
+        
+        if (length == 13 && digits[9] != 'X') {
+            long value = Long.parseLong(new String(digits));
+            if ((value / 10_000_000_000L != 978 && value / 10_000_000_000L != 979)
+                    || checkDigit13(value / 10) != value % 10) {
+                throw new IllegalArgumentException("Invalid ISBN-13 checksum: " + raw);
+            }
+            return value;
+        }
+        if (length == 10) {
+            int sum = 0;
+            for (int i = 0; i < 10; i++) {
+                int digit = digits[i] == 'X' ? 10 : digits[i] - '0';
+                sum += digit * (10 - i);
+            }
+            if (sum % 11 != 0) {
+                throw new IllegalArgumentException("Invalid ISBN-10 checksum: " + raw);
+            }
+            long prefix = 978_000_000_000L + Long.parseLong(new String(digits, 0, 9));
+            return prefix * 10 + checkDigit13(prefix);
+        }
+        throw new IllegalArgumentException("Invalid ISBN: " + raw);
+    }
+    
+    public static boolean isValid(String raw) {
+        try {
+            toIsbn13(raw);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /** The ISBN-13 check digit for a 12-digit prefix. */
+    public static int checkDigit13(long prefix) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = (int) (prefix % 10);
+            prefix /= 10;
+            // Walking from the right, the last prefix digit has weight 3
+            sum += (i % 2 == 0) ? digit * 3 : digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+    
+    /** Hyphenated display form, split after the EAN prefix: 978-0132350884. */
+    public static String format(long isbn13) {
+        String digits = Long.toString(isbn13);
+        return digits.substring(0, 3) + "-" + digits.substring(3);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.project.view;
+
+import com.example.project.security.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.thymeleaf.context.LazyContextVariable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Rendered HTML of template fragments marked with lib:cache, keyed by
+ * fragment name, branch, the viewer's roles and the catalog version.
+ *
+ * Catalog mutations bump the version after they commit, so every entry
+ * rendered from older data simply stops being looked up; stale entries age
+ * out of the LRU order. The map is bounded both by entry count and by the
+ * total number of cached characters.
+ */
+@Component
+public class FragmentCache {
+    
+    private final Map<String, String> fragments = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long cachedChars;
+    
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxChars;
+    
+    public FragmentCache(@Value("${library.fragment-cache.enabled:true}") boolean enabled,
+                         @Value("${library.fragment-cache.max-entries:500}") int maxEntries,
+                         @Value("${library.fragment-cache.max-chars:8000000}") long maxChars) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+    }
+    
+    /**
+     * Key for a fragment as seen by the current request. Read before the
+     * fragment's data is loaded, so data committed afterwards can only land
+     * under an older version, never make a newer one stale.
+     */
+    public String keyFor(String fragment) {
+        return fragment + '|' + TenantContext.getBranchId() + '|' + currentRoles() + '|' + catalogVersion.get();
+    }
+    
+    public String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        String html;
+        synchronized (fragments) {
+            html = fragments.get(key);
+        }
+        if (html != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return html;
+    }
+    
+    public void put(String key, String html) {
+        if (!enabled || html.length() > maxChars) {
+            return;
+        }
+        synchronized (fragments) {
+            String previous = fragments.put(key, html);
+            cachedChars += html.length() - (previous != null ? previous.length() : 0);
+            Iterator<String> eldest = fragments.values().iterator();
+            while ((fragments.size() > maxEntries || cachedChars > maxChars) && eldest.hasNext()) {
+                cachedChars -= eldest.next().length();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+    
+    /**
+     * Invalidates every cached fragment. Inside a transaction the bump waits
+     * for the commit, so a page rendered meanwhile cannot cache the old rows
+     * under the new version.
+     */
+    public void catalogChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogVersion.incrementAndGet();
+                }
+            });
+        } else {
+            catalogVersion.incrementAndGet();
+        }
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        synchronized (fragments) {
+            metrics.put("entries", fragments.size());
+            metrics.put("cachedChars", cachedChars);
+        }
+        metrics.put("catalogVersion", catalogVersion.get());
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("evictions", evictions.sum());
+        return metrics;
+    }
+    
+    /**
+     * Wraps a model attribute so it is only loaded if a template actually
+     * evaluates it, i.e. when the fragment using it misses the cache.
+     */
+    public static <T> LazyContextVariable<T> lazy(Supplier<T> loader) {
+        return new LazyContextVariable<>() {
+            @Override
+            protected T loadValue() {
+                return loader.get();
+            }
+        };
+    }
+    
+    private static String currentRoles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return "";
+        }
+        StringBuilder roles = new StringBuilder();
+        authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .sorted()
+            .forEach(role -> roles.append(role).append(','));
+        return roles.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.project.view;
+
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+/**
+ * Adds {@code lib:cache="name"} to templates. The marked element, its
+ * attributes and its body are rendered once per {@link FragmentCache} key
+ * and later requests get the stored HTML as a single text event, skipping
+ * expression evaluation for everything inside.
+ *
+ * Only mark markup that depends on the catalog and the viewer's roles:
+ * anything per user, such as usernames or balances, must stay outside.
+ * Model attributes used only inside a cached element can be passed as
+ * {@link org.thymeleaf.context.LazyContextVariable}s so a hit skips the query too.
+ */
+@Component
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+    
+    public static final String PREFIX = "lib";
+    
+    private final FragmentCache fragmentCache;
+    
+    public FragmentCacheDialect(FragmentCache fragmentCache) {
+        super("Library Fragment Cache", PREFIX, 1000);
+        this.fragmentCache = fragmentCache;
+    }
+    
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        return Set.of(new CacheProcessor(dialectPrefix, fragmentCache));
+    }
+    
+    static final class CacheProcessor extends AbstractAttributeModelProcessor {
+        
+        // Ahead of th:insert, th:each and th:if so they run inside the cached render
+        private static final int PRECEDENCE = 10;
+        
+        private final FragmentCache fragmentCache;
+        
+        CacheProcessor(String dialectPrefix, FragmentCache fragmentCache) {
+            super(TemplateMode.HTML, dialectPrefix, null, false, "cache", true, PRECEDENCE, false);
+            this.fragmentCache = fragmentCache;
+        }
+        
+        @Override
+        protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                                 String attributeValue, IElementModelStructureHandler structureHandler) {
+            String key = fragmentCache.keyFor(attributeValue.trim());
+            String html = fragmentCache.get(key);
+            if (html == null) {
+                html = render(context, model, attributeName);
+                fragmentCache.put(key, html);
+            }
+            
+            IModelFactory modelFactory = context.getModelFactory();
+            model.reset();
+            model.add(modelFactory.createText(html));
+            // The HTML is already escaped output; it must not be scanned for [[...]] again
+            structureHandler.setInliner(NoOpInliner.INSTANCE);
+        }
+        
+        /** Processes the element, minus this attribute, against the current context. */
+        private static String render(ITemplateContext context, IModel model, AttributeName attributeName) {
+            IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+            IModel source = model.cloneModel();
+            source.replace(0, context.getModelFactory().removeAttribute(tag, attributeName));
+            
+            StringWriter markup = new StringWriter();
+            StringWriter html = new StringWriter();
+            try {
+                source.write(markup);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+            TemplateModel parsed = templateManager.parseString(context.getTemplateData(), markup.toString(),
+                tag.getLine(), tag.getCol(), TemplateMode.HTML, false);
+            templateManager.process(parsed, context, html);
+            return html.toString();
+        }
+    }
+}
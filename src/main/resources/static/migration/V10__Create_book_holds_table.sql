@@ -0,0 +1,18 @@
+-- Create book_holds table
+-- Per-book FIFO queue of members waiting for a copy. The auto-increment id
+-- gives queue order; (book_id, status, id) serves "next WAITING holder".
+CREATE TABLE book_holds (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    book_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME NOT NULL,
+    ready_at DATETIME,
+    expires_at DATETIME,
+    PRIMARY KEY (id),
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_holds_book_status (book_id, status, id),
+    INDEX idx_holds_user (user_id, created_at),
+    INDEX idx_holds_status_expires (status, expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,48 @@
+-- Create branches table
+-- The first branch (id 1) is the default tenant for existing data.
+CREATE TABLE branches (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    code VARCHAR(20) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO branches (code, name) VALUES ('MAIN', 'Main Library');
+
+-- Per-branch copies of each title. The primary key is branch-first so
+-- every catalog query for a branch is a range scan over its own rows.
+CREATE TABLE branch_holdings (
+    branch_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    available_quantity INT NOT NULL,
+    PRIMARY KEY (branch_id, book_id),
+    FOREIGN KEY (branch_id) REFERENCES branches(id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE,
+    INDEX idx_holdings_book (book_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Existing copies all belong to the main branch
+INSERT INTO branch_holdings (branch_id, book_id, quantity, available_quantity)
+SELECT 1, b.id, b.quantity,
+       CASE WHEN b.is_available THEN GREATEST(0, b.quantity - (
+           SELECT COUNT(*) FROM borrow_records r WHERE r.book_id = b.id AND r.status IN (0, 3)
+       )) ELSE 0 END
+FROM books b;
+
+-- Members belong to a home branch
+ALTER TABLE users ADD COLUMN branch_id BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE users ADD CONSTRAINT fk_users_branch FOREIGN KEY (branch_id) REFERENCES branches(id);
+
+-- Loans are tied to the branch that issued the copy
+ALTER TABLE borrow_records ADD COLUMN branch_id BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE borrow_records ADD CONSTRAINT fk_borrow_records_branch FOREIGN KEY (branch_id) REFERENCES branches(id);
+ALTER TABLE borrow_records ADD INDEX idx_branch_status_deadline (branch_id, status, return_deadline);
+ALTER TABLE borrow_records ADD INDEX idx_branch_borrow_date (branch_id, borrow_date);
+
+ALTER TABLE borrow_records_archive ADD COLUMN branch_id BIGINT NOT NULL DEFAULT 1;
+
+-- Hold queues are per branch and title
+ALTER TABLE book_holds ADD COLUMN branch_id BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE book_holds ADD CONSTRAINT fk_book_holds_branch FOREIGN KEY (branch_id) REFERENCES branches(id);
+ALTER TABLE book_holds ADD INDEX idx_holds_branch_book_status (branch_id, book_id, status, id);
@@ -0,0 +1,91 @@
+-- Create book_copies table
+-- One row per physical item. Barcodes are the book id followed by a per-title
+-- copy number, so they are unique without a separate sequence. The
+-- (branch_id, book_id, status) index serves "first free copy at this branch".
+CREATE TABLE book_copies (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    book_id BIGINT NOT NULL,
+    branch_id BIGINT NOT NULL,
+    copy_no INT NOT NULL,
+    barcode VARCHAR(20) NOT NULL UNIQUE,
+    status VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id),
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE,
+    FOREIGN KEY (branch_id) REFERENCES branches(id),
+    UNIQUE KEY uk_copies_book_copy_no (book_id, copy_no),
+    INDEX idx_copies_shelf (branch_id, book_id, status, copy_no)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Split every holding into individual copies. Only the main branch exists at
+-- this point, so the copy number is unique per title.
+INSERT INTO book_copies (book_id, branch_id, copy_no, barcode, status)
+WITH RECURSIVE seq (n) AS (
+    SELECT 1
+    UNION ALL
+    SELECT n + 1 FROM seq WHERE n < (SELECT COALESCE(MAX(quantity), 0) FROM branch_holdings)
+)
+SELECT h.book_id, h.branch_id, seq.n, CONCAT(LPAD(h.book_id, 9, '0'), LPAD(seq.n, 4, '0')), 'AVAILABLE'
+FROM branch_holdings h
+JOIN seq ON seq.n <= h.quantity;
+
+-- Loans and holds now point at the copy they are for
+ALTER TABLE borrow_records ADD COLUMN copy_id BIGINT NULL;
+ALTER TABLE borrow_records ADD CONSTRAINT fk_borrow_records_copy FOREIGN KEY (copy_id) REFERENCES book_copies(id) ON DELETE SET NULL;
+ALTER TABLE borrow_records ADD INDEX idx_copy_status (copy_id, status);
+
+ALTER TABLE book_holds ADD COLUMN copy_id BIGINT NULL;
+ALTER TABLE book_holds ADD CONSTRAINT fk_book_holds_copy FOREIGN KEY (copy_id) REFERENCES book_copies(id) ON DELETE SET NULL;
+
+-- Give each open loan its own copy, in loan order
+UPDATE borrow_records r
+JOIN (
+    SELECT id, branch_id, book_id,
+           ROW_NUMBER() OVER (PARTITION BY branch_id, book_id ORDER BY id) AS rn
+    FROM borrow_records
+    WHERE status IN (0, 3)
+) o ON o.id = r.id
+JOIN book_copies c ON c.branch_id = o.branch_id AND c.book_id = o.book_id AND c.copy_no = o.rn
+SET r.copy_id = c.id;
+
+UPDATE book_copies c
+JOIN borrow_records r ON r.copy_id = c.id AND r.status IN (0, 3)
+SET c.status = 'ON_LOAN';
+
+-- Copies off the shelf without a loan are either held for a READY hold or
+-- were withdrawn by marking the title unavailable
+UPDATE book_copies c
+JOIN (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY branch_id, book_id ORDER BY copy_no) AS rn
+    FROM book_copies
+    WHERE status = 'AVAILABLE'
+) a ON a.id = c.id
+JOIN branch_holdings h ON h.branch_id = c.branch_id AND h.book_id = c.book_id
+SET c.status = 'ON_HOLD'
+WHERE a.rn > h.available_quantity;
+
+UPDATE book_holds bh
+JOIN (
+    SELECT id, branch_id, book_id,
+           ROW_NUMBER() OVER (PARTITION BY branch_id, book_id ORDER BY id) AS rn
+    FROM book_holds
+    WHERE status = 'READY'
+) r ON r.id = bh.id
+JOIN (
+    SELECT id, branch_id, book_id,
+           ROW_NUMBER() OVER (PARTITION BY branch_id, book_id ORDER BY copy_no) AS rn
+    FROM book_copies
+    WHERE status = 'ON_HOLD'
+) c ON c.branch_id = r.branch_id AND c.book_id = r.book_id AND c.rn = r.rn
+SET bh.copy_id = c.id;
+
+UPDATE book_copies c
+SET c.status = 'WITHDRAWN'
+WHERE c.status = 'ON_HOLD'
+  AND NOT EXISTS (SELECT 1 FROM book_holds bh WHERE bh.copy_id = c.id);
+
+-- Holdings are now a summary of the copies
+UPDATE branch_holdings h
+SET h.quantity = (SELECT COUNT(*) FROM book_copies c
+                  WHERE c.branch_id = h.branch_id AND c.book_id = h.book_id AND c.status <> 'WITHDRAWN'),
+    h.available_quantity = (SELECT COUNT(*) FROM book_copies c
+                            WHERE c.branch_id = h.branch_id AND c.book_id = h.book_id AND c.status = 'AVAILABLE');
@@ -0,0 +1,22 @@
+-- Create reminders table
+-- Persistent outbox for due-soon and overdue reminders. There is deliberately
+-- no foreign key to borrow_records: enqueueing must not take shared locks on
+-- loan rows. idempotency_key makes re-scans of the same window a no-op, and
+-- (status, next_attempt_at) serves the workers' claim query.
+CREATE TABLE reminders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    idempotency_key VARCHAR(100) NOT NULL UNIQUE,
+    kind VARCHAR(20) NOT NULL,
+    borrow_record_id BIGINT NOT NULL,
+    recipient VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME NOT NULL,
+    created_at DATETIME NOT NULL,
+    sent_at DATETIME,
+    last_error VARCHAR(500),
+    PRIMARY KEY (id),
+    INDEX idx_reminders_status_next (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,29 @@
+-- Create fines table
+-- One ledger row per late loan. The overdue sweep advances accrued_through
+-- and amount a day at a time; the return finalises the row. There is no
+-- foreign key to borrow_records so loans can still be archived.
+CREATE TABLE fines (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    borrow_record_id BIGINT NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL,
+    days_charged INT NOT NULL DEFAULT 0,
+    amount DECIMAL(10,2) NOT NULL DEFAULT 0,
+    accrued_through DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME NOT NULL,
+    finalized_at DATETIME,
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_fines_user_status (user_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Create user_balances table
+-- Running total of each member's unpaid fines, maintained alongside the
+-- ledger so "amount owed" is a single primary-key read.
+CREATE TABLE user_balances (
+    user_id BIGINT NOT NULL,
+    outstanding DECIMAL(10,2) NOT NULL DEFAULT 0,
+    updated_at DATETIME NOT NULL,
+    PRIMARY KEY (user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
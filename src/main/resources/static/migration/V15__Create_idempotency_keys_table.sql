@@ -0,0 +1,18 @@
+-- Create idempotency_keys table
+-- Durable record of state-changing POSTs, keyed per user by the client's
+-- Idempotency-Key. A row is claimed before the request runs and completed
+-- with the response that replays of the same key get back.
+CREATE TABLE idempotency_keys (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_path VARCHAR(255) NOT NULL,
+    response_view VARCHAR(255),
+    flash_attributes TEXT,
+    created_at DATETIME NOT NULL,
+    completed_at DATETIME,
+    expires_at DATETIME NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_idempotency_user_key (username, idempotency_key),
+    INDEX idx_idempotency_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
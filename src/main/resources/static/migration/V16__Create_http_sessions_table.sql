@@ -0,0 +1,17 @@
+-- Create http_sessions table
+-- Servlet sessions for form-login users, shared by every node. Attributes
+-- are one compact binary blob; the security context is stored as user id,
+-- username and authorities rather than a serialized User.
+CREATE TABLE http_sessions (
+    session_id VARCHAR(64) NOT NULL,
+    user_id BIGINT,
+    principal_name VARCHAR(50),
+    created_at DATETIME(3) NOT NULL,
+    last_accessed_at DATETIME(3) NOT NULL,
+    max_inactive_seconds INT NOT NULL,
+    expires_at DATETIME(3) NOT NULL,
+    attributes MEDIUMBLOB,
+    PRIMARY KEY (session_id),
+    INDEX idx_sessions_expires (expires_at),
+    INDEX idx_sessions_user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
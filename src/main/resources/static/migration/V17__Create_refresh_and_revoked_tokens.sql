@@ -0,0 +1,37 @@
+-- Create refresh_tokens table
+-- Opaque refresh tokens, stored as SHA-256 hashes. Each refresh rotates the
+-- token within its family; presenting an already-rotated token revokes the
+-- whole family, since it means the token was copied.
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash CHAR(64) NOT NULL,
+    family_id CHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL,
+    branch_id BIGINT NOT NULL,
+    access_jti CHAR(36),
+    access_expires_at DATETIME,
+    issued_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL,
+    rotated_at DATETIME,
+    revoked_at DATETIME,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_refresh_token_hash (token_hash),
+    INDEX idx_refresh_family (family_id),
+    INDEX idx_refresh_user (user_id),
+    INDEX idx_refresh_expires (expires_at),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Create revoked_tokens table
+-- Access token ids (jti) revoked before they expire. Every node mirrors the
+-- unexpired rows in memory and polls for rows revoked since its last sync.
+CREATE TABLE revoked_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    jti CHAR(36) NOT NULL,
+    expires_at DATETIME NOT NULL,
+    revoked_at DATETIME NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_revoked_jti (jti),
+    INDEX idx_revoked_revoked_at (revoked_at),
+    INDEX idx_revoked_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,29 @@
+-- Add canonical ISBN-13 key to books
+-- isbn keeps the text as entered; isbn13 holds the same ISBN as a number,
+-- with ISBN-10s converted, so "978-0132350884" and "9780132350884" are one
+-- key. Existing rows whose ISBN fails its checksum, or that duplicate an
+-- earlier book's ISBN, are left NULL for a librarian to correct.
+ALTER TABLE books ADD COLUMN isbn13 BIGINT NULL AFTER isbn;
+
+UPDATE books b
+JOIN (
+    SELECT MIN(id) AS id, candidate
+    FROM (
+        SELECT id,
+            CASE
+                WHEN d REGEXP '^97[89][0-9]{10}$'
+                     AND (SUBSTRING(d, 1, 1) + SUBSTRING(d, 2, 1) * 3 + SUBSTRING(d, 3, 1) + SUBSTRING(d, 4, 1) * 3 + SUBSTRING(d, 5, 1) + SUBSTRING(d, 6, 1) * 3 + SUBSTRING(d, 7, 1) + SUBSTRING(d, 8, 1) * 3 + SUBSTRING(d, 9, 1) + SUBSTRING(d, 10, 1) * 3 + SUBSTRING(d, 11, 1) + SUBSTRING(d, 12, 1) * 3 + SUBSTRING(d, 13, 1)) % 10 = 0
+                THEN CAST(d AS UNSIGNED)
+                WHEN d REGEXP '^[0-9]{9}[0-9X]$'
+                     AND (SUBSTRING(d, 1, 1) * 10 + SUBSTRING(d, 2, 1) * 9 + SUBSTRING(d, 3, 1) * 8 + SUBSTRING(d, 4, 1) * 7 + SUBSTRING(d, 5, 1) * 6 + SUBSTRING(d, 6, 1) * 5 + SUBSTRING(d, 7, 1) * 4 + SUBSTRING(d, 8, 1) * 3 + SUBSTRING(d, 9, 1) * 2 + IF(SUBSTRING(d, 10, 1) = 'X', 10, SUBSTRING(d, 10, 1))) % 11 = 0
+                THEN CAST(CONCAT('978', LEFT(d, 9),
+                     (10 - (38 + SUBSTRING(d, 1, 1) * 3 + SUBSTRING(d, 2, 1) + SUBSTRING(d, 3, 1) * 3 + SUBSTRING(d, 4, 1) + SUBSTRING(d, 5, 1) * 3 + SUBSTRING(d, 6, 1) + SUBSTRING(d, 7, 1) * 3 + SUBSTRING(d, 8, 1) + SUBSTRING(d, 9, 1) * 3) % 10) % 10) AS UNSIGNED)
+            END AS candidate
+        FROM (SELECT id, UPPER(REGEXP_REPLACE(isbn, '[^0-9Xx]', '')) AS d FROM books) digits
+    ) normalized
+    WHERE candidate IS NOT NULL
+    GROUP BY candidate
+) canonical ON canonical.id = b.id
+SET b.isbn13 = canonical.candidate;
+
+ALTER TABLE books ADD UNIQUE KEY uk_books_isbn13 (isbn13);
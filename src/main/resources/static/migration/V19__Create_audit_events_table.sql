@@ -0,0 +1,19 @@
+-- Create audit_events table
+-- Append-only trail of catalog and circulation changes. The application
+-- only ever inserts into it (in multi-row batches) and reads it by time,
+-- entity or actor; rows are never updated.
+CREATE TABLE audit_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    occurred_at DATETIME(3) NOT NULL,
+    actor VARCHAR(50) NOT NULL,
+    action VARCHAR(30) NOT NULL,
+    entity_type VARCHAR(30) NOT NULL,
+    entity_id BIGINT,
+    branch_id BIGINT,
+    before_value TEXT,
+    after_value TEXT,
+    PRIMARY KEY (id),
+    INDEX idx_audit_occurred (occurred_at),
+    INDEX idx_audit_entity (entity_type, entity_id, id),
+    INDEX idx_audit_actor (actor, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
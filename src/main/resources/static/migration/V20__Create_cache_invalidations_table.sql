@@ -0,0 +1,14 @@
+-- Create cache_invalidations table
+-- Change log that lets every app node evict its in-process copies of rows
+-- another node changed. Each row names an entity by a one-byte type code
+-- and its id; nodes tail the table by id and skip their own rows. Rows are
+-- only needed for as long as the slowest node takes to poll, then pruned.
+CREATE TABLE cache_invalidations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    entity_type TINYINT NOT NULL,
+    entity_id BIGINT NOT NULL,
+    origin BIGINT NOT NULL,
+    created_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_cache_invalidations_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
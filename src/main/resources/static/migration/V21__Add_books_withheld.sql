@@ -0,0 +1,10 @@
+-- Add librarian withhold flag to books
+-- is_available is derived from the copies on the shelf; withheld is the
+-- librarian's "not for loan" switch and keeps it false while set. Titles
+-- marked unavailable while copies were on the shelf were withheld by hand.
+ALTER TABLE books ADD COLUMN withheld BOOLEAN NOT NULL DEFAULT FALSE AFTER is_available;
+
+UPDATE books b
+SET b.withheld = TRUE
+WHERE b.is_available = FALSE
+  AND EXISTS (SELECT 1 FROM branch_holdings h WHERE h.book_id = b.id AND h.available_quantity > 0);
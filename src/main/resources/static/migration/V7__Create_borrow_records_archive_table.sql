@@ -0,0 +1,24 @@
+-- Create borrow_records_archive table
+-- Completed loans are moved here by the archival job so that borrow_records
+-- (and its indexes) only hold recent and active rows.
+-- Partitioned tables cannot carry foreign keys, and the partition column
+-- must be part of the primary key.
+CREATE TABLE borrow_records_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    borrow_date DATE NOT NULL,
+    return_deadline DATE NOT NULL,
+    actual_return_date DATE,
+    status VARCHAR(20) NOT NULL,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, borrow_date),
+    INDEX idx_archive_user_borrow_date (user_id, borrow_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+PARTITION BY RANGE (YEAR(borrow_date)) (
+    PARTITION p2023 VALUES LESS THAN (2024),
+    PARTITION p2024 VALUES LESS THAN (2025),
+    PARTITION p2025 VALUES LESS THAN (2026),
+    PARTITION p2026 VALUES LESS THAN (2027),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
@@ -0,0 +1,35 @@
+-- Replace the free-form VARCHAR status with a compact TINYINT code
+-- Codes match com.example.project.entity.BorrowStatus:
+--   0 = BORROWED, 1 = RETURNED, 2 = RETURNED_LATE, 3 = OVERDUE
+ALTER TABLE borrow_records ADD COLUMN status_code TINYINT NOT NULL DEFAULT 0;
+
+UPDATE borrow_records SET status_code = CASE status
+    WHEN 'BORROWED' THEN 0
+    WHEN 'RETURNED' THEN 1
+    WHEN 'RETURNED_LATE' THEN 2
+    WHEN 'OVERDUE' THEN 3
+END;
+
+ALTER TABLE borrow_records DROP INDEX idx_status;
+ALTER TABLE borrow_records DROP COLUMN status;
+ALTER TABLE borrow_records CHANGE COLUMN status_code status TINYINT NOT NULL;
+
+-- Covering indexes matching the repository queries:
+--   overdue sweep / active loans: status = ? AND return_deadline < ?
+--   history pages:                user_id = ? ORDER BY borrow_date DESC
+ALTER TABLE borrow_records ADD INDEX idx_status_return_deadline (status, return_deadline);
+ALTER TABLE borrow_records ADD INDEX idx_user_borrow_date (user_id, borrow_date DESC);
+ALTER TABLE borrow_records DROP INDEX idx_user_id;
+
+-- Keep the archive in the same format so rows can be copied column for column
+ALTER TABLE borrow_records_archive ADD COLUMN status_code TINYINT NOT NULL DEFAULT 1;
+
+UPDATE borrow_records_archive SET status_code = CASE status
+    WHEN 'BORROWED' THEN 0
+    WHEN 'RETURNED' THEN 1
+    WHEN 'RETURNED_LATE' THEN 2
+    WHEN 'OVERDUE' THEN 3
+END;
+
+ALTER TABLE borrow_records_archive DROP COLUMN status;
+ALTER TABLE borrow_records_archive CHANGE COLUMN status_code status TINYINT NOT NULL;
@@ -0,0 +1,17 @@
+-- Create book_assets table
+-- Asset bytes live in the content-addressed blob store on disk; rows only
+-- reference them by SHA-256 so identical uploads share one file.
+CREATE TABLE book_assets (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    book_id BIGINT NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    original_filename VARCHAR(255),
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE,
+    INDEX idx_book_assets_book_kind (book_id, kind),
+    INDEX idx_book_assets_sha256 (sha256)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,57 @@
+package com.example.project.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("BorrowRepository Index Usage Tests")
+class BorrowRepositoryIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Map<String, Object> explain(String sql) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql).get(0);
+    }
+
+    @Test
+    @DisplayName("Overdue sweep should use the (status, return_deadline) index")
+    void testOverdueSweepUsesStatusDeadlineIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT id FROM borrow_records WHERE status = 0 AND return_deadline < CURDATE()");
+
+        assertEquals("idx_status_return_deadline", plan.get("key"));
+        assertNotEquals("ALL", plan.get("type"), "Overdue sweep should not scan the whole table");
+    }
+
+    @Test
+    @DisplayName("Active loans lookup should use the (status, return_deadline) index")
+    void testFindByStatusUsesStatusDeadlineIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT id, return_deadline FROM borrow_records WHERE status = 0");
+
+        assertEquals("idx_status_return_deadline", plan.get("key"));
+        assertTrue(String.valueOf(plan.get("Extra")).contains("Using index"),
+                "Status scan should be index-only");
+    }
+
+    @Test
+    @DisplayName("History page should use the (user_id, borrow_date) index without filesort")
+    void testUserHistoryUsesUserBorrowDateIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT id FROM borrow_records WHERE user_id = 1 ORDER BY borrow_date DESC LIMIT 20");
+
+        assertEquals("idx_user_borrow_date", plan.get("key"));
+        assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"),
+                "History page should be read in index order");
+    }
+}
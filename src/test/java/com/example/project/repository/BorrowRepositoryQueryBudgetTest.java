@@ -0,0 +1,77 @@
+package com.example.project.repository;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.User;
+import com.example.project.security.TenantContext;
+import com.example.project.service.BookService;
+import com.example.project.service.BorrowService;
+import com.example.project.support.QueryBudget;
+import com.example.project.support.QueryBudgetExtension;
+import com.example.project.util.Isbn;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@ExtendWith(QueryBudgetExtension.class)
+@DisplayName("BorrowRepository Query Budget Tests")
+class BorrowRepositoryQueryBudgetTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            User user = userRepository.save(new User("budget" + i, "password", "Budget User " + i, "budget" + i + "@library.com"));
+            long isbnPrefix = 978000000010L + i;
+            String isbn = isbnPrefix + "" + Isbn.checkDigit13(isbnPrefix);
+            Book book = bookService.saveBook(new Book("Budget Book " + i, "Author " + i, isbn, "Fiction", 1));
+            borrowService.borrowBook(user, book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Admin borrow list should load users, roles, books and copies in one statement")
+    void testAdminListIsSingleQuery() {
+        List<BorrowRecord> records = borrowRepository.findByBranchId(TenantContext.DEFAULT_BRANCH_ID);
+
+        assertTrue(records.size() >= 5);
+        for (BorrowRecord record : records) {
+            assertNotNull(record.getUser().getUsername());
+            record.getUser().getRoles().forEach(role -> assertNotNull(role.getName()));
+            assertNotNull(record.getBook().getTitle());
+            if (record.getCopy() != null) {
+                assertNotNull(record.getCopy().getBarcode());
+            }
+        }
+    }
+}
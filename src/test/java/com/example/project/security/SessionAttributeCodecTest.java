@@ -0,0 +1,78 @@
+package com.example.project.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionAttributeCodec Tests")
+class SessionAttributeCodecTest {
+
+    private static final ClassLoader CLASS_LOADER = SessionAttributeCodecTest.class.getClassLoader();
+
+    private SecurityContext context(Object principal) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_MEMBER"));
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities));
+    }
+
+    // ================== Security Context Tests ==================
+
+    @Test
+    @DisplayName("Should round-trip a form-login context as id, username and authorities")
+    void testSecurityContextRoundTrip() {
+        LibraryUserDetails principal = new LibraryUserDetails(42L, "member1", "$2a$10$hash",
+            List.of(new SimpleGrantedAuthority("ROLE_MEMBER")));
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("SPRING_SECURITY_CONTEXT", context(principal));
+
+        Map<String, Object> decoded = SessionAttributeCodec.decode(SessionAttributeCodec.encode(attributes), CLASS_LOADER);
+
+        SecurityContext restored = (SecurityContext) decoded.get("SPRING_SECURITY_CONTEXT");
+        assertTrue(restored.getAuthentication().isAuthenticated());
+        assertEquals("member1", restored.getAuthentication().getName());
+        assertEquals(42L, ((LibraryUserDetails) restored.getAuthentication().getPrincipal()).getUserId());
+        assertNull(((LibraryUserDetails) restored.getAuthentication().getPrincipal()).getPassword(),
+            "The password hash must not be stored");
+        assertEquals("ROLE_MEMBER", restored.getAuthentication().getAuthorities().iterator().next().getAuthority());
+        assertEquals(42L, SessionAttributeCodec.userIdOf(decoded));
+    }
+
+    @Test
+    @DisplayName("Should be much smaller than Java serialization of the same context")
+    void testCompactEncoding() {
+        LibraryUserDetails principal = new LibraryUserDetails(42L, "member1", "$2a$10$hash",
+            List.of(new SimpleGrantedAuthority("ROLE_MEMBER")));
+        byte[] compact = SessionAttributeCodec.encode(Map.of("SPRING_SECURITY_CONTEXT", context(principal)));
+        User plain = new User("member1", "$2a$10$hash", List.of(new SimpleGrantedAuthority("ROLE_MEMBER")));
+        byte[] serialized = SessionAttributeCodec.encode(Map.of("SPRING_SECURITY_CONTEXT", context(plain)));
+
+        assertTrue(compact.length * 5 < serialized.length,
+            "compact=" + compact.length + " serialized=" + serialized.length);
+    }
+
+    // ================== Fallback Tests ==================
+
+    @Test
+    @DisplayName("Should keep strings and serializable values")
+    void testOtherAttributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("lastSearch", "java");
+        attributes.put("recent", new ArrayList<>(List.of(1L, 2L)));
+
+        Map<String, Object> decoded = SessionAttributeCodec.decode(SessionAttributeCodec.encode(attributes), CLASS_LOADER);
+
+        assertEquals("java", decoded.get("lastSearch"));
+        assertEquals(List.of(1L, 2L), decoded.get("recent"));
+        assertNull(SessionAttributeCodec.userIdOf(decoded));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.project.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenRevocationList Tests")
+class TokenRevocationListTest {
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(null, 1000, 0.01, Duration.ofSeconds(30));
+    }
+
+    // ================== Revocation Tests ==================
+
+    @Test
+    @DisplayName("Should report revoked token ids until they expire")
+    void testRevokedUntilExpiry() {
+        String live = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+        revocationList.add(live, LocalDateTime.now().plusMinutes(15));
+        revocationList.add(expired, LocalDateTime.now().minusSeconds(1));
+
+        assertTrue(revocationList.isRevoked(live));
+        assertFalse(revocationList.isRevoked(expired), "An expired token is rejected by its own exp claim");
+        assertFalse(revocationList.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    // ================== Bloom Filter Tests ==================
+
+    @Test
+    @DisplayName("Should never miss an added value")
+    void testNoFalseNegatives() {
+        TokenRevocationList.BloomFilter bloom = new TokenRevocationList.BloomFilter(1000, 0.01);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            bloom.put(values[i]);
+        }
+        for (String value : values) {
+            assertTrue(bloom.mightContain(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the false-positive rate near the configured one at capacity")
+    void testFalsePositiveRate() {
+        TokenRevocationList.BloomFilter bloom = new TokenRevocationList.BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloom.put(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (bloom.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < probes * 0.03, "false positives: " + falsePositives);
+    }
+}
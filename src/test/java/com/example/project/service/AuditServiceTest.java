@@ -0,0 +1,89 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AuditService Tests")
+class AuditServiceTest {
+
+    private static AuditService.Entry entry(long id) {
+        return new AuditService.Entry(LocalDateTime.now(), "librarian", "BOOK_UPDATED", AuditService.BOOK,
+            id, 1L, null, null);
+    }
+
+    // ================== Ring Buffer Tests ==================
+
+    @Test
+    @DisplayName("Should drain entries in the order they were offered")
+    void testFifoOrder() {
+        AuditService.EventRing ring = new AuditService.EventRing(8);
+        for (long i = 1; i <= 5; i++) {
+            assertTrue(ring.offer(entry(i)));
+        }
+
+        List<AuditService.Entry> drained = new ArrayList<>();
+        assertEquals(3, ring.drainTo(drained, 3));
+        assertEquals(2, ring.drainTo(drained, 10));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), drained.stream().map(AuditService.Entry::entityId).toList());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    @DisplayName("Should drop and count entries once the ring is full")
+    void testDropWhenFull() {
+        AuditService.EventRing ring = new AuditService.EventRing(4);
+        for (long i = 1; i <= 4; i++) {
+            assertTrue(ring.offer(entry(i)));
+        }
+        assertFalse(ring.offer(entry(5)));
+        assertEquals(1, ring.dropped());
+
+        List<AuditService.Entry> drained = new ArrayList<>();
+        ring.drainTo(drained, 1);
+        assertTrue(ring.offer(entry(6)));
+    }
+
+    @Test
+    @DisplayName("Should not lose entries offered from several threads while draining")
+    void testConcurrentProducers() throws Exception {
+        AuditService.EventRing ring = new AuditService.EventRing(1024);
+        int producers = 4;
+        int perProducer = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            pool.submit(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(entry(base + i))) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<AuditService.Entry> batch = new ArrayList<>();
+        while (seen.size() < producers * perProducer) {
+            ring.drainTo(batch, 256);
+            batch.forEach(e -> assertTrue(seen.add(e.entityId())));
+            batch.clear();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(0, ring.size());
+    }
+}
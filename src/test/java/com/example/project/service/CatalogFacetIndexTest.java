@@ -0,0 +1,154 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CatalogFacetIndex Tests")
+class CatalogFacetIndexTest {
+
+    private static final Long MAIN = 1L;
+    private static final Long BRANCH = 2L;
+    private static final int FACET_LIMIT = 20;
+
+    private CatalogFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // The repositories are only used by rebuild()
+        index = new CatalogFacetIndex(null, null);
+        index.index(book(1L, "Fiction", "Austen", true));
+        index.index(book(2L, "Fiction", "Tolkien", true));
+        index.index(book(3L, "Fantasy", "Tolkien", true));
+        index.index(book(4L, "History", "Beard", false));
+        index.stock(MAIN, 1L, true);
+        index.stock(MAIN, 2L, false);
+        index.stock(MAIN, 3L, true);
+        index.stock(MAIN, 4L, false);
+        index.stock(BRANCH, 2L, true);
+        index.stock(BRANCH, 4L, true);
+    }
+
+    // ================== Facet Tests ==================
+
+    @Test
+    @DisplayName("Should AND across facets and OR within one")
+    void testFiltersAcrossFacets() {
+        assertEquals(List.of(1L, 2L, 3L), index.query(MAIN, List.of("Fiction", "Fantasy"), null, null, FACET_LIMIT).bookIds());
+        assertEquals(List.of(2L), index.query(MAIN, List.of("Fiction"), List.of("Tolkien"), null, FACET_LIMIT).bookIds());
+        assertEquals(List.of(), index.query(MAIN, List.of("Unknown"), null, null, FACET_LIMIT).bookIds());
+    }
+
+    @Test
+    @DisplayName("Should count each facet without its own selection")
+    void testCountsIgnoreOwnSelection() {
+        CatalogFacetIndex.FacetResult result = index.query(MAIN, List.of("Fiction"), List.of("Tolkien"), null, FACET_LIMIT);
+
+        assertEquals(Map.of("Fiction", 1, "Fantasy", 1), result.genreCounts());
+        assertEquals(Map.of("Austen", 1, "Tolkien", 1), result.authorCounts());
+    }
+
+    @Test
+    @DisplayName("Should order facet values by count and cut them at the limit")
+    void testFacetLimit() {
+        CatalogFacetIndex.FacetResult result = index.query(MAIN, null, null, null, 1);
+
+        assertEquals(Map.of("Fiction", 2), result.genreCounts());
+        assertEquals(Map.of("Tolkien", 2), result.authorCounts());
+    }
+
+    @Test
+    @DisplayName("Should move a re-indexed book to its new facet values")
+    void testReindexMovesBook() {
+        index.index(book(1L, "Romance", "Austen", true));
+
+        CatalogFacetIndex.FacetResult result = index.query(MAIN, null, null, null, FACET_LIMIT);
+
+        assertEquals(Map.of("Fiction", 1, "Fantasy", 1, "History", 1, "Romance", 1), result.genreCounts());
+        assertEquals(List.of(1L), index.query(MAIN, List.of("Romance"), null, null, FACET_LIMIT).bookIds());
+    }
+
+    @Test
+    @DisplayName("Should forget a removed book in every branch")
+    void testRemove() {
+        index.remove(2L);
+
+        assertEquals(List.of(1L, 3L, 4L), index.query(MAIN, null, null, null, FACET_LIMIT).bookIds());
+        assertEquals(List.of(4L), index.query(BRANCH, null, null, null, FACET_LIMIT).bookIds());
+        assertFalse(index.stocks(BRANCH, 2L));
+    }
+
+    // ================== Branch Tests ==================
+
+    @Test
+    @DisplayName("Should only return the titles the branch stocks")
+    void testQueryIsBranchScoped() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.query(MAIN, null, null, null, FACET_LIMIT).bookIds());
+        assertEquals(List.of(2L, 4L), index.query(BRANCH, null, null, null, FACET_LIMIT).bookIds());
+        assertEquals(List.of(), index.query(99L, null, null, null, FACET_LIMIT).bookIds());
+
+        assertTrue(index.stocks(BRANCH, 2L));
+        assertFalse(index.stocks(BRANCH, 1L));
+        assertEquals(2, index.booksInBranch(BRANCH).cardinality());
+        assertTrue(index.booksInBranch(99L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should count a title available only where it is on the shelf")
+    void testAvailabilityIsPerBranch() {
+        // Book 2 is out at the main branch but on the other branch's shelf
+        assertEquals(List.of(1L, 3L), index.query(MAIN, null, null, true, FACET_LIMIT).bookIds());
+        assertEquals(List.of(2L, 4L), index.query(MAIN, null, null, false, FACET_LIMIT).bookIds());
+        assertEquals(List.of(2L), index.query(BRANCH, null, null, true, FACET_LIMIT).bookIds());
+
+        CatalogFacetIndex.FacetResult main = index.query(MAIN, null, null, null, FACET_LIMIT);
+        assertEquals(2, main.availableCount());
+        assertEquals(2, main.unavailableCount());
+    }
+
+    @Test
+    @DisplayName("Should keep a withheld title unavailable even with a copy on the shelf")
+    void testWithheldTitleIsUnavailable() {
+        // Book 4 is on the other branch's shelf but not available anywhere
+        CatalogFacetIndex.FacetResult result = index.query(BRANCH, null, null, true, FACET_LIMIT);
+
+        assertEquals(List.of(2L), result.bookIds());
+        assertEquals(1, result.unavailableCount());
+    }
+
+    @Test
+    @DisplayName("Should follow a branch's shelf running out and being restocked")
+    void testStockUpdatesShelf() {
+        index.stock(MAIN, 1L, false);
+        assertEquals(List.of(3L), index.query(MAIN, null, null, true, FACET_LIMIT).bookIds());
+
+        index.stock(MAIN, 2L, true);
+        assertEquals(List.of(2L, 3L), index.query(MAIN, null, null, true, FACET_LIMIT).bookIds());
+    }
+
+    @Test
+    @DisplayName("Should tell whether a holdings row is already recorded as it is")
+    void testIsStocked() {
+        assertTrue(index.isStocked(new Object[]{MAIN, 1L, 3}));
+        assertTrue(index.isStocked(new Object[]{MAIN, 2L, 0}));
+        assertFalse(index.isStocked(new Object[]{MAIN, 2L, 1}));
+        assertFalse(index.isStocked(new Object[]{BRANCH, 1L, 1}));
+
+        index.stock(new Object[]{BRANCH, 1L, 1});
+        assertTrue(index.isStocked(new Object[]{BRANCH, 1L, 1}));
+        assertEquals(List.of(1L, 2L), index.query(BRANCH, null, null, true, FACET_LIMIT).bookIds());
+    }
+
+    private static Book book(Long id, String genre, String author, boolean available) {
+        Book book = new Book("Book " + id, author, "isbn-" + id, genre, 1);
+        book.setId(id);
+        book.setIsAvailable(available);
+        return book;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CatalogSearchIndex Tests")
+class CatalogSearchIndexTest {
+
+    private CatalogSearchIndex index;
+
+    private Book book(long id, String title, String author) {
+        Book book = new Book(title, author, "978000000000" + id, "Fiction", 1);
+        book.setId(id);
+        return book;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogSearchIndex(null);
+        index.index(book(1, "The Great Gatsby", "F. Scott Fitzgerald"));
+        index.index(book(2, "Clean Code", "Robert C. Martin"));
+        index.index(book(3, "The Pragmatic Programmer", "Andrew Hunt"));
+    }
+
+    // ================== Suggest Tests ==================
+
+    @Test
+    @DisplayName("Should suggest by the start of any title word")
+    void testSuggestByWordPrefix() {
+        List<CatalogSearchIndex.Suggestion> suggestions = index.suggest("prag", 10);
+
+        assertEquals(1, suggestions.size());
+        assertEquals(3L, suggestions.get(0).id());
+    }
+
+    @Test
+    @DisplayName("Should suggest by author prefix, ignoring case and punctuation")
+    void testSuggestByAuthor() {
+        List<CatalogSearchIndex.Suggestion> suggestions = index.suggest("FITZ", 10);
+
+        assertEquals(1, suggestions.size());
+        assertEquals("The Great Gatsby", suggestions.get(0).title());
+    }
+
+    @Test
+    @DisplayName("Should only suggest books the filter accepts")
+    void testSuggestWithFilter() {
+        assertTrue(index.suggest("the", 10, id -> id != 1L && id != 3L).isEmpty());
+        assertEquals(List.of(3L), index.suggest("the", 10, id -> id == 3L).stream()
+            .map(CatalogSearchIndex.Suggestion::id).toList());
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals")
+    void testIncrementalMaintenance() {
+        index.index(book(2, "Refactoring", "Martin Fowler"));
+        assertTrue(index.suggest("clean", 10).isEmpty(), "Old title should be gone");
+        assertEquals(1, index.suggest("refac", 10).size());
+
+        index.remove(2L);
+        assertTrue(index.suggest("refac", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    // ================== Fuzzy Search Tests ==================
+
+    @Test
+    @DisplayName("Should find misspelled keywords")
+    void testFuzzySearchFindsTypos() {
+        assertEquals(List.of(1L), index.fuzzySearch("gatbsy", 10));
+        assertEquals(List.of(3L), index.fuzzySearch("pragmatik programer", 10));
+    }
+
+    @Test
+    @DisplayName("Should only return fuzzy matches the filter accepts")
+    void testFuzzySearchWithFilter() {
+        assertTrue(index.fuzzySearch("gatbsy", 10, id -> id != 1L).isEmpty());
+        assertEquals(List.of(1L), index.fuzzySearch("gatbsy", 10, id -> id == 1L));
+    }
+
+    @Test
+    @DisplayName("Should not match unrelated keywords")
+    void testFuzzySearchNoMatch() {
+        assertTrue(index.fuzzySearch("NonExistent", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Bounded Levenshtein should stop past the bound")
+    void testBoundedLevenshtein() {
+        assertEquals(1, CatalogSearchIndex.boundedLevenshtein("code", "cade", 2));
+        assertEquals(3, CatalogSearchIndex.boundedLevenshtein("code", "gatsby", 2));
+    }
+}
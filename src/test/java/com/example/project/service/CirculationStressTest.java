@@ -0,0 +1,444 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.BorrowStatus;
+import com.example.project.entity.BranchHolding;
+import com.example.project.entity.CopyStatus;
+import com.example.project.entity.Fine;
+import com.example.project.entity.FineStatus;
+import com.example.project.entity.User;
+import com.example.project.repository.BookCopyRepository;
+import com.example.project.repository.BookRepository;
+import com.example.project.repository.BorrowRepository;
+import com.example.project.repository.BranchHoldingRepository;
+import com.example.project.repository.FineRepository;
+import com.example.project.repository.UserRepository;
+import com.example.project.security.TenantContext;
+import com.example.project.util.Isbn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers borrow, return and book edits from many threads, then checks the
+ * circulation invariants against what is in the database. Excluded from the
+ * regular test task; run it with ./gradlew stressTest, tuned through
+ * -Pthreads, -Pseconds, -Pbooks, -Pcopies and -Pmembers.
+ *
+ * Runs against the test profile's MySQL database like the other integration
+ * tests; the schema relies on FOR UPDATE SKIP LOCKED and other MySQL syntax
+ * an in-memory database would not reproduce.
+ *
+ * Operations that lose a deadlock or time out on a lock are retried, the
+ * way a client would resubmit them, and counted. Business rejections such as
+ * "Book is not available" are expected under contention and are not retried.
+ * A second test returns the same loans from every thread at once, the way a
+ * double submit or two desks checking in one copy would.
+ *
+ * Each test deletes the members and titles it created afterwards; loans,
+ * copies, holdings and fines go with them through the schema's cascades.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("stress")
+@DisplayName("Circulation Stress Tests")
+class CirculationStressTest {
+
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int SECONDS = Integer.getInteger("stress.seconds", 20);
+    private static final int BOOKS = Integer.getInteger("stress.books", 10);
+    private static final int COPIES = Integer.getInteger("stress.copies", 3);
+    private static final int MEMBERS = Integer.getInteger("stress.members", 40);
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private BranchHoldingRepository branchHoldingRepository;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private FinePolicy finePolicy;
+
+    private final List<User> members = new ArrayList<>();
+    private final List<Book> books = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setBranchId(TenantContext.DEFAULT_BRANCH_ID);
+        // Every run gets fresh members and titles so earlier runs never skew the checks
+        long run = System.currentTimeMillis() % 1_000_000;
+        for (int i = 0; i < MEMBERS; i++) {
+            String username = "stress" + run + "_" + i;
+            members.add(userRepository.save(new User(username, "password", "Stress Member " + i, username + "@library.com")));
+        }
+        for (int i = 0; i < BOOKS; i++) {
+            long isbnPrefix = 979_000_000_000L + run * 100 + i;
+            String isbn = isbnPrefix + "" + Isbn.checkDigit13(isbnPrefix);
+            books.add(bookService.saveBook(new Book("Stress Book " + run + "-" + i, "Author " + i, isbn, "Fiction", COPIES)));
+        }
+        TenantContext.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Through the service so the in-memory catalog indexes forget the titles too
+        books.forEach(book -> bookService.deleteBook(book.getId()));
+        userRepository.deleteAllByIdInBatch(members.stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Concurrent borrows, returns and edits should keep loans, copies and availability consistent")
+    void testCirculationInvariants() throws Exception {
+        Stats stats = new Stats();
+        Queue<Long> activeLoans = new ConcurrentLinkedQueue<>();
+        Set<Long> createdLoans = ConcurrentHashMap.newKeySet();
+        Set<Long> returnedLoans = ConcurrentHashMap.newKeySet();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                TenantContext.setBranchId(TenantContext.DEFAULT_BRANCH_ID);
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int roll = random.nextInt(100);
+                        if (roll < 50) {
+                            User member = members.get(random.nextInt(members.size()));
+                            Book book = books.get(random.nextInt(books.size()));
+                            BorrowRecord loan = stats.run(Op.BORROW, () -> borrowService.borrowBook(member, book));
+                            if (loan != null) {
+                                createdLoans.add(loan.getId());
+                                activeLoans.add(loan.getId());
+                            }
+                        } else if (roll < 90) {
+                            Long loanId = activeLoans.poll();
+                            if (loanId != null && stats.run(Op.RETURN, () -> borrowService.returnBook(loanId)) != null) {
+                                returnedLoans.add(loanId);
+                            } else if (loanId != null) {
+                                activeLoans.add(loanId);
+                            }
+                        } else {
+                            // Every edit hits the same title so edits race on its quantity and copy numbers
+                            Book book = books.get(0);
+                            Book details = new Book(book.getTitle(), book.getAuthor(), book.getIsbn(), book.getGenre(),
+                                COPIES - 1 + random.nextInt(3));
+                            stats.run(Op.UPDATE, () -> bookService.updateBook(book.getId(), details));
+                        }
+                    }
+                } finally {
+                    TenantContext.clear();
+                }
+            }));
+        }
+        pool.shutdown();
+        for (Future<?> worker : workers) {
+            worker.get(SECONDS + 60L, TimeUnit.SECONDS);
+        }
+
+        stats.print(SECONDS);
+        stats.assertNoUnexpectedErrors("Operations failed with unexpected errors");
+        assertTrue(stats.count(Op.BORROW, stats.succeeded) > 0, "No borrow succeeded");
+
+        List<BorrowRecord> loans = assertLoansConsistent(createdLoans, returnedLoans);
+        for (Book book : books) {
+            assertCopiesConsistent(book.getId(), loans);
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent returns of the same loan should release the copy and settle the fine once")
+    void testDuplicateReturns() throws Exception {
+        // One late loan per title, each returned by every thread at once
+        TenantContext.setBranchId(TenantContext.DEFAULT_BRANCH_ID);
+        LocalDate today = LocalDate.now();
+        List<BorrowRecord> loans = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            BorrowRecord loan = borrowService.borrowBook(members.get(i % members.size()), books.get(i));
+            loan.setBorrowDate(today.minusDays(24));
+            loan.setReturnDeadline(today.minusDays(10));
+            loans.add(borrowRepository.save(loan));
+        }
+        TenantContext.clear();
+
+        Stats stats = new Stats();
+        Map<Long, LongAdder> returnsByLoan = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (BorrowRecord loan : loans) {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    TenantContext.setBranchId(TenantContext.DEFAULT_BRANCH_ID);
+                    try {
+                        start.await();
+                        if (stats.run(Op.RETURN, () -> borrowService.returnBook(loan.getId())) != null) {
+                            returnsByLoan.computeIfAbsent(loan.getId(), id -> new LongAdder()).increment();
+                        }
+                    } finally {
+                        TenantContext.clear();
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        pool.shutdown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+
+        stats.assertNoUnexpectedErrors("Returns failed with unexpected errors");
+        assertEquals(0, stats.count(Op.RETURN, stats.gaveUp), "Returns gave up on lock failures");
+        for (BorrowRecord loan : loans) {
+            assertEquals(1, returnsByLoan.getOrDefault(loan.getId(), new LongAdder()).sum(), "Loan " + loan.getId() + " was returned more than once");
+        }
+        assertEquals((long) loans.size() * (THREADS - 1), stats.count(Op.RETURN, stats.rejected),
+            "Every duplicate return should be rejected");
+
+        List<BorrowRecord> returned = borrowRepository.findAllById(returnsByLoan.keySet());
+        for (BorrowRecord loan : returned) {
+            assertEquals(BorrowStatus.RETURNED_LATE, loan.getStatus(), "Loan " + loan.getId() + " is " + loan.getStatus());
+            assertEquals(today, loan.getActualReturnDate(), "Return date rewritten on loan " + loan.getId());
+            assertEquals(COPIES, branchHoldingRepository.findByBranchIdAndBookId(TenantContext.DEFAULT_BRANCH_ID,
+                loan.getBook().getId()).orElseThrow().getAvailableQuantity(), "Copy not back on the shelf for loan " + loan.getId());
+            assertCopiesConsistent(loan.getBook().getId(), returned);
+
+            Fine fine = fineRepository.findByBorrowRecordId(loan.getId()).orElseThrow();
+            assertEquals(FineStatus.FINAL, fine.getStatus(), "Fine for loan " + loan.getId() + " is " + fine.getStatus());
+            assertEquals(finePolicy.chargeableDays(loan.getReturnDeadline(), today), fine.getDaysCharged(),
+                "Fine for loan " + loan.getId() + " charged the wrong number of days");
+            assertEquals(0, fine.getAmount().compareTo(fineService.getAmountOwed(loan.getUser().getUsername())),
+                "Balance of " + loan.getUser().getUsername() + " does not match the fine");
+        }
+    }
+
+    /** No lost returns, and every status agrees with the loan's dates. */
+    private List<BorrowRecord> assertLoansConsistent(Set<Long> createdLoans, Set<Long> returnedLoans) {
+        List<BorrowRecord> loans = borrowRepository.findAllById(createdLoans);
+        assertEquals(createdLoans.size(), loans.size(), "Some successful borrows left no loan row");
+
+        LocalDate today = LocalDate.now();
+        for (BorrowRecord loan : loans) {
+            boolean returned = returnedLoans.contains(loan.getId());
+            BorrowStatus status = loan.getStatus();
+            if (returned) {
+                assertNotNull(loan.getActualReturnDate(), "Lost return on loan " + loan.getId());
+                assertTrue(status == BorrowStatus.RETURNED || status == BorrowStatus.RETURNED_LATE,
+                    "Returned loan " + loan.getId() + " is " + status);
+                assertEquals(loan.getActualReturnDate().isAfter(loan.getReturnDeadline()),
+                    status == BorrowStatus.RETURNED_LATE, "Late flag disagrees with dates on loan " + loan.getId());
+            } else {
+                assertNull(loan.getActualReturnDate(), "Loan " + loan.getId() + " has a return date but was never returned");
+                BorrowStatus expected = today.isAfter(loan.getReturnDeadline()) ? BorrowStatus.OVERDUE : BorrowStatus.BORROWED;
+                // The overdue sweep runs nightly, so a loan past its deadline may still read BORROWED
+                assertTrue(status == expected || status == BorrowStatus.BORROWED,
+                    "Open loan " + loan.getId() + " is " + status);
+            }
+            assertFalse(loan.getReturnDeadline().isBefore(loan.getBorrowDate()), "Deadline before borrow date on loan " + loan.getId());
+        }
+        return loans;
+    }
+
+    /**
+     * Never more active loans than copies: each copy on loan has exactly one
+     * open loan, no copy has two, and the holding counts and the title's
+     * availability flag match the copies. Copy numbers are unique and no
+     * quantity change was lost. The test's titles are only ever lent by the
+     * test, so its own loans are all the loans there are.
+     */
+    private void assertCopiesConsistent(Long bookId, List<BorrowRecord> loans) {
+        List<BookCopy> copies = bookCopyRepository.findByBookIdOrderByCopyNo(bookId);
+        Map<Long, Integer> openLoansByCopy = new HashMap<>();
+        for (BorrowRecord loan : loans) {
+            if (loan.getCopy() != null && loan.getBook().getId().equals(bookId) && loan.getActualReturnDate() == null) {
+                openLoansByCopy.merge(loan.getCopy().getId(), 1, Integer::sum);
+            }
+        }
+
+        int onShelf = 0;
+        int lendable = 0;
+        for (BookCopy copy : copies) {
+            int openLoans = openLoansByCopy.getOrDefault(copy.getId(), 0);
+            assertTrue(openLoans <= 1, "Copy " + copy.getBarcode() + " is lent " + openLoans + " times");
+            assertEquals(copy.getStatus() == CopyStatus.ON_LOAN, openLoans == 1,
+                "Copy " + copy.getBarcode() + " is " + copy.getStatus() + " with " + openLoans + " open loans");
+            if (copy.getStatus() == CopyStatus.AVAILABLE) {
+                onShelf++;
+            }
+            if (copy.getStatus() != CopyStatus.WITHDRAWN) {
+                lendable++;
+            }
+        }
+        int activeLoans = openLoansByCopy.values().stream().mapToInt(Integer::intValue).sum();
+        assertTrue(activeLoans <= lendable, "Book " + bookId + " has " + activeLoans + " loans for " + lendable + " copies");
+        assertEquals(copies.size(), copies.stream().map(BookCopy::getCopyNo).distinct().count(),
+            "Book " + bookId + " has duplicate copy numbers");
+        // Withdrawals skip copies that are out, so there can be more copies than the quantity but never fewer
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        assertTrue(lendable >= book.getQuantity(), "Book " + bookId + " lost a quantity change: "
+            + lendable + " copies for quantity " + book.getQuantity());
+
+        BranchHolding holding = branchHoldingRepository.findByBranchIdAndBookId(TenantContext.DEFAULT_BRANCH_ID, bookId).orElseThrow();
+        assertEquals(lendable, holding.getQuantity(), "Holding quantity drifted for book " + bookId);
+        assertEquals(onShelf, holding.getAvailableQuantity(), "Holding availability drifted for book " + bookId);
+        assertEquals(onShelf > 0, book.getIsAvailable(),
+            "Availability flag is stale for book " + bookId);
+    }
+
+    private enum Op { BORROW, RETURN, UPDATE }
+
+    @FunctionalInterface
+    private interface Action<T> {
+        T run();
+    }
+
+    /** Per-operation counters, shared by all workers. */
+    private static final class Stats {
+        private final Map<Op, LongAdder> succeeded = counters();
+        private final Map<Op, LongAdder> rejected = counters();
+        private final Map<Op, LongAdder> retries = counters();
+        private final Map<Op, LongAdder> deadlocks = counters();
+        private final Map<Op, LongAdder> lockTimeouts = counters();
+        private final Map<Op, LongAdder> gaveUp = counters();
+        private final Queue<RuntimeException> unexpected = new ConcurrentLinkedQueue<>();
+
+        private static Map<Op, LongAdder> counters() {
+            Map<Op, LongAdder> counters = new EnumMap<>(Op.class);
+            for (Op op : Op.values()) {
+                counters.put(op, new LongAdder());
+            }
+            return counters;
+        }
+
+        /** Runs the action, retrying lock failures; returns null if it did not succeed. */
+        private <T> T run(Op op, Action<T> action) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    T result = action.run();
+                    succeeded.get(op).increment();
+                    return result;
+                } catch (TransientDataAccessException e) {
+                    int errorCode = sqlErrorCode(e);
+                    if (errorCode == MYSQL_DEADLOCK) {
+                        deadlocks.get(op).increment();
+                    } else if (errorCode == MYSQL_LOCK_WAIT_TIMEOUT) {
+                        lockTimeouts.get(op).increment();
+                    }
+                    if (attempt == MAX_ATTEMPTS) {
+                        gaveUp.get(op).increment();
+                        return null;
+                    }
+                    retries.get(op).increment();
+                } catch (RuntimeException e) {
+                    if (isRejection(e)) {
+                        rejected.get(op).increment();
+                    } else {
+                        unexpected.add(e);
+                    }
+                    return null;
+                }
+            }
+        }
+
+        private static boolean isRejection(RuntimeException e) {
+            String message = e.getMessage();
+            return e.getClass() == RuntimeException.class && message != null
+                && (message.endsWith("not available") || message.endsWith("already returned"));
+        }
+
+        private static int sqlErrorCode(Throwable e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException sql) {
+                    return sql.getErrorCode();
+                }
+            }
+            return 0;
+        }
+
+        /** Fails with the first few unexpected exceptions attached, stack traces and all. */
+        private void assertNoUnexpectedErrors(String message) {
+            if (unexpected.isEmpty()) {
+                return;
+            }
+            AssertionError error = new AssertionError(message + ": " + unexpected.size() + " in total, first "
+                + unexpected.peek());
+            unexpected.stream().limit(MAX_REPORTED_ERRORS).forEach(error::addSuppressed);
+            throw error;
+        }
+
+        private long count(Op op, Map<Op, LongAdder> counters) {
+            return counters.get(op).sum();
+        }
+
+        private void print(int seconds) {
+            System.out.printf("%nCirculation stress: %d threads, %d s, %d books x %d copies, %d members%n",
+                THREADS, seconds, BOOKS, COPIES, MEMBERS);
+            System.out.printf("%-8s %10s %10s %10s %10s %10s %10s %10s%n",
+                "op", "ok", "ops/s", "rejected", "retries", "deadlocks", "timeouts", "gave up");
+            for (Op op : Op.values()) {
+                long ok = count(op, succeeded);
+                System.out.printf("%-8s %10d %10.1f %10d %10d %10d %10d %10d%n",
+                    op.name().toLowerCase(), ok, ok / (double) seconds, count(op, rejected), count(op, retries),
+                    count(op, deadlocks), count(op, lockTimeouts), count(op, gaveUp));
+            }
+            System.out.printf("unexpected errors: %d%n", unexpected.size());
+        }
+    }
+}
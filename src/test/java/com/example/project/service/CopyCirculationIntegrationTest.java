@@ -0,0 +1,354 @@
+package com.example.project.service;
+
+import com.example.project.entity.Book;
+import com.example.project.entity.BookCopy;
+import com.example.project.entity.BookHold;
+import com.example.project.entity.BorrowRecord;
+import com.example.project.entity.BorrowStatus;
+import com.example.project.entity.CopyStatus;
+import com.example.project.entity.HoldStatus;
+import com.example.project.entity.User;
+import com.example.project.repository.BookRepository;
+import com.example.project.repository.BranchHoldingRepository;
+import com.example.project.repository.HoldRepository;
+import com.example.project.repository.UserRepository;
+import com.example.project.security.TenantContext;
+import com.example.project.util.Isbn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Copies, desk scans, holds and branch scoping against the test profile's
+ * MySQL database. Each test creates its own members and titles and deletes
+ * them afterwards; copies, loans and holds go with them through the schema's
+ * cascades.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Copy Circulation Integration Tests")
+class CopyCirculationIntegrationTest {
+
+    private static final Long MAIN = TenantContext.DEFAULT_BRANCH_ID;
+    // Stocks nothing; only the in-memory indexes are asked about it
+    private static final Long EMPTY_BRANCH = 999_999L;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookCopyService bookCopyService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BranchHoldingRepository branchHoldingRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> members = new ArrayList<>();
+    private final List<Book> books = new ArrayList<>();
+    private long run;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setBranchId(MAIN);
+        run = System.currentTimeMillis() % 1_000_000;
+        for (int i = 0; i < 2; i++) {
+            String username = "copies" + run + "_" + i;
+            members.add(userRepository.save(new User(username, "password", "Copy Member " + i, username + "@library.com")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.setBranchId(MAIN);
+        // Through the service so the in-memory indexes forget the titles too
+        books.forEach(book -> bookService.deleteBook(book.getId()));
+        userRepository.deleteAllByIdInBatch(members.stream().map(User::getId).toList());
+        TenantContext.clear();
+    }
+
+    // ================== Copy Numbering Tests ==================
+
+    @Test
+    @DisplayName("Should create one numbered copy per unit of quantity")
+    void testNewTitleGetsNumberedCopies() {
+        Book book = createBook(3);
+
+        List<BookCopy> copies = bookCopyService.getCopies(book.getId());
+
+        assertEquals(List.of(1, 2, 3), copies.stream().map(BookCopy::getCopyNo).toList());
+        for (BookCopy copy : copies) {
+            assertEquals(BookCopy.barcodeFor(book.getId(), copy.getCopyNo()), copy.getBarcode());
+            assertEquals(CopyStatus.AVAILABLE, copy.getStatus());
+            assertEquals(MAIN, copy.getBranchId());
+        }
+        assertEquals(3, bookService.getAvailableInBranch(MAIN, book.getId()));
+    }
+
+    @Test
+    @DisplayName("Should number added copies after the highest, even a withdrawn one")
+    void testCopyNumbersAreNeverReused() {
+        Book book = createBook(3);
+
+        bookService.updateBook(book.getId(), details(book, 1));
+        List<BookCopy> afterWithdraw = bookCopyService.getCopies(book.getId());
+        assertEquals(List.of(CopyStatus.AVAILABLE, CopyStatus.WITHDRAWN, CopyStatus.WITHDRAWN),
+            afterWithdraw.stream().map(BookCopy::getStatus).toList());
+        assertEquals(1, bookService.getAvailableInBranch(MAIN, book.getId()));
+
+        bookService.updateBook(book.getId(), details(book, 2));
+        List<BookCopy> afterAdd = bookCopyService.getCopies(book.getId());
+        assertEquals(List.of(1, 2, 3, 4), afterAdd.stream().map(BookCopy::getCopyNo).toList());
+        assertEquals(CopyStatus.AVAILABLE, afterAdd.get(3).getStatus());
+        assertEquals(2, bookService.getAvailableInBranch(MAIN, book.getId()));
+    }
+
+    // ================== Barcode Tests ==================
+
+    @Test
+    @DisplayName("Should resolve a scanned barcode to its copy")
+    void testLockByBarcode() {
+        Book book = createBook(2);
+        BookCopy second = bookCopyService.getCopies(book.getId()).get(1);
+
+        BookCopy scanned = bookCopyService.lockByBarcode(" " + second.getBarcode() + "\n");
+
+        assertEquals(second.getId(), scanned.getId());
+        assertEquals(2, scanned.getCopyNo());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown or deleted barcode")
+    void testUnknownBarcode() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+        bookService.deleteBook(book.getId());
+        books.remove(book);
+
+        RuntimeException deleted = assertThrows(RuntimeException.class, () -> bookCopyService.lockByBarcode(barcode));
+        assertEquals("No copy with barcode " + barcode, deleted.getMessage());
+        assertThrows(RuntimeException.class, () -> bookCopyService.lockByBarcode("not-a-barcode"));
+    }
+
+    @Test
+    @DisplayName("Should lend and return the scanned copy")
+    void testBorrowAndReturnByBarcode() {
+        Book book = createBook(2);
+        String barcode = BookCopy.barcodeFor(book.getId(), 2);
+
+        BorrowRecord loan = borrowService.borrowByBarcode(members.get(0), barcode);
+
+        assertEquals(barcode, loan.getCopy().getBarcode());
+        assertEquals(BorrowStatus.BORROWED, loan.getStatus());
+        assertEquals(CopyStatus.ON_LOAN, bookCopyService.lockByBarcode(barcode).getStatus());
+        assertEquals(1, bookService.getAvailableInBranch(MAIN, book.getId()));
+
+        BorrowRecord returned = borrowService.returnByBarcode(barcode);
+
+        assertEquals(loan.getId(), returned.getId());
+        assertEquals(BorrowStatus.RETURNED, returned.getStatus());
+        assertNotNull(returned.getActualReturnDate());
+        assertEquals(CopyStatus.AVAILABLE, bookCopyService.lockByBarcode(barcode).getStatus());
+        assertEquals(2, bookService.getAvailableInBranch(MAIN, book.getId()));
+    }
+
+    @Test
+    @DisplayName("Should refuse to lend a copy already out or to return one that is not")
+    void testScanRejections() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+
+        RuntimeException notOnLoan = assertThrows(RuntimeException.class, () -> borrowService.returnByBarcode(barcode));
+        assertEquals("Copy " + barcode + " is not on loan", notOnLoan.getMessage());
+
+        borrowService.borrowByBarcode(members.get(0), barcode);
+        RuntimeException onLoan = assertThrows(RuntimeException.class,
+            () -> borrowService.borrowByBarcode(members.get(1), barcode));
+        assertEquals("Copy " + barcode + " is not available", onLoan.getMessage());
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().getIsAvailable());
+    }
+
+    @Test
+    @DisplayName("Should refuse to lend a shelved copy of a withheld title")
+    void testWithheldTitleIsNotLent() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+
+        bookService.updateAvailability(book.getId(), false);
+
+        assertThrows(RuntimeException.class, () -> borrowService.borrowByBarcode(members.get(0), barcode));
+        assertEquals(CopyStatus.AVAILABLE, bookCopyService.lockByBarcode(barcode).getStatus());
+    }
+
+    // ================== Hold Tests ==================
+
+    @Test
+    @DisplayName("Should not take a hold on a title that is on the shelf")
+    void testHoldOnAvailableTitle() {
+        Book book = createBook(1);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> holdService.placeHold(members.get(0), book));
+        assertEquals("Book is available, borrow it directly", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should set a returned copy aside for the member holding the title")
+    void testReturnedCopyGoesToHold() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+        borrowService.borrowByBarcode(members.get(0), barcode);
+        BookHold hold = holdService.placeHold(members.get(1), reload(book));
+        assertEquals(HoldStatus.WAITING, hold.getStatus());
+        assertEquals(1, holdService.queuePosition(hold));
+
+        borrowService.returnByBarcode(barcode);
+
+        BookHold ready = holdRepository.findById(hold.getId()).orElseThrow();
+        assertEquals(HoldStatus.READY, ready.getStatus());
+        assertNotNull(ready.getExpiresAt());
+        BookCopy copy = bookCopyService.lockByBarcode(barcode);
+        assertEquals(copy.getId(), ready.getCopy().getId());
+        assertEquals(CopyStatus.ON_HOLD, copy.getStatus());
+        assertEquals(0, bookService.getAvailableInBranch(MAIN, book.getId()));
+    }
+
+    @Test
+    @DisplayName("Should lend a held copy at the desk only to its holder")
+    void testHeldCopyByBarcode() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+        borrowService.borrowByBarcode(members.get(0), barcode);
+        BookHold hold = holdService.placeHold(members.get(1), reload(book));
+        borrowService.returnByBarcode(barcode);
+
+        assertThrows(RuntimeException.class, () -> borrowService.borrowByBarcode(members.get(0), barcode));
+        assertEquals(HoldStatus.READY, holdRepository.findById(hold.getId()).orElseThrow().getStatus());
+
+        BorrowRecord loan = borrowService.borrowByBarcode(members.get(1), barcode);
+
+        assertEquals(members.get(1).getId(), loan.getUser().getId());
+        assertEquals(HoldStatus.FULFILLED, holdRepository.findById(hold.getId()).orElseThrow().getStatus());
+        assertEquals(CopyStatus.ON_LOAN, bookCopyService.lockByBarcode(barcode).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should lend the held copy when the holder borrows the title")
+    void testBorrowClaimsReadyHold() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+        borrowService.borrowByBarcode(members.get(0), barcode);
+        BookHold hold = holdService.placeHold(members.get(1), reload(book));
+        borrowService.returnByBarcode(barcode);
+
+        assertThrows(RuntimeException.class, () -> borrowService.borrowBook(members.get(0), reload(book)));
+
+        BorrowRecord loan = borrowService.borrowBook(members.get(1), reload(book));
+
+        assertEquals(barcode, loan.getCopy().getBarcode());
+        assertEquals(HoldStatus.FULFILLED, holdRepository.findById(hold.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should put the copy back on the shelf when a ready hold is cancelled")
+    void testCancelledReadyHoldShelvesCopy() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+        borrowService.borrowByBarcode(members.get(0), barcode);
+        BookHold hold = holdService.placeHold(members.get(1), reload(book));
+        borrowService.returnByBarcode(barcode);
+
+        holdService.cancelHold(hold.getId(), members.get(1));
+
+        assertEquals(HoldStatus.CANCELLED, holdRepository.findById(hold.getId()).orElseThrow().getStatus());
+        assertEquals(CopyStatus.AVAILABLE, bookCopyService.lockByBarcode(barcode).getStatus());
+        assertEquals(1, bookService.getAvailableInBranch(MAIN, book.getId()));
+        assertTrue(reload(book).getIsAvailable());
+    }
+
+    // ================== Branch Scoping Tests ==================
+
+    @Test
+    @DisplayName("Should only browse, search and suggest titles the branch stocks")
+    void testCatalogIsBranchScoped() {
+        Book book = createBook(1);
+        String author = "Author" + run;
+
+        assertTrue(bookService.browse(null, null, null).bookIds().contains(book.getId()));
+        assertTrue(bookService.searchBooks(author).stream().anyMatch(found -> found.getId().equals(book.getId())));
+        assertTrue(bookService.suggest(author).stream().anyMatch(suggestion -> suggestion.id().equals(book.getId())));
+
+        TenantContext.setBranchId(EMPTY_BRANCH);
+
+        assertFalse(bookService.browse(null, null, null).bookIds().contains(book.getId()));
+        assertTrue(bookService.searchBooks(author).isEmpty());
+        assertTrue(bookService.suggest(author).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only lend from the current branch's shelf")
+    void testBorrowIsBranchScoped() {
+        Book book = createBook(1);
+
+        TenantContext.setBranchId(EMPTY_BRANCH);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> borrowService.borrowBook(members.get(0), book));
+        assertEquals("Book is not available", exception.getMessage());
+
+        TenantContext.setBranchId(MAIN);
+        assertNotNull(borrowService.borrowBook(members.get(0), book).getId());
+    }
+
+    @Test
+    @DisplayName("Should count a title available in browse only while the branch has a copy on the shelf")
+    void testBrowseAvailabilityFollowsShelf() {
+        Book book = createBook(1);
+        String barcode = BookCopy.barcodeFor(book.getId(), 1);
+        assertTrue(bookService.browse(null, null, true).bookIds().contains(book.getId()));
+
+        borrowService.borrowByBarcode(members.get(0), barcode);
+        assertFalse(bookService.browse(null, null, true).bookIds().contains(book.getId()));
+        assertTrue(bookService.browse(null, null, false).bookIds().contains(book.getId()));
+        assertEquals(0, branchHoldingRepository.findByBranchIdAndBookId(MAIN, book.getId()).orElseThrow().getAvailableQuantity());
+
+        borrowService.returnByBarcode(barcode);
+        assertTrue(bookService.browse(null, null, true).bookIds().contains(book.getId()));
+    }
+
+    private Book createBook(int copies) {
+        long isbnPrefix = 979_100_000_000L + run * 100 + books.size();
+        String isbn = isbnPrefix + "" + Isbn.checkDigit13(isbnPrefix);
+        Book book = bookService.saveBook(new Book("Copy Test " + run + "-" + books.size(), "Author" + run, isbn,
+            "Fiction", copies));
+        books.add(book);
+        return book;
+    }
+
+    private Book reload(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow();
+    }
+
+    private static Book details(Book book, int quantity) {
+        return new Book(book.getTitle(), book.getAuthor(), book.getIsbn(), book.getGenre(), quantity);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.project.service;
+
+import com.example.project.entity.Reminder;
+import com.example.project.entity.ReminderKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileReminderSender Tests")
+class FileReminderSenderTest {
+
+    @TempDir
+    Path outbox;
+
+    private Reminder reminder(long id, String key) {
+        Reminder reminder = new Reminder();
+        reminder.setId(id);
+        reminder.setIdempotencyKey(key);
+        reminder.setKind(ReminderKind.DUE_SOON);
+        reminder.setRecipient("member" + id + "@library.com");
+        reminder.setSubject("Reminder " + id);
+        reminder.setBody("Body " + id);
+        return reminder;
+    }
+
+    @Test
+    @DisplayName("Should accept every reminder in the batch")
+    void testSendBatch() throws Exception {
+        FileReminderSender sender = new FileReminderSender(outbox.toString());
+
+        Set<Long> delivered = sender.send(List.of(reminder(1, "DUE_SOON:1:2026-01-10"), reminder(2, "DUE_SOON:2:2026-01-10")));
+
+        assertEquals(Set.of(1L, 2L), delivered);
+    }
+
+    @Test
+    @DisplayName("Should write the idempotency key as the Message-ID")
+    void testWritesMessageId() throws Exception {
+        FileReminderSender sender = new FileReminderSender(outbox.toString());
+
+        sender.send(List.of(reminder(7, "OVERDUE:7:2026-01-03")));
+
+        String mailbox;
+        try (Stream<Path> files = Files.list(outbox)) {
+            mailbox = Files.readString(files.findFirst().orElseThrow());
+        }
+        assertTrue(mailbox.contains("Message-ID: <OVERDUE:7:2026-01-03@library>"));
+        assertTrue(mailbox.contains("To: member7@library.com"));
+    }
+
+    @Test
+    @DisplayName("Should append later batches to the same mailbox")
+    void testAppends() throws Exception {
+        FileReminderSender sender = new FileReminderSender(outbox.toString());
+
+        sender.send(List.of(reminder(1, "DUE_SOON:1:2026-01-10")));
+        sender.send(List.of(reminder(2, "DUE_SOON:2:2026-01-10")));
+
+        try (Stream<Path> files = Files.list(outbox)) {
+            String mailbox = Files.readString(files.findFirst().orElseThrow());
+            assertTrue(mailbox.contains("Subject: Reminder 1"));
+            assertTrue(mailbox.contains("Subject: Reminder 2"));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FinePolicy Tests")
+class FinePolicyTest {
+
+    private final FinePolicy policy = new FinePolicy(new BigDecimal("0.25"), 2, new BigDecimal("5.00"));
+
+    private final LocalDate deadline = LocalDate.of(2026, 3, 10);
+
+    @Test
+    @DisplayName("Should not charge within the grace period")
+    void testGracePeriod() {
+        assertEquals(0, policy.chargeableDays(deadline, deadline));
+        assertEquals(0, policy.chargeableDays(deadline, deadline.plusDays(2)));
+        assertEquals(1, policy.chargeableDays(deadline, deadline.plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("Should accrue daily charges incrementally")
+    void testIncrementalAccrual() {
+        BigDecimal first = policy.accrue(BigDecimal.ZERO, 3);
+        BigDecimal second = policy.accrue(first, 2);
+
+        assertEquals(new BigDecimal("0.75"), first);
+        assertEquals(new BigDecimal("1.25"), second);
+        assertEquals(policy.accrue(BigDecimal.ZERO, 5), second);
+    }
+
+    @Test
+    @DisplayName("Should cap the fine per loan")
+    void testCap() {
+        assertEquals(new BigDecimal("5.00"), policy.accrue(new BigDecimal("4.90"), 10));
+    }
+}
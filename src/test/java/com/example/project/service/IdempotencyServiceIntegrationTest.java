@@ -0,0 +1,181 @@
+package com.example.project.service;
+
+import com.example.project.entity.IdempotencyRecord;
+import com.example.project.repository.IdempotencyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("IdempotencyService Integration Tests")
+class IdempotencyServiceIntegrationTest {
+
+    private static final String PATH = "/borrow/1";
+    private static final String VIEW = "redirect:/borrow/history";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    private String username;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        // A fresh user per test so neither the table nor the in-memory cache carries over
+        username = "idempotency" + System.nanoTime();
+        runs = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRepository.deleteAll(idempotencyRepository.findAll().stream()
+            .filter(record -> record.getUsername().equals(username))
+            .toList());
+    }
+
+    // ================== Replay Tests ==================
+
+    @Test
+    @DisplayName("Should run the action once and replay its redirect and messages")
+    void testReplayDoesNotRunAgain() {
+        RedirectAttributesModelMap first = new RedirectAttributesModelMap();
+        String view = idempotencyService.execute(username, "key-1", PATH, VIEW, first, () -> {
+            runs.incrementAndGet();
+            first.addFlashAttribute("success", "Book borrowed successfully!");
+        });
+
+        RedirectAttributesModelMap replay = new RedirectAttributesModelMap();
+        String replayView = idempotencyService.execute(username, " key-1 ", PATH, "redirect:/other", replay,
+            runs::incrementAndGet);
+
+        assertEquals(VIEW, view);
+        assertEquals(VIEW, replayView);
+        assertEquals(1, runs.get());
+        assertEquals("Book borrowed successfully!", replay.getFlashAttributes().get("success"));
+        assertNotNull(record("key-1").getCompletedAt());
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request")
+    void testKeyReusedForOtherPath() {
+        idempotencyService.execute(username, "key-2", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+
+        RedirectAttributesModelMap reused = new RedirectAttributesModelMap();
+        idempotencyService.execute(username, "key-2", "/borrow/2", VIEW, reused, runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+        assertEquals("This form was already used for a different request.", reused.getFlashAttributes().get("error"));
+    }
+
+    @Test
+    @DisplayName("Should run every request without a key")
+    void testNoKey() {
+        idempotencyService.execute(username, null, PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+        idempotencyService.execute(username, " ", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should keep keys apart per user")
+    void testKeysArePerUser() {
+        idempotencyService.execute(username, "key-3", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+        String otherUser = username + "-other";
+        try {
+            idempotencyService.execute(otherUser, "key-3", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+        } finally {
+            idempotencyRepository.release(otherUser, "key-3");
+        }
+
+        assertEquals(2, runs.get());
+    }
+
+    // ================== Claim Tests ==================
+
+    @Test
+    @DisplayName("Should not run a request while another holds a fresh claim on its key")
+    void testFreshClaimBlocks() {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRepository.claim(username, "key-4", PATH, now, now.plusDays(1));
+
+        RedirectAttributesModelMap attributes = new RedirectAttributesModelMap();
+        String view = idempotencyService.execute(username, "key-4", PATH, VIEW, attributes, runs::incrementAndGet);
+
+        assertEquals(VIEW, view);
+        assertEquals(0, runs.get());
+        assertEquals("This request is already being processed.", attributes.getFlashAttributes().get("error"));
+    }
+
+    @Test
+    @DisplayName("Should take over a claim whose lease ran out")
+    void testStaleClaimIsReclaimed() {
+        LocalDateTime then = LocalDateTime.now().minusHours(1);
+        idempotencyRepository.claim(username, "key-5", PATH, then, then.plusDays(1));
+
+        idempotencyService.execute(username, "key-5", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+        IdempotencyRecord record = record("key-5");
+        assertNotNull(record.getCompletedAt());
+        assertTrue(record.getCreatedAt().isAfter(then.plusMinutes(30)));
+    }
+
+    // ================== Failure Tests ==================
+
+    @Test
+    @DisplayName("Should release the key when the action throws")
+    void testThrowingActionReleasesKey() {
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute(username, "key-6", PATH, VIEW,
+            new RedirectAttributesModelMap(), () -> {
+                runs.incrementAndGet();
+                throw new RuntimeException("Book is not available");
+            }));
+        assertTrue(idempotencyRepository.findByUsernameAndIdempotencyKey(username, "key-6").isEmpty());
+
+        idempotencyService.execute(username, "key-6", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should release the key when the action's transaction rolls back")
+    void testRolledBackActionReleasesKey() {
+        RedirectAttributesModelMap attributes = new RedirectAttributesModelMap();
+        String view = idempotencyService.execute(username, "key-7", PATH, VIEW, attributes, () -> {
+            runs.incrementAndGet();
+            try {
+                // Joins the outer transaction and marks it rollback-only
+                bookService.updateAvailability(-1L, true);
+            } catch (RuntimeException e) {
+                attributes.addFlashAttribute("error", e.getMessage());
+            }
+        });
+
+        assertEquals(VIEW, view);
+        assertEquals("Book not found", attributes.getFlashAttributes().get("error"));
+        assertTrue(idempotencyRepository.findByUsernameAndIdempotencyKey(username, "key-7").isEmpty());
+
+        idempotencyService.execute(username, "key-7", PATH, VIEW, new RedirectAttributesModelMap(), runs::incrementAndGet);
+        assertEquals(2, runs.get());
+    }
+
+    private IdempotencyRecord record(String key) {
+        return idempotencyRepository.findByUsernameAndIdempotencyKey(username, key).orElseThrow();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InvalidationBus Tests")
+class InvalidationBusTest {
+
+    private static final long OTHER_NODE = 42L;
+
+    private FakeLog log;
+    private List<Long> applied;
+
+    @BeforeEach
+    void setUp() {
+        log = new FakeLog();
+        applied = new ArrayList<>();
+    }
+
+    private InvalidationBus bus(int batchSize, Duration gapTimeout) {
+        InvalidationBus bus = new InvalidationBus(log, batchSize, gapTimeout, Duration.ofHours(1));
+        bus.subscribe(InvalidationBus.BOOK, (Set<Long> ids) -> applied.addAll(ids));
+        return bus;
+    }
+
+    // ================== Polling Tests ==================
+
+    @Test
+    @DisplayName("Should hand subscribers the ids changed on other nodes")
+    void testAppliesOtherNodesChanges() {
+        InvalidationBus bus = bus(100, Duration.ofMinutes(1));
+        log.add(1, InvalidationBus.BOOK, 10, OTHER_NODE);
+        log.add(2, InvalidationBus.USER, 20, OTHER_NODE);
+        log.add(3, InvalidationBus.BOOK, 30, OTHER_NODE);
+
+        bus.poll();
+
+        assertEquals(List.of(10L, 30L), applied);
+        assertEquals(3L, bus.getMetrics().get("highWaterMark"));
+    }
+
+    @Test
+    @DisplayName("Should skip rows this node published")
+    void testSkipsOwnChanges() {
+        InvalidationBus bus = bus(100, Duration.ofMinutes(1));
+        long nodeId = (Long) bus.getMetrics().get("nodeId");
+        log.add(1, InvalidationBus.BOOK, 10, nodeId);
+        log.add(2, InvalidationBus.BOOK, 20, OTHER_NODE);
+
+        bus.poll();
+
+        assertEquals(List.of(20L), applied);
+    }
+
+    @Test
+    @DisplayName("Should page through a backlog larger than one batch")
+    void testPagesThroughBacklog() {
+        InvalidationBus bus = bus(2, Duration.ofMinutes(1));
+        for (long id = 1; id <= 5; id++) {
+            log.add(id, InvalidationBus.BOOK, id * 10, OTHER_NODE);
+        }
+
+        bus.poll();
+
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L), applied);
+        assertEquals(5L, bus.getMetrics().get("highWaterMark"));
+    }
+
+    // ================== Gap Tests ==================
+
+    @Test
+    @DisplayName("Should apply a row that commits after a higher id was already read")
+    void testOutOfOrderCommitFillsGap() {
+        InvalidationBus bus = bus(100, Duration.ofMinutes(1));
+        log.add(1, InvalidationBus.BOOK, 10, OTHER_NODE);
+        log.add(3, InvalidationBus.BOOK, 30, OTHER_NODE);
+
+        bus.poll();
+        assertEquals(List.of(10L, 30L), applied);
+        assertEquals(1, bus.getMetrics().get("openGaps"));
+
+        // The slower transaction holding id 2 commits
+        log.add(2, InvalidationBus.BOOK, 20, OTHER_NODE);
+        bus.poll();
+
+        assertEquals(List.of(10L, 30L, 20L), applied);
+        assertEquals(0, bus.getMetrics().get("openGaps"));
+        assertEquals(1L, bus.getMetrics().get("gapsFilled"));
+    }
+
+    @Test
+    @DisplayName("Should keep looking for a gap until it fills")
+    void testGapSurvivesEmptyPolls() {
+        InvalidationBus bus = bus(100, Duration.ofMinutes(1));
+        log.add(2, InvalidationBus.BOOK, 20, OTHER_NODE);
+
+        bus.poll();
+        bus.poll();
+        assertEquals(1, bus.getMetrics().get("openGaps"));
+
+        log.add(1, InvalidationBus.BOOK, 10, OTHER_NODE);
+        bus.poll();
+
+        assertEquals(List.of(20L, 10L), applied);
+        assertEquals(0, bus.getMetrics().get("openGaps"));
+    }
+
+    @Test
+    @DisplayName("Should give up on a gap after the timeout")
+    void testGapExpires() throws InterruptedException {
+        InvalidationBus bus = bus(100, Duration.ofMillis(1));
+        log.add(2, InvalidationBus.BOOK, 20, OTHER_NODE);
+
+        bus.poll();
+        assertEquals(1, bus.getMetrics().get("openGaps"));
+
+        Thread.sleep(20);
+        bus.poll();
+        assertEquals(0, bus.getMetrics().get("openGaps"));
+        assertEquals(1L, bus.getMetrics().get("gapsExpired"));
+
+        // A rolled-back insert never appears; anything later at that id is not looked for
+        log.add(1, InvalidationBus.BOOK, 10, OTHER_NODE);
+        bus.poll();
+        assertEquals(List.of(20L), applied);
+    }
+
+    /** In-memory cache_invalidations table answering the two queries the poller makes. */
+    private static final class FakeLog extends JdbcTemplate {
+        private final TreeMap<Long, InvalidationBus.Change> rows = new TreeMap<>();
+
+        void add(long id, int entityType, long entityId, long origin) {
+            rows.put(id, new InvalidationBus.Change(id, entityType, entityId, origin));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            if (sql.contains("WHERE id > ?")) {
+                long after = (Long) args[0];
+                int limit = (Integer) args[1];
+                return (List<T>) rows.tailMap(after, false).values().stream().limit(limit).toList();
+            }
+            return (List<T>) Arrays.stream(args)
+                .map(id -> rows.get((Long) id))
+                .filter(Objects::nonNull)
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RecommendationService Tests")
+class RecommendationServiceTest {
+
+    private RecommendationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RecommendationService(null, 3, 200, 1);
+        // Members 1 and 2 both read 10 and 20; member 3 read 10 and 30
+        service.recordBorrow(1L, 10L);
+        service.recordBorrow(1L, 20L);
+        service.recordBorrow(2L, 10L);
+        service.recordBorrow(2L, 20L);
+        service.recordBorrow(3L, 10L);
+        service.recordBorrow(3L, 30L);
+        service.refreshTopK();
+    }
+
+    // ================== Also Borrowed Tests ==================
+
+    @Test
+    @DisplayName("Should rank co-borrowed books by how many members had both")
+    void testAlsoBorrowedRanking() {
+        assertEquals(List.of(20L, 30L), service.getAlsoBorrowed(10L, 10));
+        assertEquals(List.of(10L), service.getAlsoBorrowed(20L, 10));
+    }
+
+    @Test
+    @DisplayName("Should count a member borrowing the same book twice only once")
+    void testRepeatBorrowIgnored() {
+        service.recordBorrow(3L, 30L);
+        service.recordBorrow(3L, 10L);
+        service.refreshTopK();
+
+        assertEquals(List.of(20L, 30L), service.getAlsoBorrowed(10L, 10));
+    }
+
+    @Test
+    @DisplayName("Should keep only the top K per book")
+    void testTopKLimit() {
+        service.recordBorrow(1L, 40L);
+        service.recordBorrow(1L, 50L);
+        service.refreshTopK();
+
+        assertEquals(3, service.getAlsoBorrowed(10L, 10).size());
+    }
+
+    // ================== Member Tests ==================
+
+    @Test
+    @DisplayName("Should recommend books the member has not borrowed yet")
+    void testForUserExcludesHistory() {
+        assertEquals(List.of(30L), service.getForUser(1L, 10));
+        assertTrue(service.getForUser(99L, 10).isEmpty());
+    }
+
+    // ================== Counter Tests ==================
+
+    @Test
+    @DisplayName("Should keep counts across table growth")
+    void testCounterGrowth() {
+        RecommendationService.IntCounter counter = new RecommendationService.IntCounter(2);
+        for (int key = 1; key <= 1000; key++) {
+            counter.increment(key, key);
+        }
+        counter.increment(500, 1);
+
+        assertEquals(1000, counter.size());
+        assertEquals(501, counter.get(500));
+        assertEquals(0, counter.get(1001));
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.project.service;
+
+import com.example.project.entity.Reminder;
+import com.example.project.entity.ReminderStatus;
+import com.example.project.repository.BorrowRepository;
+import com.example.project.repository.ReminderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+// Keep the application's own dispatcher from claiming these reminders
+@TestPropertySource(properties = "library.reminders.dispatch-ms=3600000")
+@DisplayName("ReminderService Integration Tests")
+class ReminderServiceIntegrationTest {
+
+    private static final String KEY_PREFIX = "reminder-test:";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MS = 60_000L;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ScriptedSender sender;
+    private ReminderService reminderService;
+
+    @BeforeEach
+    void setUp() {
+        deleteTestReminders();
+        sender = new ScriptedSender();
+        reminderService = new ReminderService(borrowRepository, reminderRepository, sender, transactionTemplate, 1);
+        ReflectionTestUtils.setField(reminderService, "batchSize", 50);
+        ReflectionTestUtils.setField(reminderService, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(reminderService, "retryBackoffMs", BACKOFF_MS);
+        ReflectionTestUtils.setField(reminderService, "leaseMs", 300_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reminderService.shutdown();
+        deleteTestReminders();
+    }
+
+    // ================== Delivery Tests ==================
+
+    @Test
+    @DisplayName("Should mark accepted reminders SENT")
+    void testAcceptedReminderIsSent() throws InterruptedException {
+        Long id = enqueue("sent");
+
+        dispatchAndWait();
+
+        Reminder reminder = reminderRepository.findById(id).orElseThrow();
+        assertEquals(ReminderStatus.SENT, reminder.getStatus());
+        assertEquals(1, reminder.getAttempts());
+        assertNotNull(reminder.getSentAt());
+        assertNull(reminder.getLastError());
+    }
+
+    @Test
+    @DisplayName("Should put a rejected reminder back to PENDING with backoff")
+    void testRejectedReminderIsRetried() throws InterruptedException {
+        Long accepted = enqueue("accepted");
+        Long rejected = enqueue("rejected");
+        sender.rejected.add(rejected);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatchAndWait();
+
+        assertEquals(ReminderStatus.SENT, reminderRepository.findById(accepted).orElseThrow().getStatus());
+        Reminder retry = reminderRepository.findById(rejected).orElseThrow();
+        assertEquals(ReminderStatus.PENDING, retry.getStatus());
+        assertEquals(1, retry.getAttempts());
+        assertEquals("Rejected by sender", retry.getLastError());
+        assertTrue(retry.getNextAttemptAt().isAfter(before.plusSeconds(50)));
+        assertTrue(retry.getNextAttemptAt().isBefore(before.plusSeconds(70)));
+    }
+
+    @Test
+    @DisplayName("Should record the sender's error when the whole batch fails")
+    void testFailedBatchIsRetried() throws InterruptedException {
+        Long id = enqueue("batch-error");
+        sender.failure = new IllegalStateException("SMTP unavailable");
+
+        dispatchAndWait();
+
+        Reminder reminder = reminderRepository.findById(id).orElseThrow();
+        assertEquals(ReminderStatus.PENDING, reminder.getStatus());
+        assertEquals("SMTP unavailable", reminder.getLastError());
+    }
+
+    @Test
+    @DisplayName("Should give up with FAILED once max attempts are used")
+    void testFailsAfterMaxAttempts() throws InterruptedException {
+        Long id = enqueue("exhausted");
+        Reminder reminder = reminderRepository.findById(id).orElseThrow();
+        reminder.setAttempts(MAX_ATTEMPTS - 1);
+        reminderRepository.save(reminder);
+        sender.failure = new IllegalStateException("Mailbox full");
+
+        dispatchAndWait();
+
+        Reminder failed = reminderRepository.findById(id).orElseThrow();
+        assertEquals(ReminderStatus.FAILED, failed.getStatus());
+        assertEquals(MAX_ATTEMPTS, failed.getAttempts());
+        assertEquals("Mailbox full", failed.getLastError());
+    }
+
+    // ================== Lease Tests ==================
+
+    @Test
+    @DisplayName("Should reclaim a SENDING reminder whose lease ran out")
+    void testExpiredLeaseIsReclaimed() throws InterruptedException {
+        Long id = enqueue("stale-lease");
+        setSending(id, LocalDateTime.now().minusMinutes(1));
+
+        dispatchAndWait();
+
+        Reminder reminder = reminderRepository.findById(id).orElseThrow();
+        assertEquals(ReminderStatus.SENT, reminder.getStatus());
+        assertEquals(2, reminder.getAttempts());
+    }
+
+    @Test
+    @DisplayName("Should leave a SENDING reminder alone while its lease holds")
+    void testLiveLeaseIsNotReclaimed() throws InterruptedException {
+        Long id = enqueue("live-lease");
+        setSending(id, LocalDateTime.now().plusMinutes(5));
+
+        dispatchAndWait();
+
+        Reminder reminder = reminderRepository.findById(id).orElseThrow();
+        assertEquals(ReminderStatus.SENDING, reminder.getStatus());
+        assertEquals(1, reminder.getAttempts());
+        assertFalse(sender.sent.contains(id));
+    }
+
+    // ================== Backoff Tests ==================
+
+    @Test
+    @DisplayName("Should double the backoff per attempt and cap it at one day")
+    void testBackoff() {
+        assertEquals(BACKOFF_MS, reminderService.backoffMs(1));
+        assertEquals(2 * BACKOFF_MS, reminderService.backoffMs(2));
+        assertEquals(4 * BACKOFF_MS, reminderService.backoffMs(3));
+        assertEquals(86_400_000L, reminderService.backoffMs(12));
+        assertEquals(86_400_000L, reminderService.backoffMs(1_000));
+    }
+
+    private Long enqueue(String key) {
+        transactionTemplate.executeWithoutResult(tx -> reminderRepository.enqueue(KEY_PREFIX + key, "DUE_SOON", 1L,
+            "member@example.com", "Reminder", "Please return your book.", LocalDateTime.now().minusMinutes(1)));
+        return reminderRepository.findAll().stream()
+            .filter(reminder -> reminder.getIdempotencyKey().equals(KEY_PREFIX + key))
+            .findFirst().orElseThrow().getId();
+    }
+
+    /** As if a dispatcher had claimed it once and held the lease until leaseUntil. */
+    private void setSending(Long id, LocalDateTime leaseUntil) {
+        Reminder reminder = reminderRepository.findById(id).orElseThrow();
+        reminder.setStatus(ReminderStatus.SENDING);
+        reminder.setAttempts(1);
+        reminder.setNextAttemptAt(leaseUntil);
+        reminderRepository.save(reminder);
+    }
+
+    private void dispatchAndWait() throws InterruptedException {
+        reminderService.dispatch();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((Integer) reminderService.getMetrics().get("batchesInFlight") > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "Reminder batch did not complete");
+            Thread.sleep(10);
+        }
+    }
+
+    private void deleteTestReminders() {
+        reminderRepository.deleteAll(reminderRepository.findAll().stream()
+            .filter(reminder -> reminder.getIdempotencyKey().startsWith(KEY_PREFIX))
+            .toList());
+    }
+
+    /** Accepts every reminder except the rejected ids, or fails the whole batch. */
+    private static final class ScriptedSender implements ReminderSender {
+        private final Set<Long> rejected = new HashSet<>();
+        private final Set<Long> sent = new HashSet<>();
+        private Exception failure;
+
+        @Override
+        public Set<Long> send(List<Reminder> batch) throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            Set<Long> accepted = batch.stream()
+                .map(Reminder::getId)
+                .filter(id -> !rejected.contains(id))
+                .collect(Collectors.toSet());
+            sent.addAll(accepted);
+            return accepted;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.project.support;
+
+import com.example.project.monitoring.QueryCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a test annotated with @QueryBudget if its body runs more SQL
+ * statements than declared. Counting relies on the Hibernate statement
+ * inspector configured in application.properties, so the test must run
+ * its queries on the test thread.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+    
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryCounter.current());
+    }
+    
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Long start = context.getStore(NAMESPACE).remove(context.getUniqueId(), Long.class);
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        if (budget == null || start == null) {
+            return;
+        }
+        long queries = QueryCounter.current() - start;
+        if (queries > budget.value()) {
+            fail(context.getDisplayName() + " ran " + queries + " SQL statements, over its budget of " + budget.value());
+        }
+    }
+}
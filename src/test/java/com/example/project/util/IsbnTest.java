@@ -0,0 +1,50 @@
+package com.example.project.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Isbn Tests")
+class IsbnTest {
+
+    // ================== Normalization Tests ==================
+
+    @Test
+    @DisplayName("Should map hyphenated and plain ISBN-13 to the same key")
+    void testHyphenationIgnored() {
+        assertEquals(9780132350884L, Isbn.toIsbn13("978-0132350884"));
+        assertEquals(9780132350884L, Isbn.toIsbn13("9780132350884"));
+        assertEquals(9780132350884L, Isbn.toIsbn13("978 0 13 235088 4"));
+    }
+
+    @Test
+    @DisplayName("Should convert ISBN-10 to ISBN-13, including an X check digit")
+    void testIsbn10Conversion() {
+        assertEquals(9780743273565L, Isbn.toIsbn13("0743273567"));
+        assertEquals(9780743273565L, Isbn.toIsbn13("0-7432-7356-7"));
+        assertEquals(9780306406157L, Isbn.toIsbn13("0-306-40615-2"));
+        assertEquals(9780804429573L, Isbn.toIsbn13("080442957X"));
+    }
+
+    // ================== Validation Tests ==================
+
+    @Test
+    @DisplayName("Should reject bad checksums, lengths and prefixes")
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Isbn.toIsbn13("9780132350885"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.toIsbn13("0743273568"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.toIsbn13("978013235088"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.toIsbn13("1230132350884"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.toIsbn13("97801323508X4"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.toIsbn13(null));
+        assertFalse(Isbn.isValid("978-0-ABC2-7356"));
+    }
+
+    @Test
+    @DisplayName("Should compute the ISBN-13 check digit and display form")
+    void testCheckDigitAndFormat() {
+        assertEquals(4, Isbn.checkDigit13(978013235088L));
+        assertEquals("978-0132350884", Isbn.format(9780132350884L));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.project.view;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FragmentCache Tests")
+class FragmentCacheTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void signInAs(String username, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            username, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+
+    // ================== Key Tests ==================
+
+    @Test
+    @DisplayName("Should share entries between users with the same roles")
+    void testKeyedByRoleNotUser() {
+        FragmentCache cache = new FragmentCache(true, 10, 1_000);
+        signInAs("alice", "ROLE_MEMBER");
+        String aliceKey = cache.keyFor("navbar-menu");
+        signInAs("bob", "ROLE_MEMBER");
+        assertEquals(aliceKey, cache.keyFor("navbar-menu"));
+        signInAs("carol", "ROLE_LIBRARIAN");
+        assertNotEquals(aliceKey, cache.keyFor("navbar-menu"));
+    }
+
+    @Test
+    @DisplayName("Should stop serving entries once the catalog changes")
+    void testCatalogChangeInvalidates() {
+        FragmentCache cache = new FragmentCache(true, 10, 1_000);
+        String key = cache.keyFor("book-table");
+        cache.put(key, "<table></table>");
+        assertEquals("<table></table>", cache.get(cache.keyFor("book-table")));
+
+        cache.catalogChanged();
+        assertNull(cache.get(cache.keyFor("book-table")));
+    }
+
+    // ================== Eviction Tests ==================
+
+    @Test
+    @DisplayName("Should evict the least recently used entry past the entry limit")
+    void testEntryLimit() {
+        FragmentCache cache = new FragmentCache(true, 2, 1_000);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+    }
+
+    @Test
+    @DisplayName("Should evict entries until the cached HTML fits the character limit")
+    void testCharLimit() {
+        FragmentCache cache = new FragmentCache(true, 10, 10);
+        cache.put("a", "aaaaaa");
+        cache.put("b", "bbbbbb");
+        assertNull(cache.get("a"));
+        assertEquals("bbbbbb", cache.get("b"));
+
+        cache.put("huge", "x".repeat(11));
+        assertNull(cache.get("huge"));
+        assertEquals(6L, cache.getMetrics().get("cachedChars"));
+    }
+
+    @Test
+    @DisplayName("Should never return cached HTML when disabled")
+    void testDisabled() {
+        FragmentCache cache = new FragmentCache(false, 10, 1_000);
+        cache.put("a", "A");
+        assertNull(cache.get("a"));
+    }
+}